@@ -143,6 +143,16 @@ final class RtAlias implements Alias {
         this.email(email);
     }
 
+    @Override
+    public boolean digest() {
+        throw new UnsupportedOperationException("#digest()");
+    }
+
+    @Override
+    public void digest(final boolean yes) {
+        throw new UnsupportedOperationException("#digest(boolean)");
+    }
+
     @Override
     public Inbox inbox() {
         return new RtInbox(this.request);
@@ -154,6 +154,12 @@ final class RtFriends implements Friends {
                         public String email() {
                             throw new UnsupportedOperationException("#email()");
                         }
+                        @Override
+                        public boolean digest() {
+                            throw new UnsupportedOperationException(
+                                "#digest()"
+                            );
+                        }
                     };
                 }
             }
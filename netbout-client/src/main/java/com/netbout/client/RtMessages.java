@@ -87,6 +87,16 @@ final class RtMessages implements Messages {
         return 0L;
     }
 
+    @Override
+    public long top() throws IOException {
+        final Iterator<Message> messages = this.iterate().iterator();
+        long top = 0L;
+        if (messages.hasNext()) {
+            top = messages.next().number();
+        }
+        return top;
+    }
+
     @Override
     public Pageable<Message> jump(final long number) {
         throw new UnsupportedOperationException("#jump()");
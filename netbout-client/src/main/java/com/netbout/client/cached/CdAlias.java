@@ -112,6 +112,18 @@ public final class CdAlias implements Alias {
         this.origin.email(email, link);
     }
 
+    @Override
+    @Cacheable
+    public boolean digest() throws IOException {
+        return this.origin.digest();
+    }
+
+    @Override
+    @Cacheable.FlushBefore
+    public void digest(final boolean yes) throws IOException {
+        this.origin.digest(yes);
+    }
+
     @Override
     @Cacheable
     public Inbox inbox() throws IOException {
@@ -78,4 +78,10 @@ public final class CdFriend implements Friend {
     public String email() throws IOException {
         return this.origin.email();
     }
+
+    @Override
+    @Cacheable
+    public boolean digest() throws IOException {
+        return this.origin.digest();
+    }
 }
@@ -75,6 +75,11 @@ public final class CdMessages implements Messages {
         return this.origin.unread();
     }
 
+    @Override
+    public long top() throws IOException {
+        return this.origin.top();
+    }
+
     @Override
     public Pageable<Message> jump(final long number) throws IOException {
         return this.origin.jump(number);
@@ -140,6 +140,24 @@ public final class ReAlias implements Alias {
         this.origin.email(email, link);
     }
 
+    @Override
+    @RetryOnFailure(
+        verbose = false, attempts = Tv.TWENTY,
+        delay = Tv.FIVE, unit = TimeUnit.SECONDS
+    )
+    public boolean digest() throws IOException {
+        return this.origin.digest();
+    }
+
+    @Override
+    @RetryOnFailure(
+        verbose = false, attempts = Tv.TWENTY,
+        delay = Tv.FIVE, unit = TimeUnit.SECONDS
+    )
+    public void digest(final boolean yes) throws IOException {
+        this.origin.digest(yes);
+    }
+
     @Override
     @RetryOnFailure(
         verbose = false, attempts = Tv.TWENTY,
@@ -84,6 +84,15 @@ public final class ReMessages implements Messages {
         return this.origin.unread();
     }
 
+    @Override
+    @RetryOnFailure(
+        verbose = false, attempts = Tv.TWENTY,
+        delay = Tv.FIVE, unit = TimeUnit.SECONDS
+    )
+    public long top() throws IOException {
+        return this.origin.top();
+    }
+
     @Override
     @RetryOnFailure(
         verbose = false, attempts = Tv.TWENTY,
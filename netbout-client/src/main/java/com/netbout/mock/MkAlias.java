@@ -177,6 +177,31 @@ final class MkAlias implements Alias {
         this.email(email);
     }
 
+    @Override
+    public boolean digest() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql("SELECT digest FROM alias WHERE name = ?")
+                .set(this.label)
+                .select(new SingleOutcome<Boolean>(Boolean.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    @Override
+    public void digest(final boolean yes) throws IOException {
+        try {
+            new JdbcSession(this.sql.source())
+                .sql("UPDATE alias SET digest = ? WHERE name = ?")
+                .set(yes)
+                .set(this.label)
+                .update(Outcome.VOID);
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
     @Override
     public Inbox inbox() throws IOException {
         return new MkInbox(this.sql, this.label);
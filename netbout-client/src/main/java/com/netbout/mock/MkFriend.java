@@ -100,4 +100,16 @@ final class MkFriend implements Friend {
             throw new IOException(ex);
         }
     }
+
+    @Override
+    public boolean digest() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                .sql("SELECT digest FROM alias WHERE name = ?")
+                .set(this.name)
+                .select(new SingleOutcome<Boolean>(Boolean.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
 }
@@ -30,6 +30,7 @@ import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.jdbc.JdbcSession;
 import com.jcabi.jdbc.Outcome;
+import com.jcabi.jdbc.SingleOutcome;
 import com.netbout.spi.Message;
 import com.netbout.spi.Messages;
 import com.netbout.spi.Pageable;
@@ -105,6 +106,19 @@ final class MkMessages implements Messages {
         return 0L;
     }
 
+    @Override
+    public long top() throws IOException {
+        try {
+            return new JdbcSession(this.sql.source())
+                // @checkstyle LineLength (1 line)
+                .sql("SELECT COALESCE(MAX(number), 0) FROM message WHERE bout = ?")
+                .set(this.bout)
+                .select(new SingleOutcome<>(Long.class));
+        } catch (final SQLException ex) {
+            throw new IOException(ex);
+        }
+    }
+
     @Override
     public Pageable<Message> jump(final long number) {
         return this;
@@ -109,6 +109,22 @@ public interface Alias {
      */
     void email(String email, String link) throws IOException;
 
+    /**
+     * Does it want a daily digest instead of one email per message?
+     * @return TRUE if digest is enabled
+     * @throws IOException If fails
+     * @since 2.32
+     */
+    boolean digest() throws IOException;
+
+    /**
+     * Enable or disable the daily digest.
+     * @param yes TRUE to enable it
+     * @throws IOException If fails
+     * @since 2.32
+     */
+    void digest(boolean yes) throws IOException;
+
     /**
      * Get inbox.
      * @return Inbox
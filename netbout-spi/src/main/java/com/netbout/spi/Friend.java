@@ -64,6 +64,14 @@ public interface Friend {
      */
     String email() throws IOException;
 
+    /**
+     * Does it want a daily digest instead of one email per message?
+     * @return TRUE if digest is enabled
+     * @throws IOException If fails
+     * @since 2.32
+     */
+    boolean digest() throws IOException;
+
     /**
      * Matcher of its alias.
      */
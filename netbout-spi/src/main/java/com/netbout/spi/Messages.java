@@ -58,6 +58,14 @@ public interface Messages extends Pageable<Message>, Searchable<Message> {
      */
     long unread() throws IOException;
 
+    /**
+     * Number of the newest message, without marking anything as seen.
+     * @return Number of it or zero if there are no messages
+     * @throws IOException If fails
+     * @since 2.32
+     */
+    long top() throws IOException;
+
     /**
      * Message content is not valid.
      */
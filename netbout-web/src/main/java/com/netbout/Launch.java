@@ -31,10 +31,22 @@ import com.jcabi.email.postman.PostNoLoops;
 import com.jcabi.email.wire.SMTP;
 import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
+import com.netbout.breaker.BrPostman;
 import com.netbout.cached.CdBase;
 import com.netbout.dynamo.DyBase;
+import com.netbout.email.EmAction;
 import com.netbout.email.EmBase;
+import com.netbout.email.EmCatch;
+import com.netbout.email.EmDigest;
+import com.netbout.email.EmLanes;
+import com.netbout.email.EmOutbox;
+import com.netbout.email.EmPool;
+import com.netbout.live.LvBase;
 import com.netbout.rest.TkApp;
+import com.netbout.spi.Base;
+import com.netbout.traced.TrBase;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.takes.http.Exit;
 import org.takes.http.FtCLI;
 
@@ -62,15 +74,36 @@ public final class Launch {
      */
     public static void main(final String... args) throws Exception {
         Logger.info(Launch.class, "starting...");
-        new FtCLI(
-            new TkApp(
-                new EmBase(
-                    new CdBase(new DyBase()),
-                    new PostNoLoops(Launch.postman())
-                )
-            ),
-            args
-        ).start(Exit.NEVER);
+        final Postman postman = new PostNoLoops(
+            new EmOutbox(new BrPostman(Launch.postman()))
+        );
+        new EmDigest(postman).recover();
+        final Base base = new EmBase(
+            new LvBase(new CdBase(new TrBase(new DyBase()))),
+            postman
+        );
+        Launch.inbound(base);
+        new FtCLI(new TkApp(base), args).start(Exit.NEVER);
+    }
+
+    /**
+     * Start catching replies from the inbound mailbox, if there is one.
+     * @param base The base
+     */
+    private static void inbound(final Base base) {
+        final int port = NumberUtils.toInt(Manifests.read("Netbout-ImapPort"));
+        if (port == 0) {
+            Logger.info(Launch.class, "inbound emails are not caught");
+        } else {
+            new EmCatch(
+                new EmLanes(new EmAction(base)),
+                Manifests.read("Netbout-ImapUser"),
+                Manifests.read("Netbout-ImapPassword"),
+                Manifests.read("Netbout-ImapHost"),
+                port,
+                TimeUnit.MINUTES.toSeconds(1L)
+            ).start();
+        }
     }
 
     /**
@@ -83,7 +116,7 @@ public final class Launch {
         if (port == 0) {
             postman = Postman.CONSOLE;
         } else {
-            postman = new Postman.Default(
+            postman = new EmPool(
                 new SMTP(
                     Manifests.read("Netbout-SmtpHost"),
                     port,
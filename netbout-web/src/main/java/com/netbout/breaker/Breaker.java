@@ -0,0 +1,686 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.breaker;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Circuit breaker and bulkhead of one external dependency.
+ *
+ * <p>Not more than a fixed number of calls can be in progress at the
+ * same time, others wait for a moment and then are rejected. Calls run
+ * in a bounded pool of threads of the breaker, and the caller waits not
+ * longer than the time limit: a call that hangs is interrupted and keeps
+ * its slot until it really ends, but not the thread of the caller.
+ * Calls that fail because of the dependency or time out are
+ * counted as failures, and after {@link #THRESHOLD} failures in a row
+ * the breaker opens and rejects all calls for {@link #COOL} seconds.
+ * Then it lets one call through, and closes again if it succeeds.
+ * Rejected calls fail with {@link Breaker.RejectedException},
+ * immediately. Every time the breaker opens or closes, its generation
+ * changes, and results of calls admitted in an earlier generation are
+ * ignored, so a late success of an old call doesn't close the breaker,
+ * which a newer failure has just opened.</p>
+ *
+ * <p>Only transport errors, throttling and server errors of the
+ * dependency are failures, while errors like "not found" or a failed
+ * condition mean that the dependency works fine. Transfers of streams
+ * are not limited in time, since big files take long anyway, and run
+ * in the thread of the caller.</p>
+ *
+ * <p>Get breakers from {@link Breakers}, they are shared by all
+ * threads.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@ToString(of = "name")
+@EqualsAndHashCode(of = "name")
+@SuppressWarnings("PMD.TooManyMethods")
+public final class Breaker {
+
+    /**
+     * How many failures in a row open the breaker.
+     */
+    public static final int THRESHOLD = Tv.FIVE;
+
+    /**
+     * How long it stays open, in seconds.
+     */
+    public static final long COOL = (long) Tv.THIRTY;
+
+    /**
+     * How long to wait for a free slot, in milliseconds.
+     */
+    private static final long QUEUE = (long) Tv.HUNDRED;
+
+    /**
+     * HTTP status "too many requests".
+     */
+    private static final int TOO_MANY = 429;
+
+    /**
+     * Error codes of AWS services, which mean throttling.
+     */
+    private static final Collection<String> THROTTLING = Arrays.asList(
+        "Throttling", "ThrottlingException", "RequestLimitExceeded",
+        "ProvisionedThroughputExceededException", "SlowDown",
+        "TooManyRequestsException", "RequestThrottled"
+    );
+
+    /**
+     * Families of metrics, with their types, in Prometheus text format.
+     */
+    static final String[][] FAMILIES = {
+        {"netbout_breaker_open", "gauge"},
+        {"netbout_breaker_in_flight", "gauge"},
+        {"netbout_breaker_calls_total", "counter"},
+        {"netbout_breaker_failures_total", "counter"},
+        {"netbout_breaker_slow_total", "counter"},
+        {"netbout_breaker_rejected_total", "counter"}
+    };
+
+    /**
+     * Name of the dependency.
+     */
+    private final transient String name;
+
+    /**
+     * How many calls may be in progress at the same time.
+     */
+    private final transient int size;
+
+    /**
+     * Slots for calls.
+     */
+    private final transient Semaphore slots;
+
+    /**
+     * Calls slower than this are failures, in milliseconds.
+     */
+    private final transient long slow;
+
+    /**
+     * Threads, which make timed calls.
+     */
+    private final transient ExecutorService threads;
+
+    /**
+     * Generation, which changes when the breaker opens or closes.
+     */
+    private final transient AtomicLong generation = new AtomicLong();
+
+    /**
+     * Failures in a row.
+     */
+    private final transient AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * When it was opened, in milliseconds, or zero if it's closed.
+     */
+    private final transient AtomicLong opened = new AtomicLong();
+
+    /**
+     * Is a trial call in progress?
+     */
+    private final transient AtomicBoolean trial = new AtomicBoolean();
+
+    /**
+     * Counters: calls, failures, slow calls, rejected calls.
+     */
+    private final transient AtomicLong[] counters = {
+        new AtomicLong(), new AtomicLong(), new AtomicLong(), new AtomicLong()
+    };
+
+    /**
+     * Ctor.
+     * @param dep Name of the dependency
+     * @param calls How many calls may be in progress at the same time
+     * @param millis Calls slower than this are failures
+     */
+    Breaker(final String dep, final int calls, final long millis) {
+        this.name = dep;
+        this.size = calls;
+        this.slots = new Semaphore(calls);
+        this.slow = millis;
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            calls, calls, 1L, TimeUnit.MINUTES,
+            new LinkedBlockingQueue<Runnable>(calls),
+            new VerboseThreads(String.format("breaker-%s", dep))
+        );
+        pool.allowCoreThreadTimeOut(true);
+        this.threads = pool;
+    }
+
+    /**
+     * Name of the dependency.
+     * @return Name
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Is it open now?
+     * @return TRUE if calls are rejected
+     */
+    public boolean isOpen() {
+        final long when = this.opened.get();
+        return when != 0L && System.currentTimeMillis() - when
+            < TimeUnit.SECONDS.toMillis(Breaker.COOL);
+    }
+
+    /**
+     * Make a call through the breaker.
+     * @param call The call
+     * @return Its result
+     * @param <T> Type of result
+     * @throws IOException If fails or rejected
+     */
+    public <T> T call(final Callable<T> call) throws IOException {
+        return this.call(call, true);
+    }
+
+    /**
+     * Make a call through the breaker.
+     * @param call The call
+     * @param timed Is it a failure when the call is slow?
+     * @return Its result
+     * @param <T> Type of result
+     * @throws IOException If fails or rejected
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public <T> T call(final Callable<T> call, final boolean timed)
+        throws IOException {
+        final long gen = this.generation.get();
+        final boolean probe = this.admit();
+        try {
+            this.acquire();
+            final long start = System.currentTimeMillis();
+            final T result;
+            try {
+                result = this.run(call, timed);
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Exception ex) {
+                if (Breaker.outage(ex)) {
+                    this.failed(gen);
+                } else {
+                    this.done(gen, System.currentTimeMillis() - start, timed);
+                }
+                throw Breaker.io(ex);
+            }
+            this.done(gen, System.currentTimeMillis() - start, timed);
+            return result;
+        } finally {
+            if (probe) {
+                this.trial.set(false);
+            }
+        }
+    }
+
+    /**
+     * Wrap an object, to make all calls to its interface through
+     * the breaker.
+     *
+     * <p>Objects returned by its methods are wrapped too, if their types
+     * are among the nested interfaces.</p>
+     *
+     * @param type The interface
+     * @param origin The object
+     * @param nested Interfaces of objects it returns, to wrap too
+     * @return Wrapped object
+     * @param <T> Type of the interface
+     */
+    public <T> T wrap(final Class<T> type, final T origin,
+        final Class<?>... nested) {
+        return type.cast(
+            Proxy.newProxyInstance(
+                Thread.currentThread().getContextClassLoader(),
+                new Class<?>[] {type},
+                new Breaker.Handler(this, origin, Arrays.asList(nested))
+            )
+        );
+    }
+
+    /**
+     * Print its state, in Prometheus text format.
+     * @return Text
+     */
+    public String print() {
+        final StringBuilder text = new StringBuilder(Tv.HUNDRED);
+        for (int idx = 0; idx < Breaker.FAMILIES.length; ++idx) {
+            text.append(this.sample(idx));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Print one sample, in Prometheus text format.
+     * @param family Index of the family in {@link #FAMILIES}
+     * @return Text
+     */
+    String sample(final int family) {
+        final long value;
+        if (family == 0) {
+            if (this.isOpen()) {
+                value = 1L;
+            } else {
+                value = 0L;
+            }
+        } else if (family == 1) {
+            value = (long) (this.size - this.slots.availablePermits());
+        } else {
+            value = this.counters[family - 2].get();
+        }
+        return String.format(
+            "%s{dependency=\"%s\"} %d\n",
+            Breaker.FAMILIES[family][0], this.name, value
+        );
+    }
+
+    /**
+     * Admit a call or reject it, if the breaker is open.
+     * @return TRUE if this is a trial call
+     * @throws Breaker.RejectedException If rejected
+     */
+    private boolean admit() throws Breaker.RejectedException {
+        final boolean probe;
+        if (this.opened.get() == 0L) {
+            probe = false;
+        } else if (!this.isOpen() && this.trial.compareAndSet(false, true)) {
+            probe = true;
+        } else {
+            this.counters[Tv.THREE].incrementAndGet();
+            throw new Breaker.RejectedException(
+                String.format("%s is not available now", this.name)
+            );
+        }
+        return probe;
+    }
+
+    /**
+     * Take a slot, waiting for it a moment.
+     * @throws IOException If there are no free slots
+     */
+    private void acquire() throws IOException {
+        try {
+            if (!this.slots.tryAcquire(Breaker.QUEUE, TimeUnit.MILLISECONDS)) {
+                this.counters[Tv.THREE].incrementAndGet();
+                throw new Breaker.RejectedException(
+                    String.format("%s is too busy now", this.name)
+                );
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        this.counters[0].incrementAndGet();
+    }
+
+    /**
+     * Run the call, which has a slot, and release the slot when
+     * the call ends.
+     *
+     * <p>Timed calls run in threads of the breaker, and the caller waits
+     * for them not longer than the limit. A call that times out is
+     * interrupted and keeps its slot until it ends.</p>
+     *
+     * @param call The call
+     * @param timed Is it limited in time?
+     * @return Its result
+     * @param <T> Type of result
+     * @throws Exception If fails
+     */
+    private <T> T run(final Callable<T> call, final boolean timed)
+        throws Exception {
+        final T result;
+        if (timed) {
+            final AtomicBoolean started = new AtomicBoolean();
+            final Future<T> future;
+            try {
+                future = this.threads.submit(
+                    new Callable<T>() {
+                        @Override
+                        public T call() throws Exception {
+                            T answer = null;
+                            if (started.compareAndSet(false, true)) {
+                                try {
+                                    answer = call.call();
+                                } finally {
+                                    Breaker.this.slots.release();
+                                }
+                            }
+                            return answer;
+                        }
+                    }
+                );
+            } catch (final RejectedExecutionException ex) {
+                this.slots.release();
+                throw new Breaker.RejectedException(
+                    String.format("%s has no free threads", this.name)
+                );
+            }
+            result = this.await(future, started);
+        } else {
+            try {
+                result = call.call();
+            } finally {
+                this.slots.release();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wait for the call to finish, not longer than the limit.
+     * @param future The call
+     * @param started Did it start already?
+     * @return Its result
+     * @param <T> Type of result
+     * @throws Exception If fails or times out
+     */
+    private <T> T await(final Future<T> future, final AtomicBoolean started)
+        throws Exception {
+        try {
+            return future.get(this.slow, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            this.cancel(future, started);
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (final TimeoutException ex) {
+            this.cancel(future, started);
+            this.counters[2].incrementAndGet();
+            throw new IOException(
+                String.format(
+                    "%s didn't answer in %dms", this.name, this.slow
+                ),
+                ex
+            );
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw Exception.class.cast(cause);
+            }
+            throw Error.class.cast(cause);
+        }
+    }
+
+    /**
+     * Cancel the call and release its slot, if it didn't start yet.
+     * @param future The call
+     * @param started Did it start already?
+     */
+    private void cancel(final Future<?> future, final AtomicBoolean started) {
+        future.cancel(true);
+        if (started.compareAndSet(false, true)) {
+            this.slots.release();
+        }
+    }
+
+    /**
+     * Call is done.
+     * @param gen Generation, in which the call was admitted
+     * @param millis How long it took
+     * @param timed Is it a failure when the call is slow?
+     */
+    private void done(final long gen, final long millis,
+        final boolean timed) {
+        if (timed && millis > this.slow) {
+            this.counters[2].incrementAndGet();
+            this.failed(gen);
+        } else if (this.generation.get() == gen) {
+            this.failures.set(0);
+            if (this.opened.get() != 0L
+                && this.generation.compareAndSet(gen, gen + 1L)) {
+                this.opened.set(0L);
+                Logger.info(this, "%s is closed", this.name);
+            }
+        }
+    }
+
+    /**
+     * Call failed.
+     * @param gen Generation, in which the call was admitted
+     */
+    private void failed(final long gen) {
+        this.counters[1].incrementAndGet();
+        if (this.generation.get() == gen
+            && (this.failures.incrementAndGet() >= Breaker.THRESHOLD
+            || this.opened.get() != 0L)
+            && this.generation.compareAndSet(gen, gen + 1L)) {
+            this.opened.set(System.currentTimeMillis());
+            Logger.warn(
+                this, "%s is open for %ds, after %d failures",
+                this.name, Breaker.COOL, this.failures.get()
+            );
+        }
+    }
+
+    /**
+     * Is it a failure of the dependency, not of the call?
+     *
+     * <p>Errors of AWS services are failures only if they are server
+     * errors or throttling, even if they are wrapped into other
+     * exceptions. Other errors of AWS clients and I/O errors are
+     * transport failures.</p>
+     *
+     * @param exp Exception thrown by the call
+     * @return TRUE if it is
+     */
+    private static boolean outage(final Exception exp) {
+        Throwable cause = exp;
+        while (cause != null && !(cause instanceof AmazonServiceException)) {
+            cause = cause.getCause();
+        }
+        final boolean down;
+        if (cause == null) {
+            down = exp instanceof IOException
+                || exp instanceof AmazonClientException;
+        } else {
+            final AmazonServiceException ase =
+                AmazonServiceException.class.cast(cause);
+            final int status = ase.getStatusCode();
+            down = status >= HttpURLConnection.HTTP_INTERNAL_ERROR
+                || status == Breaker.TOO_MANY
+                || Breaker.THROTTLING.contains(ase.getErrorCode());
+        }
+        return down;
+    }
+
+    /**
+     * Make IOException.
+     * @param exp Exception thrown by the call
+     * @return IOException
+     */
+    private static IOException io(final Exception exp) {
+        final IOException iox;
+        if (exp instanceof IOException) {
+            iox = IOException.class.cast(exp);
+        } else if (exp instanceof RuntimeException) {
+            throw RuntimeException.class.cast(exp);
+        } else {
+            iox = new IOException(exp);
+        }
+        return iox;
+    }
+
+    /**
+     * Call was rejected.
+     */
+    public static final class RejectedException extends IOException {
+        /**
+         * Serialization marker.
+         */
+        private static final long serialVersionUID = 0x5DC3B04F2A6E8D91L;
+        /**
+         * Ctor.
+         * @param cause Cause of the problem
+         */
+        public RejectedException(final String cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Handler of calls to wrapped objects.
+     */
+    private static final class Handler implements InvocationHandler {
+        /**
+         * The breaker.
+         */
+        private final transient Breaker breaker;
+        /**
+         * The object.
+         */
+        private final transient Object origin;
+        /**
+         * Interfaces to wrap.
+         */
+        private final transient Collection<Class<?>> nested;
+        /**
+         * Ctor.
+         * @param brk The breaker
+         * @param obj The object
+         * @param types Interfaces to wrap
+         */
+        Handler(final Breaker brk, final Object obj,
+            final Collection<Class<?>> types) {
+            this.breaker = brk;
+            this.origin = obj;
+            this.nested = types;
+        }
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(final Object proxy, final Method method,
+            final Object[] args) throws Throwable {
+            final Object result;
+            if (method.getDeclaringClass().equals(Object.class)
+                || "shutdown".equals(method.getName())) {
+                result = Breaker.Handler.direct(method, this.origin, args);
+            } else {
+                final Object ret;
+                try {
+                    ret = this.breaker.call(
+                        new Callable<Object>() {
+                            @Override
+                            public Object call() throws Exception {
+                                return Breaker.Handler.direct(
+                                    method, Breaker.Handler.this.origin, args
+                                );
+                            }
+                        },
+                        !Breaker.Handler.streams(method)
+                    );
+                } catch (final IOException ex) {
+                    if (!Arrays.asList(method.getExceptionTypes())
+                        .contains(IOException.class)) {
+                        throw new IllegalStateException(ex);
+                    }
+                    throw ex;
+                }
+                if (this.nested.contains(method.getReturnType())) {
+                    result = this.breaker.wrap(
+                        (Class<Object>) method.getReturnType(), ret,
+                        this.nested.toArray(new Class<?>[this.nested.size()])
+                    );
+                } else {
+                    result = ret;
+                }
+            }
+            return result;
+        }
+        /**
+         * Does the method transfer a stream?
+         * @param method The method
+         * @return TRUE if it takes a stream
+         */
+        private static boolean streams(final Method method) {
+            boolean found = false;
+            for (final Class<?> type : method.getParameterTypes()) {
+                if (InputStream.class.isAssignableFrom(type)
+                    || OutputStream.class.isAssignableFrom(type)) {
+                    found = true;
+                    break;
+                }
+            }
+            return found;
+        }
+        /**
+         * Call the method directly.
+         * @param method The method
+         * @param obj The object
+         * @param args Arguments
+         * @return Result
+         * @throws Exception If fails
+         */
+        private static Object direct(final Method method, final Object obj,
+            final Object[] args) throws Exception {
+            try {
+                return method.invoke(obj, args);
+            } catch (final InvocationTargetException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof Exception) {
+                    throw Exception.class.cast(cause);
+                }
+                throw Error.class.cast(cause);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.breaker;
+
+import com.jcabi.aspects.Tv;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Breakers of all external dependencies.
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@ToString
+@EqualsAndHashCode
+public final class Breakers {
+
+    /**
+     * All breakers, by name.
+     */
+    private static final ConcurrentMap<String, Breaker> ALL =
+        new ConcurrentSkipListMap<>();
+
+    /**
+     * DynamoDB.
+     * @return Breaker
+     */
+    public Breaker dynamo() {
+        return Breakers.get("dynamo", Tv.FIFTY, TimeUnit.SECONDS.toMillis(2L));
+    }
+
+    /**
+     * Amazon S3.
+     * @return Breaker
+     */
+    public Breaker s3() {
+        return Breakers.get(
+            "s3", Tv.TWENTY, TimeUnit.SECONDS.toMillis((long) Tv.TEN)
+        );
+    }
+
+    /**
+     * SMTP server.
+     * @return Breaker
+     */
+    public Breaker smtp() {
+        return Breakers.get(
+            "smtp", Tv.FOUR, TimeUnit.SECONDS.toMillis((long) Tv.TEN)
+        );
+    }
+
+    /**
+     * Remote hosts of photos.
+     * @return Breaker
+     */
+    public Breaker avatars() {
+        return Breakers.get(
+            "avatars", Tv.FOUR, TimeUnit.SECONDS.toMillis((long) Tv.FIFTEEN)
+        );
+    }
+
+    /**
+     * Print all of them, in Prometheus text format.
+     * @return Text
+     */
+    public String print() {
+        final StringBuilder text = new StringBuilder(Tv.THOUSAND);
+        for (int idx = 0; idx < Breaker.FAMILIES.length; ++idx) {
+            text.append(
+                String.format(
+                    "# TYPE %s %s\n",
+                    Breaker.FAMILIES[idx][0], Breaker.FAMILIES[idx][1]
+                )
+            );
+            for (final Breaker breaker : Breakers.ALL.values()) {
+                text.append(breaker.sample(idx));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Get a breaker, making it if necessary.
+     * @param name Name of the dependency
+     * @param calls How many calls may be in progress at the same time
+     * @param millis Calls slower than this are failures
+     * @return Breaker
+     */
+    private static Breaker get(final String name, final int calls,
+        final long millis) {
+        Breaker breaker = Breakers.ALL.get(name);
+        if (breaker == null) {
+            Breakers.ALL.putIfAbsent(name, new Breaker(name, calls, millis));
+            breaker = Breakers.ALL.get(name);
+        }
+        return breaker;
+    }
+
+}
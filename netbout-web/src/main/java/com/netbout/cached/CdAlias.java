@@ -115,6 +115,16 @@ final class CdAlias implements Alias {
         this.origin.email(email, link);
     }
 
+    @Override
+    public boolean digest() throws IOException {
+        return this.origin.digest();
+    }
+
+    @Override
+    public void digest(final boolean yes) throws IOException {
+        this.origin.digest(yes);
+    }
+
     @Override
     public Inbox inbox() throws IOException {
         return new CdInbox(this.origin.inbox());
@@ -41,13 +41,16 @@ import lombok.ToString;
 /**
  * Cached Attachments.
  *
+ * <p>All attributes, except {@link #unseen()}, which needs a query of its
+ * own, are loaded once, when the object is made.</p>
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.2
  */
 @Immutable
 @Loggable(Loggable.DEBUG)
-@ToString(of = "origin")
+@ToString(of = "label")
 @EqualsAndHashCode(of = "origin")
 final class CdAttachment implements Attachment {
 
@@ -56,30 +59,66 @@ final class CdAttachment implements Attachment {
      */
     private final transient Attachment origin;
 
+    /**
+     * Attachments it belongs to.
+     */
+    private final transient CdAttachments attachments;
+
+    /**
+     * Name of it.
+     */
+    private final transient String label;
+
+    /**
+     * Content type.
+     */
+    private final transient String type;
+
+    /**
+     * ETag.
+     */
+    private final transient String tag;
+
+    /**
+     * Date of it, in milliseconds.
+     */
+    private final transient long time;
+
+    /**
+     * Author of it.
+     */
+    private final transient String alias;
+
     /**
      * Public ctor.
      * @param org Origin
+     * @param atts Attachments it belongs to
+     * @throws IOException If fails
      */
-    CdAttachment(final Attachment org) {
+    CdAttachment(final Attachment org, final CdAttachments atts)
+        throws IOException {
         this.origin = org;
+        this.attachments = atts;
+        this.label = org.name();
+        this.type = org.ctype();
+        this.tag = org.etag();
+        this.time = org.date().getTime();
+        this.alias = org.author().intern();
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
-    public String name() throws IOException {
-        return this.origin.name();
+    public String name() {
+        return this.label;
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
-    public String ctype() throws IOException {
-        return this.origin.ctype();
+    public String ctype() {
+        return this.type;
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
-    public String etag() throws IOException {
-        return this.origin.etag();
+    public String etag() {
+        return this.tag;
     }
 
     @Override
@@ -89,15 +128,13 @@ final class CdAttachment implements Attachment {
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
-    public Date date() throws IOException {
-        return this.origin.date();
+    public Date date() {
+        return new Date(this.time);
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
-    public String author() throws IOException {
-        return this.origin.author();
+    public String author() {
+        return this.alias;
     }
 
     @Override
@@ -110,5 +147,6 @@ final class CdAttachment implements Attachment {
     public void write(final InputStream stream, final String ctype,
         final String etag) throws IOException {
         this.origin.write(stream, ctype, etag);
+        this.attachments.flush();
     }
 }
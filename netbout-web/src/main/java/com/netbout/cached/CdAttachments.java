@@ -26,9 +26,6 @@
  */
 package com.netbout.cached;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
@@ -36,6 +33,8 @@ import com.jcabi.aspects.Tv;
 import com.netbout.spi.Attachment;
 import com.netbout.spi.Attachments;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -43,6 +42,15 @@ import lombok.ToString;
 /**
  * Cached Attachments.
  *
+ * <p>Attachments are cached per alias, since every attachment the origin
+ * returns belongs to the alias that reads it: it tells whether
+ * the attachment is unseen by that alias and marks it as seen when it's
+ * read. That's why concurrent loads of the same bout are shared only
+ * by callers with the same alias, through the single tunnel that
+ * {@link Cacheable} runs per key, and are not shared by different
+ * participants of the bout, unlike pages of messages in
+ * {@link CdPages}.</p>
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.2
@@ -87,22 +95,25 @@ final class CdAttachments implements Attachments {
     @Override
     @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     public Attachment get(final String name) throws IOException {
-        return new CdAttachment(this.origin.get(name));
+        return new CdAttachment(this.origin.get(name), this);
     }
 
     @Override
     @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     public Iterable<Attachment> iterate() throws IOException {
-        return Lists.newArrayList(
-            Iterables.transform(
-                this.origin.iterate(),
-                new Function<Attachment, Attachment>() {
-                    @Override
-                    public Attachment apply(final Attachment attachment) {
-                        return new CdAttachment(attachment);
-                    }
-                }
-            )
-        );
+        final List<Attachment> list = new ArrayList<>(Tv.TEN);
+        for (final Attachment attachment : this.origin.iterate()) {
+            list.add(new CdAttachment(attachment, this));
+        }
+        return list;
+    }
+
+    /**
+     * One of the attachments was changed.
+     * @checkstyle NonStaticMethodCheck (5 lines)
+     */
+    @Cacheable.FlushBefore
+    public void flush() {
+        // nothing special
     }
 }
@@ -36,6 +36,7 @@ import com.netbout.spi.Friends;
 import com.netbout.spi.Messages;
 import java.io.IOException;
 import java.util.Date;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -79,20 +80,41 @@ final class CdBout implements Bout {
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     public Date updated() throws IOException {
-        return this.origin.updated();
+        return new CdValues(
+            TimeUnit.MINUTES.toMillis(1L),
+            TimeUnit.HOURS.toMillis((long) Tv.FIVE)
+        ).get(
+            this, "updated",
+            new Callable<Date>() {
+                @Override
+                public Date call() throws IOException {
+                    return CdBout.this.origin.updated();
+                }
+            }
+        );
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     public String title() throws IOException {
-        return this.origin.title();
+        return new CdValues(
+            TimeUnit.MINUTES.toMillis((long) Tv.TEN),
+            TimeUnit.HOURS.toMillis((long) Tv.FIVE)
+        ).get(
+            this, "title",
+            new Callable<String>() {
+                @Override
+                public String call() throws IOException {
+                    return CdBout.this.origin.title();
+                }
+            }
+        );
     }
 
     @Override
     @Cacheable.FlushBefore
     public void rename(final String text) throws IOException {
+        new CdValues().flush(this);
         this.origin.rename(text);
     }
 
@@ -116,7 +138,9 @@ final class CdBout implements Bout {
     @Override
     @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     public Messages messages() throws IOException {
-        return new CdMessages(this.origin.messages());
+        return new CdMessages(
+            this.origin.messages(), this.origin.number()
+        );
     }
 
     @Override
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import lombok.ToString;
+
+/**
+ * Calls in flight, shared by concurrent callers asking for the same key.
+ *
+ * <p>The first caller makes the call in its own thread, all others
+ * coming while it is in progress wait for it and get the same result
+ * (or the same exception). As soon as the call is finished, the next
+ * caller makes a new one.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @param <K> Type of key
+ * @param <V> Type of result
+ */
+@ToString
+final class CdFlights<K, V> {
+
+    /**
+     * Calls in progress.
+     */
+    private final transient ConcurrentMap<K, FutureTask<V>> flights =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Make a call or join the one in progress.
+     * @param key The key
+     * @param call The call to make
+     * @return Result
+     * @throws IOException If fails
+     */
+    public V call(final K key, final Callable<V> call) throws IOException {
+        final FutureTask<V> task = new FutureTask<>(call);
+        final FutureTask<V> before = this.flights.putIfAbsent(key, task);
+        final FutureTask<V> flight;
+        if (before == null) {
+            try {
+                task.run();
+            } finally {
+                this.flights.remove(key, task);
+            }
+            flight = task;
+        } else {
+            flight = before;
+        }
+        try {
+            return flight.get();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (final ExecutionException ex) {
+            throw CdFlights.unwrap(ex.getCause());
+        }
+    }
+
+    /**
+     * Forget the call in progress, if any, so that the next caller
+     * makes a new one, since the result of this one may be outdated.
+     * @param key The key
+     */
+    public void forget(final K key) {
+        this.flights.remove(key);
+    }
+
+    /**
+     * Rethrow the cause of failure.
+     * @param cause The cause
+     * @return Exception to throw
+     */
+    private static IOException unwrap(final Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            throw RuntimeException.class.cast(cause);
+        }
+        if (cause instanceof Error) {
+            throw Error.class.cast(cause);
+        }
+        final IOException iox;
+        if (cause instanceof IOException) {
+            iox = IOException.class.cast(cause);
+        } else {
+            iox = new IOException(cause);
+        }
+        return iox;
+    }
+
+}
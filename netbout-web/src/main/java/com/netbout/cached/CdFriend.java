@@ -40,6 +40,10 @@ import lombok.ToString;
 /**
  * Cached Friend.
  *
+ * <p>The alias is loaded once, when the object is made, while the photo
+ * and the email, which need queries of their own, are loaded when
+ * asked for.</p>
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.0
@@ -55,18 +59,24 @@ final class CdFriend implements Friend {
      */
     private final transient Friend origin;
 
+    /**
+     * Alias of the friend.
+     */
+    private final transient String name;
+
     /**
      * Public ctor.
      * @param org Origin
+     * @throws IOException If fails
      */
-    CdFriend(final Friend org) {
+    CdFriend(final Friend org) throws IOException {
         this.origin = org;
+        this.name = org.alias().intern();
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
-    public String alias() throws IOException {
-        return this.origin.alias();
+    public String alias() {
+        return this.name;
     }
 
     @Override
@@ -80,4 +90,9 @@ final class CdFriend implements Friend {
     public String email() throws IOException {
         return this.origin.email();
     }
+
+    @Override
+    public boolean digest() throws IOException {
+        return this.origin.digest();
+    }
 }
@@ -26,9 +26,6 @@
  */
 package com.netbout.cached;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
@@ -36,6 +33,8 @@ import com.jcabi.aspects.Tv;
 import com.netbout.spi.Friend;
 import com.netbout.spi.Friends;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -81,16 +80,10 @@ final class CdFriends implements Friends {
     @Override
     @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     public Iterable<Friend> iterate() throws IOException {
-        return Lists.newArrayList(
-            Iterables.transform(
-                this.origin.iterate(),
-                new Function<Friend, Friend>() {
-                    @Override
-                    public Friend apply(final Friend input) {
-                        return new CdFriend(input);
-                    }
-                }
-            )
-        );
+        final List<Friend> list = new ArrayList<>(Tv.TEN);
+        for (final Friend friend : this.origin.iterate()) {
+            list.add(new CdFriend(friend));
+        }
+        return list;
     }
 }
@@ -36,6 +36,7 @@ import com.netbout.spi.Bout;
 import com.netbout.spi.Inbox;
 import com.netbout.spi.Pageable;
 import java.io.IOException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -69,23 +70,50 @@ final class CdInbox implements Inbox {
     @Override
     @Cacheable.FlushBefore
     public long start() throws IOException {
+        new CdValues().flush(this);
         return this.origin.start();
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     public long unread() throws IOException {
-        return this.origin.unread();
+        return new CdValues(
+            TimeUnit.MINUTES.toMillis(1L),
+            TimeUnit.HOURS.toMillis((long) Tv.FIVE)
+        ).get(
+            this, "unread",
+            new Callable<Long>() {
+                @Override
+                public Long call() throws IOException {
+                    return CdInbox.this.origin.unread();
+                }
+            }
+        );
     }
 
     @Override
-    @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     @Loggable(
         value = Loggable.DEBUG,
         ignore = Inbox.BoutNotFoundException.class
         )
     public Bout bout(final long number) throws Inbox.BoutNotFoundException {
-        return new CdBout(this.origin.bout(number));
+        try {
+            return new CdValues(
+                TimeUnit.HOURS.toMillis(1L),
+                TimeUnit.HOURS.toMillis((long) Tv.FIVE)
+            ).get(
+                this, String.format("bout:%d", number),
+                new Callable<Bout>() {
+                    @Override
+                    public Bout call() throws IOException {
+                        return new CdBout(CdInbox.this.origin.bout(number));
+                    }
+                }
+            );
+        } catch (final Inbox.BoutNotFoundException ex) {
+            throw ex;
+        } catch (final IOException ex) {
+            throw new Inbox.BoutNotFoundException(number, ex);
+        }
     }
 
     @Override
@@ -96,6 +124,7 @@ final class CdInbox implements Inbox {
     @Override
     @Cacheable.FlushBefore
     public Iterable<Bout> iterate() throws IOException {
+        new CdValues().flush(this);
         return Iterables.transform(
             this.origin.iterate(),
             new Function<Bout, Bout>() {
@@ -32,10 +32,12 @@ import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.aspects.Tv;
+import com.netbout.spi.Inbox;
 import com.netbout.spi.Message;
 import com.netbout.spi.Messages;
 import com.netbout.spi.Pageable;
 import java.io.IOException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -50,7 +52,7 @@ import lombok.ToString;
 @Immutable
 @Loggable(Loggable.DEBUG)
 @ToString(of = "origin")
-@EqualsAndHashCode(of = "origin")
+@EqualsAndHashCode(of = { "origin", "bout" })
 final class CdMessages implements Messages {
 
     /**
@@ -58,6 +60,11 @@ final class CdMessages implements Messages {
      */
     private final transient Messages origin;
 
+    /**
+     * Bout number.
+     */
+    private final transient long bout;
+
     /**
      * Flag to use for caching.
      */
@@ -66,9 +73,11 @@ final class CdMessages implements Messages {
     /**
      * Public ctor.
      * @param org Origin
+     * @param bot Bout number
      */
-    CdMessages(final Messages org) {
+    CdMessages(final Messages org, final long bot) {
         this.origin = org;
+        this.bout = bot;
         this.flag = new CdMessages.Flag(org);
     }
 
@@ -76,6 +85,7 @@ final class CdMessages implements Messages {
     @Cacheable.FlushBefore
     public void post(final String text) throws IOException {
         this.origin.post(text);
+        new CdPages().posted(this.bout, this.origin.iterate());
     }
 
     @Override
@@ -83,23 +93,20 @@ final class CdMessages implements Messages {
         return this.flag.unread();
     }
 
+    @Override
+    public long top() throws IOException {
+        return new CdPages().top(this.bout, this.origin);
+    }
+
     @Override
     public Pageable<Message> jump(final long number) throws IOException {
-        return new CdPageable<Message>(this.origin.jump(number));
+        return new CdPage(this.origin.jump(number), this.bout, number);
     }
 
     @Override
     public Iterable<Message> iterate() throws IOException {
         this.flag.touch();
-        return Iterables.transform(
-            this.origin.iterate(),
-            new Function<Message, Message>() {
-                @Override
-                public Message apply(final Message input) {
-                    return new CdMessage(input);
-                }
-            }
-        );
+        return new CdPage(this.origin, this.bout, Inbox.NEVER).iterate();
     }
 
     @Override
@@ -140,17 +147,25 @@ final class CdMessages implements Messages {
          * @return Number
          * @throws IOException If fails
          */
-        @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.MINUTES)
         public long unread() throws IOException {
-            return this.messages.unread();
+            return new CdValues(
+                TimeUnit.SECONDS.toMillis((long) Tv.THIRTY),
+                TimeUnit.MINUTES.toMillis((long) Tv.FIVE)
+            ).get(
+                this, "unread",
+                new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return CdMessages.Flag.this.messages.unread();
+                    }
+                }
+            );
         }
         /**
          * I've seen them all.
-         * @checkstyle NonStaticMethodCheck (5 lines)
          */
-        @Cacheable.FlushBefore
         public void touch() {
-            // nothing special
+            new CdValues().flush(this);
         }
     }
 
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Message;
+import com.netbout.spi.Messages;
+import com.netbout.spi.Pageable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Cached page of messages.
+ *
+ * <p>The first {@link Messages#PAGE} messages come from {@link CdPages},
+ * the rest (if anyone ever needs them) are read from the origin.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "bout", "start" })
+@EqualsAndHashCode(of = { "origin", "bout", "start" })
+final class CdPage implements Pageable<Message> {
+
+    /**
+     * Original.
+     */
+    private final transient Pageable<Message> origin;
+
+    /**
+     * Bout number.
+     */
+    private final transient long bout;
+
+    /**
+     * Start position.
+     */
+    private final transient long start;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     * @param bot Bout number
+     * @param strt Start position
+     */
+    CdPage(final Pageable<Message> org, final long bot, final long strt) {
+        this.origin = org;
+        this.bout = bot;
+        this.start = strt;
+    }
+
+    @Override
+    public Pageable<Message> jump(final long number) throws IOException {
+        return new CdPage(this.origin.jump(number), this.bout, number);
+    }
+
+    @Override
+    public Iterable<Message> iterate() throws IOException {
+        final List<Message> page = new CdPages().page(
+            this.bout, this.start, this.origin.iterate()
+        );
+        final Iterable<Message> rest;
+        if (page.size() < Messages.PAGE) {
+            rest = Collections.emptyList();
+        } else {
+            rest = new CdPage.Rest(
+                this.origin, page.get(page.size() - 1).number()
+            );
+        }
+        return Iterables.concat(page, rest);
+    }
+
+    /**
+     * Messages after the page, read from the origin only when requested.
+     */
+    @ToString(of = "after")
+    private static final class Rest implements Iterable<Message> {
+        /**
+         * Original.
+         */
+        private final transient Pageable<Message> origin;
+        /**
+         * Number of the last message in the page.
+         */
+        private final transient long after;
+        /**
+         * Ctor.
+         * @param org Origin
+         * @param last Last message number in the page
+         */
+        Rest(final Pageable<Message> org, final long last) {
+            this.origin = org;
+            this.after = last;
+        }
+        @Override
+        public Iterator<Message> iterator() {
+            try {
+                return this.origin.jump(this.after).iterate().iterator();
+            } catch (final IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,451 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.netbout.breaker.Breaker;
+import com.netbout.spi.Inbox;
+import com.netbout.spi.Message;
+import com.netbout.spi.Messages;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+/**
+ * Pages of messages, shared by all bouts and aliases of this node.
+ *
+ * <p>A page is identified by the bout number and the number of the
+ * message it starts right below. Since message numbers only grow, a page
+ * that starts at or below the newest message we've already seen in the
+ * bout will never change, and we keep it until the memory budget
+ * pushes it out. The head page (the one that starts at
+ * {@link Inbox#NEVER}) is the only one affected by new posts, that's why
+ * it is kept in a {@link CdRing} of its bout, which is refilled right
+ * after a post through {@link #posted(long, Iterable)}, and also expires
+ * shortly, in case the post happened on another node. Every load is
+ * stamped when it starts and every post gets a newer stamp, so that
+ * a load that started before the post and finished after it never
+ * puts its stale content into the ring. Rings of idle
+ * bouts are pushed out first, when their own memory budget is over.
+ * An expired ring is still served when the database breaker rejects
+ * the call. Pages that start
+ * above the newest message we know about are not cached at all. Loads
+ * of the same page by concurrent callers are shared, so that a burst
+ * of readers of a hot bout makes one database query.</p>
+ *
+ * <p>The number of the newest message of a bout is taken from its ring,
+ * while the ring is fresh, so that it always matches the head page we
+ * serve. Without a fresh ring, it is asked from the origin and kept for
+ * a few seconds, until the next post made on this node.</p>
+ *
+ * <p>All instances share the same storage.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode
+final class CdPages {
+
+    /**
+     * Memory budget, in bytes.
+     */
+    private static final long BUDGET = (long) Tv.THIRTY * (long) Tv.MILLION;
+
+    /**
+     * Memory budget of rings, in bytes.
+     */
+    private static final long RINGS_BUDGET =
+        (long) Tv.TEN * (long) Tv.MILLION;
+
+    /**
+     * How long the head page lives, in milliseconds.
+     */
+    private static final long HEAD = TimeUnit.MINUTES.toMillis(1L);
+
+    /**
+     * Pages.
+     */
+    private static final Cache<CdPages.Key, CdPages.Page> PAGES =
+        CacheBuilder.newBuilder()
+            .maximumWeight(CdPages.BUDGET)
+            .weigher(
+                new Weigher<CdPages.Key, CdPages.Page>() {
+                    @Override
+                    public int weigh(final CdPages.Key key,
+                        final CdPages.Page page) {
+                        return page.weight();
+                    }
+                }
+            )
+            .build();
+
+    /**
+     * Rings with head pages, by bout numbers.
+     */
+    private static final Cache<Long, CdRing> RINGS = CacheBuilder.newBuilder()
+        .maximumWeight(CdPages.RINGS_BUDGET)
+        .weigher(
+            new Weigher<Long, CdRing>() {
+                @Override
+                public int weigh(final Long bout, final CdRing ring) {
+                    return ring.weight();
+                }
+            }
+        )
+        .build();
+
+    /**
+     * Loads of pages in progress.
+     */
+    private static final CdFlights<CdPages.Key, CdPages.Page> FLIGHTS =
+        new CdFlights<>();
+
+    /**
+     * Newest message numbers seen in bouts.
+     */
+    private static final Cache<Long, Long> TOPS = CacheBuilder.newBuilder()
+        .maximumSize((long) Tv.HUNDRED * (long) Tv.THOUSAND)
+        .build();
+
+    /**
+     * Stamps of loads and posts.
+     */
+    private static final AtomicLong TICKS = new AtomicLong();
+
+    /**
+     * Stamps of the latest posts made on this node, by bout numbers.
+     */
+    private static final Cache<Long, Long> POSTS = CacheBuilder.newBuilder()
+        .maximumSize((long) Tv.HUNDRED * (long) Tv.THOUSAND)
+        .build();
+
+    /**
+     * Get a page of messages.
+     * @param bout Bout number
+     * @param start Number of the message the page starts right below
+     * @param origin Original messages, starting at the same position
+     * @return Messages of the page, no more than {@link Messages#PAGE}
+     * @throws IOException If fails
+     */
+    public List<Message> page(final long bout, final long start,
+        final Iterable<Message> origin) throws IOException {
+        final CdPages.Key key = new CdPages.Key(bout, start);
+        final List<Message> page;
+        if (start == Inbox.NEVER) {
+            final CdRing ring = CdPages.RINGS.getIfPresent(bout);
+            if (ring == null || ring.expired(CdPages.HEAD)) {
+                page = this.fresh(bout, ring, origin);
+            } else {
+                page = ring.messages();
+            }
+        } else if (start <= this.seen(bout)) {
+            try {
+                page = CdPages.PAGES.get(
+                    key,
+                    new Callable<CdPages.Page>() {
+                        @Override
+                        public CdPages.Page call() throws IOException {
+                            return CdPages.this.load(bout, origin);
+                        }
+                    }
+                ).messages();
+            } catch (final ExecutionException ex) {
+                throw new IOException(ex.getCause());
+            }
+        } else {
+            page = this.shared(key, origin).messages();
+        }
+        return page;
+    }
+
+    /**
+     * Number of the newest message of the bout.
+     * @param bout Bout number
+     * @param origin Original messages
+     * @return Number or zero if the bout is empty
+     * @throws IOException If fails
+     */
+    public long top(final long bout, final Messages origin)
+        throws IOException {
+        final CdRing ring = CdPages.RINGS.getIfPresent(bout);
+        final long top;
+        if (ring == null || ring.expired(CdPages.HEAD)) {
+            top = new CdValues(
+                TimeUnit.SECONDS.toMillis((long) Tv.TEN), CdPages.HEAD
+            ).get(
+                new CdPages.Key(bout, Inbox.NEVER), "top",
+                new Callable<Long>() {
+                    @Override
+                    public Long call() throws IOException {
+                        return origin.top();
+                    }
+                }
+            );
+        } else {
+            top = ring.top();
+        }
+        return top;
+    }
+
+    /**
+     * A new message was posted to the bout.
+     *
+     * <p>The ring of the bout, if the bout is hot enough to have one,
+     * is refilled right now, so that its readers don't have to.</p>
+     *
+     * @param bout Bout number
+     * @param origin Original messages, starting at the head
+     */
+    public void posted(final long bout, final Iterable<Message> origin) {
+        final long stamp = CdPages.TICKS.incrementAndGet();
+        CdPages.POSTS.put(bout, stamp);
+        CdPages.FLIGHTS.forget(new CdPages.Key(bout, Inbox.NEVER));
+        new CdValues().flush(new CdPages.Key(bout, Inbox.NEVER));
+        final CdRing ring = CdPages.RINGS.getIfPresent(bout);
+        if (ring != null) {
+            ring.expire(stamp);
+            try {
+                this.fresh(bout, ring, origin);
+            } catch (final IOException | IllegalStateException ex) {
+                Logger.warn(
+                    this, "failed to refill the ring of bout #%d: %s",
+                    bout, ex.getMessage()
+                );
+            }
+        }
+    }
+
+    /**
+     * Refill the ring from the origin, or use the stale one, if
+     * the database is not available now.
+     * @param bout Bout number
+     * @param stale Stale ring or NULL if there is none
+     * @param origin Original messages
+     * @return Messages of the head page
+     * @throws IOException If fails
+     */
+    private List<Message> fresh(final long bout, final CdRing stale,
+        final Iterable<Message> origin) throws IOException {
+        List<Message> page;
+        try {
+            final CdPages.Page loaded = this.shared(
+                new CdPages.Key(bout, Inbox.NEVER), origin
+            );
+            CdRing ring = stale;
+            if (ring == null) {
+                ring = new CdRing(Messages.PAGE);
+                ring.expire(this.post(bout));
+            }
+            final boolean fits = ring.refill(loaded.messages(), loaded.stamp);
+            CdPages.RINGS.put(bout, ring);
+            final long post = this.post(bout);
+            if (post > loaded.stamp) {
+                ring.expire(post);
+            }
+            if (fits) {
+                page = ring.messages();
+            } else {
+                page = loaded.messages();
+            }
+        } catch (final IOException | IllegalStateException ex) {
+            if (stale == null || ExceptionUtils.indexOfType(
+                ex, Breaker.RejectedException.class
+            ) < 0) {
+                throw ex;
+            }
+            Logger.info(
+                this, "stale page of bout #%d served: %s",
+                bout, ex.getMessage()
+            );
+            page = stale.messages();
+        }
+        return page;
+    }
+
+    /**
+     * Load a page from the origin, sharing the load with all concurrent
+     * callers asking for the same page.
+     * @param key The page
+     * @param origin Original messages
+     * @return Page loaded
+     * @throws IOException If fails
+     */
+    private CdPages.Page shared(final CdPages.Key key,
+        final Iterable<Message> origin) throws IOException {
+        return CdPages.FLIGHTS.call(
+            key,
+            new Callable<CdPages.Page>() {
+                @Override
+                public CdPages.Page call() throws IOException {
+                    return CdPages.this.load(key.bout, origin);
+                }
+            }
+        );
+    }
+
+    /**
+     * Load a page from the origin.
+     * @param bout Bout number
+     * @param origin Original messages
+     * @return Page loaded
+     * @throws IOException If fails
+     */
+    private CdPages.Page load(final long bout, final Iterable<Message> origin)
+        throws IOException {
+        final long stamp = CdPages.TICKS.get();
+        final List<Message> list = new ArrayList<>(Messages.PAGE);
+        for (final Message msg : Iterables.limit(origin, Messages.PAGE)) {
+            list.add(new CdSnapshot(msg));
+        }
+        if (!list.isEmpty()) {
+            final long first = list.get(0).number();
+            if (first > this.seen(bout)) {
+                CdPages.TOPS.put(bout, first);
+            }
+        }
+        return new CdPages.Page(list, stamp);
+    }
+
+    /**
+     * Newest message number we've seen in the bout.
+     * @param bout Bout number
+     * @return Message number or zero if nothing seen yet
+     */
+    private long seen(final long bout) {
+        final Long top = CdPages.TOPS.getIfPresent(bout);
+        final long num;
+        if (top == null) {
+            num = 0L;
+        } else {
+            num = top;
+        }
+        return num;
+    }
+
+    /**
+     * Stamp of the latest post made to the bout on this node.
+     * @param bout Bout number
+     * @return Stamp or zero if nothing posted yet
+     */
+    private long post(final long bout) {
+        final Long stamp = CdPages.POSTS.getIfPresent(bout);
+        final long num;
+        if (stamp == null) {
+            num = 0L;
+        } else {
+            num = stamp;
+        }
+        return num;
+    }
+
+    /**
+     * Page key.
+     */
+    @ToString
+    @EqualsAndHashCode
+    private static final class Key {
+        /**
+         * Bout number.
+         */
+        private final transient long bout;
+        /**
+         * Start position.
+         */
+        private final transient long start;
+        /**
+         * Ctor.
+         * @param bot Bout number
+         * @param strt Start position
+         */
+        Key(final long bot, final long strt) {
+            this.bout = bot;
+            this.start = strt;
+        }
+    }
+
+    /**
+     * Page loaded.
+     */
+    @ToString(of = "list")
+    private static final class Page {
+        /**
+         * Messages.
+         */
+        private final transient List<Message> list;
+        /**
+         * Stamp of the moment its load started.
+         */
+        private final transient long stamp;
+        /**
+         * Ctor.
+         * @param msgs Messages
+         * @param when Stamp of the moment its load started
+         */
+        Page(final List<Message> msgs, final long when) {
+            this.list = Collections.unmodifiableList(msgs);
+            this.stamp = when;
+        }
+        /**
+         * Messages.
+         * @return List of them
+         */
+        public List<Message> messages() {
+            return this.list;
+        }
+        /**
+         * Approximate amount of heap it takes, in bytes.
+         * @return Bytes
+         */
+        public int weight() {
+            int weight = Tv.HUNDRED;
+            for (final Message msg : this.list) {
+                weight += CdSnapshot.class.cast(msg).weight();
+            }
+            return weight;
+        }
+    }
+
+}
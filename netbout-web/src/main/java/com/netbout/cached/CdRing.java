@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import com.jcabi.aspects.Tv;
+import com.netbout.spi.Message;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.ToString;
+
+/**
+ * Ring buffer with the newest messages of a bout.
+ *
+ * <p>Every refill replaces the whole content with the head page just
+ * loaded from the origin, since message numbers come from a global
+ * counter and a message may be stored after another one with a bigger
+ * number. The buffer never holds more than its capacity and never
+ * allocates anything on refill.</p>
+ *
+ * <p>Every refill comes with the stamp of the moment its load started,
+ * and a post expires the ring with its own stamp. A refill with a stamp
+ * older than the one the ring already has is ignored, since its load
+ * started before the content of the ring, or before a post, and may
+ * miss newer messages.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@ToString(of = { "size", "stamp", "loaded" })
+final class CdRing {
+
+    /**
+     * Messages, the newest one at {@link #next} minus one.
+     */
+    private final transient CdSnapshot[] ring;
+
+    /**
+     * Where the next message goes.
+     */
+    private transient int next;
+
+    /**
+     * How many messages are there.
+     */
+    private transient int size;
+
+    /**
+     * Stamp of the content, no refill may be older.
+     */
+    private transient long stamp;
+
+    /**
+     * When it was refreshed from the origin last time, in milliseconds,
+     * or zero if it has to be refreshed before use.
+     */
+    private transient long loaded;
+
+    /**
+     * Ctor.
+     * @param capacity How many messages to keep
+     */
+    CdRing(final int capacity) {
+        this.ring = new CdSnapshot[capacity];
+    }
+
+    /**
+     * Replace all messages with the ones loaded from the origin, unless
+     * the load is older than what the ring already knows.
+     * @param msgs Messages, newest first
+     * @param when Stamp of the moment the load started
+     * @return TRUE if refilled, FALSE if the load is too old
+     */
+    public synchronized boolean refill(final List<Message> msgs,
+        final long when) {
+        final boolean fresh = when >= this.stamp;
+        if (fresh) {
+            this.replace(msgs);
+            this.stamp = when;
+        }
+        return fresh;
+    }
+
+    /**
+     * Replace all messages.
+     * @param msgs Messages, newest first
+     */
+    private void replace(final List<Message> msgs) {
+        final int total = Math.min(msgs.size(), this.ring.length);
+        for (int idx = 0; idx < total; ++idx) {
+            this.ring[idx] = CdSnapshot.class.cast(msgs.get(total - 1 - idx));
+        }
+        for (int idx = total; idx < this.size; ++idx) {
+            this.ring[idx] = null;
+        }
+        this.size = total;
+        this.next = total % this.ring.length;
+        this.loaded = System.currentTimeMillis();
+    }
+
+    /**
+     * Messages, newest first.
+     * @return List of them
+     */
+    public synchronized List<Message> messages() {
+        final List<Message> list = new ArrayList<>(this.size);
+        for (int idx = 1; idx <= this.size; ++idx) {
+            list.add(
+                this.ring[(this.next - idx + this.ring.length)
+                    % this.ring.length]
+            );
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Number of the newest message.
+     * @return Number or zero if empty
+     */
+    public synchronized long top() {
+        final long top;
+        if (this.size == 0) {
+            top = 0L;
+        } else {
+            top = this.ring[(this.next - 1 + this.ring.length)
+                % this.ring.length].number();
+        }
+        return top;
+    }
+
+    /**
+     * It has to be refreshed from the origin before use, by a load
+     * not older than that.
+     * @param when Stamp of the change that made it obsolete
+     */
+    public synchronized void expire(final long when) {
+        this.loaded = 0L;
+        this.stamp = Math.max(this.stamp, when);
+    }
+
+    /**
+     * Is it older than that?
+     * @param millis Lifetime in milliseconds
+     * @return TRUE if it has to be refreshed
+     */
+    public synchronized boolean expired(final long millis) {
+        return System.currentTimeMillis() - this.loaded > millis;
+    }
+
+    /**
+     * Approximate amount of heap it takes, in bytes.
+     * @return Bytes
+     */
+    public synchronized int weight() {
+        int weight = Tv.HUNDRED + this.ring.length * Tv.EIGHT;
+        for (int idx = 0; idx < this.size; ++idx) {
+            weight += this.ring[idx].weight();
+        }
+        return weight;
+    }
+
+}
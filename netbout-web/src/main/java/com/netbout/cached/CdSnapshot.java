@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Message;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Message loaded once, with all its attributes in memory.
+ *
+ * <p>The text is kept as UTF-8 bytes, which is half the size of a string
+ * for most messages, and the author is interned, since the same few
+ * aliases write all messages of a bout.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "num")
+@EqualsAndHashCode(of = "num")
+final class CdSnapshot implements Message {
+
+    /**
+     * Number of the message.
+     */
+    private final transient long num;
+
+    /**
+     * Date of creation, in milliseconds.
+     */
+    private final transient long time;
+
+    /**
+     * Text of the message, in UTF-8.
+     */
+    @Immutable.Array
+    private final transient byte[] txt;
+
+    /**
+     * Author of the message.
+     */
+    private final transient String alias;
+
+    /**
+     * Public ctor.
+     * @param msg Message to load
+     * @throws IOException If fails
+     */
+    CdSnapshot(final Message msg) throws IOException {
+        this.num = msg.number();
+        this.time = msg.date().getTime();
+        this.txt = msg.text().getBytes(StandardCharsets.UTF_8);
+        this.alias = msg.author().intern();
+    }
+
+    @Override
+    public long number() {
+        return this.num;
+    }
+
+    @Override
+    public Date date() {
+        return new Date(this.time);
+    }
+
+    @Override
+    public String text() {
+        return new String(this.txt, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String author() {
+        return this.alias;
+    }
+
+    /**
+     * Approximate amount of heap it takes, in bytes.
+     * @return Bytes
+     */
+    public int weight() {
+        // @checkstyle MagicNumber (1 line)
+        return 56 + this.txt.length;
+    }
+}
@@ -26,9 +26,6 @@
  */
 package com.netbout.cached;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
@@ -37,6 +34,8 @@ import com.netbout.spi.Aliases;
 import com.netbout.spi.Friend;
 import com.netbout.spi.User;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -75,16 +74,10 @@ final class CdUser implements User {
     @Override
     @Cacheable(lifetime = Tv.FIVE, unit = TimeUnit.HOURS)
     public Iterable<Friend> friends(final String text) throws IOException {
-        return Lists.newArrayList(
-            Iterables.transform(
-                this.origin.friends(text),
-                new Function<Friend, Friend>() {
-                    @Override
-                    public Friend apply(final Friend input) {
-                        return new CdFriend(input);
-                    }
-                }
-            )
-        );
+        final List<Friend> list = new ArrayList<>(Tv.TEN);
+        for (final Friend friend : this.origin.friends(text)) {
+            list.add(new CdFriend(friend));
+        }
+        return list;
     }
 }
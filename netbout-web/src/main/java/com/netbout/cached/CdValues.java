@@ -0,0 +1,301 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Values with soft and hard lifetimes, shared by all objects of this node.
+ *
+ * <p>A value younger than its soft lifetime is returned as is. A value
+ * older than that, but younger than its hard lifetime, is returned as is
+ * too, while a fresh one is loaded in background. Only a value older than
+ * its hard lifetime (or the one never loaded) makes the caller wait, and
+ * concurrent callers waiting for the same value share the same load.
+ * Values are kept per owner, which is an object with a proper
+ * {@code equals()}, and are flushed by {@link #flush(Object)}.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@ToString
+@EqualsAndHashCode(of = { "soft", "hard" })
+final class CdValues {
+
+    /**
+     * Values, by owners and names.
+     */
+    private static final Cache<Object, ConcurrentMap<String, CdValues.Value>>
+        VALUES = CacheBuilder.newBuilder()
+            .maximumSize((long) Tv.HUNDRED * (long) Tv.THOUSAND)
+            .build();
+
+    /**
+     * Loads in progress, by owners and names.
+     */
+    private static final CdFlights<List<Object>, Object> FLIGHTS =
+        new CdFlights<>();
+
+    /**
+     * Threads refreshing values in background.
+     */
+    private static final ExecutorService THREADS =
+        Executors.newFixedThreadPool(
+            Tv.FOUR, new VerboseThreads(CdValues.class)
+        );
+
+    /**
+     * Soft lifetime, in milliseconds.
+     */
+    private final transient long soft;
+
+    /**
+     * Hard lifetime, in milliseconds.
+     */
+    private final transient long hard;
+
+    /**
+     * Ctor, for flushing only.
+     */
+    CdValues() {
+        this(0L, 0L);
+    }
+
+    /**
+     * Ctor.
+     * @param sft Soft lifetime in milliseconds, after which the value
+     *  is refreshed
+     * @param hrd Hard lifetime in milliseconds, after which the value
+     *  is not used
+     */
+    CdValues(final long sft, final long hrd) {
+        this.soft = sft;
+        this.hard = hrd;
+    }
+
+    /**
+     * Get the value.
+     * @param owner Owner of the value
+     * @param name Name of the value
+     * @param load How to load it
+     * @return The value
+     * @param <T> Type of the value
+     * @throws IOException If fails to load
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Object owner, final String name,
+        final Callable<T> load) throws IOException {
+        final ConcurrentMap<String, CdValues.Value> values =
+            CdValues.values(owner);
+        final CdValues.Value value = values.get(name);
+        final Object result;
+        if (value == null || value.age() > this.hard) {
+            result = CdValues.FLIGHTS.call(
+                Arrays.asList(owner, name),
+                new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        final Object loaded = load.call();
+                        values.put(name, new CdValues.Value(loaded));
+                        return loaded;
+                    }
+                }
+            );
+        } else {
+            if (value.age() > this.soft && value.lock()) {
+                CdValues.THREADS.execute(
+                    new CdValues.Refresh(values, name, value, load)
+                );
+            }
+            result = value.content();
+        }
+        return (T) result;
+    }
+
+    /**
+     * Forget all values of the owner.
+     * @param owner The owner
+     */
+    public void flush(final Object owner) {
+        CdValues.VALUES.invalidate(owner);
+    }
+
+    /**
+     * Values of the owner.
+     * @param owner The owner
+     * @return Values, by names
+     * @throws IOException If fails
+     */
+    private static ConcurrentMap<String, CdValues.Value> values(
+        final Object owner) throws IOException {
+        try {
+            return CdValues.VALUES.get(
+                owner,
+                new Callable<ConcurrentMap<String, CdValues.Value>>() {
+                    @Override
+                    public ConcurrentMap<String, CdValues.Value> call() {
+                        return new ConcurrentHashMap<>(Tv.FOUR);
+                    }
+                }
+            );
+        } catch (final ExecutionException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Value loaded.
+     */
+    @ToString(of = "content")
+    private static final class Value {
+        /**
+         * The content.
+         */
+        private final transient Object content;
+        /**
+         * When it was loaded.
+         */
+        private final transient long loaded;
+        /**
+         * Is it being refreshed now?
+         */
+        private final transient AtomicBoolean refreshing;
+        /**
+         * Ctor.
+         * @param cnt Content
+         */
+        Value(final Object cnt) {
+            this.content = cnt;
+            this.loaded = System.currentTimeMillis();
+            this.refreshing = new AtomicBoolean();
+        }
+        /**
+         * The content.
+         * @return Content
+         */
+        public Object content() {
+            return this.content;
+        }
+        /**
+         * How old is it.
+         * @return Milliseconds
+         */
+        public long age() {
+            return System.currentTimeMillis() - this.loaded;
+        }
+        /**
+         * Start refreshing it, unless somebody is already doing it.
+         * @return TRUE if we should refresh it
+         */
+        public boolean lock() {
+            return this.refreshing.compareAndSet(false, true);
+        }
+        /**
+         * Refresh failed, the next reader may try again.
+         */
+        public void unlock() {
+            this.refreshing.set(false);
+        }
+    }
+
+    /**
+     * Refresh of a value in background.
+     */
+    private static final class Refresh implements Runnable {
+        /**
+         * Values of the owner.
+         */
+        private final transient ConcurrentMap<String, CdValues.Value> values;
+        /**
+         * Name of the value.
+         */
+        private final transient String name;
+        /**
+         * The value being refreshed.
+         */
+        private final transient CdValues.Value stale;
+        /**
+         * How to load it.
+         */
+        private final transient Callable<?> load;
+        /**
+         * Ctor.
+         * @param vals Values of the owner
+         * @param nme Name of the value
+         * @param old The value being refreshed
+         * @param ldr How to load it
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Refresh(final ConcurrentMap<String, CdValues.Value> vals,
+            final String nme, final CdValues.Value old,
+            final Callable<?> ldr) {
+            this.values = vals;
+            this.name = nme;
+            this.stale = old;
+            this.load = ldr;
+        }
+        @Override
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        public void run() {
+            try {
+                this.values.replace(
+                    this.name, this.stale,
+                    new CdValues.Value(this.load.call())
+                );
+            // @checkstyle IllegalCatchCheck (1 line)
+            } catch (final Exception ex) {
+                this.stale.unlock();
+                Logger.warn(
+                    this, "failed to refresh \"%s\": %[exception]s",
+                    this.name, ex
+                );
+            }
+        }
+    }
+
+}
@@ -150,6 +150,24 @@ final class DyAlias implements Alias {
         this.email(email);
     }
 
+    @Override
+    public boolean digest() throws IOException {
+        return this.item.has(DyAliases.ATTR_DIGEST)
+            && Boolean.parseBoolean(
+                this.item.get(DyAliases.ATTR_DIGEST).getS()
+            );
+    }
+
+    @Override
+    public void digest(final boolean yes) throws IOException {
+        this.item.put(
+            new AttributeUpdates().with(
+                DyAliases.ATTR_DIGEST, Boolean.toString(yes)
+            )
+        );
+        Logger.info(this, "digest of @%s is %B", this.name(), yes);
+    }
+
     @Override
     public Inbox inbox() throws IOException {
         return new DyInbox(this.region, this.name());
@@ -90,6 +90,12 @@ final class DyAliases implements Aliases {
      */
     public static final String ATTR_EMAIL = "email";
 
+    /**
+     * Digest attribute, "true" if the alias wants a daily digest.
+     * @since 2.32
+     */
+    public static final String ATTR_DIGEST = "digest";
+
     /**
      * Index name.
      */
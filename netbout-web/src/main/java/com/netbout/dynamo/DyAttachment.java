@@ -44,16 +44,22 @@ import com.jcabi.dynamo.Region;
 import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
 import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
 import com.jcabi.s3.mock.MkRegion;
+import com.netbout.breaker.Breakers;
 import com.netbout.spi.Attachment;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
@@ -64,6 +70,12 @@ import org.apache.commons.io.IOUtils;
 /**
  * Dynamo attachment.
  *
+ * <p>Content smaller than {@link #MAX_SIZE} is kept in DynamoDB.
+ * Bigger content is copied to a temporary file first, since S3 needs
+ * to know its length before the upload starts, and then goes to S3
+ * from that file. Either way, not more than {@link #MAX_SIZE} bytes
+ * of an upload are kept in memory.</p>
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.0
@@ -216,71 +228,101 @@ final class DyAttachment implements Attachment {
     @Override
     public void write(final InputStream stream, final String ctype,
         final String etag) throws IOException {
-        final byte[] data = IOUtils.toByteArray(stream);
         if (!etag.equals(this.etag())) {
-            final AttributeUpdates updates = this.save(data, ctype)
-                .with(DyAttachments.ATTR_ETAG, etag);
-            this.item.put(updates);
+            final byte[] head = new byte[DyAttachment.MAX_SIZE];
+            final int len = IOUtils.read(stream, head);
+            final AttributeUpdates updates;
+            final long size;
+            if (len < DyAttachment.MAX_SIZE) {
+                updates = this.inline(Arrays.copyOf(head, len), ctype);
+                size = (long) len;
+            } else {
+                final File temp = File.createTempFile(
+                    DyAttachment.class.getSimpleName(), ".tmp"
+                );
+                try {
+                    try (final OutputStream output =
+                        new FileOutputStream(temp)) {
+                        output.write(head);
+                        IOUtils.copyLarge(stream, output);
+                    }
+                    size = temp.length();
+                    try (final InputStream input = new FileInputStream(temp)) {
+                        updates = this.upload(input, size, ctype);
+                    }
+                } finally {
+                    if (!temp.delete()) {
+                        Logger.warn(this, "failed to delete %s", temp);
+                    }
+                }
+            }
+            this.item.put(updates.with(DyAttachments.ATTR_ETAG, etag));
             this.updated();
             Logger.info(
                 this, "attachment %s (%d bytes) uploaded into #%d by @%s",
-                this.name(), data.length, this.bout(), this.self
+                this.name(), size, this.bout(), this.self
             );
         }
     }
 
     /**
-     * Save content.
+     * Keep small content in DynamoDB.
      * @param data Data to save
      * @param ctype CType
      * @return Updates to apply
      * @throws IOException If fails
      */
-    private AttributeUpdates save(final byte[] data, final String ctype)
+    private AttributeUpdates inline(final byte[] data, final String ctype)
         throws IOException {
-        AttributeUpdates updates = new AttributeUpdates()
-            .with(DyAttachments.ATTR_CTYPE, ctype);
-        if (data.length < DyAttachment.MAX_SIZE) {
-            if (this.item.has(DyAttachments.ATTR_KEY)) {
-                this.bucket.remove(
-                    this.item.get(DyAttachments.ATTR_KEY).getS()
-                );
-            }
-            updates = updates.with(
+        if (this.item.has(DyAttachments.ATTR_KEY)) {
+            this.bucket.remove(
+                this.item.get(DyAttachments.ATTR_KEY).getS()
+            );
+        }
+        return new AttributeUpdates()
+            .with(DyAttachments.ATTR_CTYPE, ctype)
+            .with(
                 DyAttachments.ATTR_DATA,
                 new AttributeValue().withB(ByteBuffer.wrap(data))
-            );
-            updates = updates.with(
+            )
+            .with(
                 DyAttachments.ATTR_KEY,
                 new AttributeValueUpdate().withAction(
                     AttributeAction.DELETE
                 )
             );
+    }
+
+    /**
+     * Upload big content to S3.
+     * @param input Content
+     * @param size Its length in bytes
+     * @param ctype CType
+     * @return Updates to apply
+     * @throws IOException If fails
+     */
+    private AttributeUpdates upload(final InputStream input, final long size,
+        final String ctype) throws IOException {
+        final String key;
+        if (this.item.has(DyAttachments.ATTR_KEY)) {
+            key = this.item.get(DyAttachments.ATTR_KEY).getS();
         } else {
-            final String key;
-            if (this.item.has(DyAttachments.ATTR_KEY)) {
-                key = this.item.get(DyAttachments.ATTR_KEY).getS();
-            } else {
-                key = String.format(
-                    "%d/%s",
-                    Long.parseLong(
-                        this.item.get(DyAttachments.HASH).getN()
-                    ),
-                    this.item.get(DyAttachments.RANGE).getS()
-                );
-            }
-            final ObjectMetadata meta = new ObjectMetadata();
-            meta.setContentType(ctype);
-            meta.setContentLength((long) data.length);
-            this.bucket.ocket(key).write(
-                new ByteArrayInputStream(data),
-                meta
+            key = String.format(
+                "%d/%s",
+                Long.parseLong(
+                    this.item.get(DyAttachments.HASH).getN()
+                ),
+                this.item.get(DyAttachments.RANGE).getS()
             );
-            updates = updates
-                .with(DyAttachments.ATTR_DATA, key)
-                .with(DyAttachments.ATTR_KEY, key);
         }
-        return updates;
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentType(ctype);
+        meta.setContentLength(size);
+        this.bucket.ocket(key).write(input, meta);
+        return new AttributeUpdates()
+            .with(DyAttachments.ATTR_CTYPE, ctype)
+            .with(DyAttachments.ATTR_DATA, key)
+            .with(DyAttachments.ATTR_KEY, key);
     }
 
     /**
@@ -427,7 +469,11 @@ final class DyAttachment implements Attachment {
             }
             region = new MkRegion(temp);
         }
-        return region.bucket(Manifests.read("Netbout-S3Bucket"));
+        return new Breakers().s3().wrap(
+            Bucket.class,
+            region.bucket(Manifests.read("Netbout-S3Bucket")),
+            Ocket.class
+        );
     }
 
 }
@@ -150,7 +150,9 @@ final class DyAttachments implements Attachments {
                 new QueryValve()
                     .withLimit(1)
                     .withAttributesToGet(
+                        DyAttachments.ATTR_ALIAS,
                         DyAttachments.ATTR_CTYPE,
+                        DyAttachments.ATTR_DATE,
                         DyAttachments.ATTR_ETAG,
                         DyAttachments.ATTR_KEY
                     )
@@ -175,6 +177,7 @@ final class DyAttachments implements Attachments {
                     new QueryValve().withAttributesToGet(
                         DyAttachments.ATTR_ALIAS,
                         DyAttachments.ATTR_CTYPE,
+                        DyAttachments.ATTR_DATE,
                         DyAttachments.ATTR_ETAG
                     )
                 )
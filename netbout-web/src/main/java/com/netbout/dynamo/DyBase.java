@@ -33,6 +33,7 @@ import com.jcabi.dynamo.Region;
 import com.jcabi.dynamo.retry.ReRegion;
 import com.jcabi.manifests.Manifests;
 import com.jcabi.urn.URN;
+import com.netbout.breaker.BrCredentials;
 import com.netbout.spi.Base;
 import com.netbout.spi.User;
 import java.io.IOException;
@@ -90,7 +91,7 @@ public final class DyBase implements Base {
             );
         }
         return new Region.Prefixed(
-            new ReRegion(new Region.Simple(creds)),
+            new ReRegion(new Region.Simple(new BrCredentials(creds))),
             Manifests.read("Netbout-DynamoPrefix")
         );
     }
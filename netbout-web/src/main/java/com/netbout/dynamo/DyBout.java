@@ -30,9 +30,7 @@ import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.aspects.Tv;
 import com.jcabi.dynamo.AttributeUpdates;
-import com.jcabi.dynamo.Conditions;
 import com.jcabi.dynamo.Item;
-import com.jcabi.dynamo.QueryValve;
 import com.jcabi.dynamo.Region;
 import com.jcabi.log.Logger;
 import com.netbout.spi.Attachments;
@@ -41,7 +39,6 @@ import com.netbout.spi.Friends;
 import com.netbout.spi.Messages;
 import java.io.IOException;
 import java.util.Date;
-import java.util.Iterator;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
@@ -137,24 +134,7 @@ final class DyBout implements Bout {
 
     @Override
     public boolean subscription(final String alias) throws IOException {
-        final QueryValve thr = new QueryValve()
-            .withLimit(1)
-            .withAttributesToGet(DyFriends.ATTR_SUBSCRIPTION);
-        final Iterator<Item> items = this.region.table(DyFriends.TBL).frame()
-            .where(DyFriends.RANGE, alias)
-            .where(DyFriends.HASH, Conditions.equalTo(this.number()))
-            .through(thr)
-            .iterator();
-        boolean subs = true;
-        if (items.hasNext()) {
-            final Item itm = items.next();
-            if (itm.has(DyFriends.ATTR_SUBSCRIPTION)) {
-                subs = Boolean.parseBoolean(
-                    itm.get(DyFriends.ATTR_SUBSCRIPTION).getS()
-                );
-            }
-        }
-        return subs;
+        return new DyRoster(this.region).subscription(this.number(), alias);
     }
 
     @Override
@@ -162,6 +142,7 @@ final class DyBout implements Bout {
         this.item.put(
             new AttributeUpdates().with(DyFriends.ATTR_SUBSCRIPTION, subs)
         );
+        new DyRoster(this.region).flush(this.number());
         Logger.info(
             this, "bout #%d subscribe to \"%s\" by %s",
             this.number(),
@@ -63,14 +63,69 @@ final class DyFriend implements Friend {
      */
     private final transient String name;
 
+    /**
+     * Are email, photo and digest loaded already?
+     */
+    private final transient boolean loaded;
+
+    /**
+     * Email, if loaded.
+     */
+    private final transient String mail;
+
+    /**
+     * Photo, if loaded.
+     */
+    private final transient String pic;
+
+    /**
+     * Digest preference, if loaded.
+     */
+    private final transient boolean digested;
+
     /**
      * Ctor.
      * @param region Region we're in
      * @param alias Alias
      */
     DyFriend(final Region region, final String alias) {
+        this(region, alias, false, "", "", false);
+    }
+
+    /**
+     * Ctor, with email, photo and digest preference loaded already.
+     * @param region Region we're in
+     * @param alias Alias
+     * @param email Email, as it is in the table
+     * @param photo Photo
+     * @param digest Digest preference
+     * @since 2.32
+     * @checkstyle ParameterNumberCheck (4 lines)
+     */
+    DyFriend(final Region region, final String alias, final String email,
+        final String photo, final boolean digest) {
+        this(region, alias, true, email, photo, digest);
+    }
+
+    /**
+     * Ctor.
+     * @param region Region we're in
+     * @param alias Alias
+     * @param known Are email, photo and digest loaded already?
+     * @param email Email, as it is in the table
+     * @param photo Photo
+     * @param digest Digest preference
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private DyFriend(final Region region, final String alias,
+        final boolean known, final String email, final String photo,
+        final boolean digest) {
         this.table = region.table(DyAliases.TBL);
         this.name = alias;
+        this.loaded = known;
+        this.mail = email;
+        this.pic = photo;
+        this.digested = digest;
     }
 
     @Override
@@ -80,38 +135,44 @@ final class DyFriend implements Friend {
 
     @Override
     public URI photo() throws IOException {
-        final Iterator<Item> items = this.table.frame()
-            .where(DyAliases.HASH, this.name)
-            .through(
-                new QueryValve()
-                    .withLimit(1)
-                    .withAttributesToGet(DyAliases.ATTR_PHOTO)
-            )
-            .iterator();
-        final URI uri;
-        if (items.hasNext()) {
-            uri = URI.create(items.next().get(DyAliases.ATTR_PHOTO).getS());
+        URI uri = Alias.BLANK;
+        if (this.loaded) {
+            uri = URI.create(this.pic);
         } else {
-            uri = Alias.BLANK;
+            final Iterator<Item> items = this.table.frame()
+                .where(DyAliases.HASH, this.name)
+                .through(
+                    new QueryValve()
+                        .withLimit(1)
+                        .withAttributesToGet(DyAliases.ATTR_PHOTO)
+                )
+                .iterator();
+            if (items.hasNext()) {
+                uri = URI.create(
+                    items.next().get(DyAliases.ATTR_PHOTO).getS()
+                );
+            }
         }
         return uri;
     }
 
     @Override
     public String email() throws IOException {
-        final Iterator<Item> items = this.table.frame()
-            .where(DyAliases.HASH, this.name)
-            .through(
-                new QueryValve()
-                    .withLimit(1)
-                    .withAttributesToGet(DyAliases.ATTR_EMAIL)
-            )
-            .iterator();
-        String email = "";
-        if (items.hasNext()) {
-            final Item item = items.next();
-            if (item.has(DyAliases.ATTR_EMAIL)) {
-                email = item.get(DyAliases.ATTR_EMAIL).getS();
+        String email = this.mail;
+        if (!this.loaded) {
+            final Iterator<Item> items = this.table.frame()
+                .where(DyAliases.HASH, this.name)
+                .through(
+                    new QueryValve()
+                        .withLimit(1)
+                        .withAttributesToGet(DyAliases.ATTR_EMAIL)
+                )
+                .iterator();
+            if (items.hasNext()) {
+                final Item item = items.next();
+                if (item.has(DyAliases.ATTR_EMAIL)) {
+                    email = item.get(DyAliases.ATTR_EMAIL).getS();
+                }
             }
         }
         if (email.contains("!")) {
@@ -119,4 +180,27 @@ final class DyFriend implements Friend {
         }
         return email;
     }
+
+    @Override
+    public boolean digest() throws IOException {
+        boolean digest = this.digested;
+        if (!this.loaded) {
+            final Iterator<Item> items = this.table.frame()
+                .where(DyAliases.HASH, this.name)
+                .through(
+                    new QueryValve()
+                        .withLimit(1)
+                        .withAttributesToGet(DyAliases.ATTR_DIGEST)
+                )
+                .iterator();
+            if (items.hasNext()) {
+                final Item item = items.next();
+                digest = item.has(DyAliases.ATTR_DIGEST)
+                    && Boolean.parseBoolean(
+                        item.get(DyAliases.ATTR_DIGEST).getS()
+                    );
+            }
+        }
+        return digest;
+    }
 }
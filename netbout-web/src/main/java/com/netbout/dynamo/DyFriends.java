@@ -27,8 +27,6 @@
 package com.netbout.dynamo;
 
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.aspects.Tv;
@@ -140,6 +138,7 @@ final class DyFriends implements Friends {
                 .with(DyFriends.ATTR_SUBSCRIPTION, true)
                 .with(DyFriends.ATTR_UPDATED, System.currentTimeMillis())
         );
+        new DyRoster(this.region).flush(Long.parseLong(this.bout().getN()));
         Logger.info(this, "@%s invited to #%s", friend, this.bout().getN());
     }
 
@@ -158,29 +157,14 @@ final class DyFriends implements Friends {
         }
         items.next();
         items.remove();
+        new DyRoster(this.region).flush(Long.parseLong(this.bout().getN()));
         Logger.info(this, "@%s kicked off #%s", friend, this.bout().getN());
     }
 
     @Override
     public Iterable<Friend> iterate() throws IOException {
-        return Iterables.transform(
-            this.region.table(DyFriends.TBL)
-                .frame()
-                .through(new QueryValve())
-                .where(DyFriends.HASH, Conditions.equalTo(this.bout())),
-            new Function<Item, Friend>() {
-                @Override
-                public Friend apply(final Item input) {
-                    try {
-                        return new DyFriend(
-                            DyFriends.this.region,
-                            input.get(DyFriends.RANGE).getS()
-                        );
-                    } catch (final IOException ex) {
-                        throw new IllegalStateException(ex);
-                    }
-                }
-            }
+        return new DyRoster(this.region).friends(
+            Long.parseLong(this.bout().getN())
         );
     }
 
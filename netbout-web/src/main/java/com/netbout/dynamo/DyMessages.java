@@ -228,6 +228,25 @@ final class DyMessages implements Messages {
         return unread;
     }
 
+    @Override
+    public long top() throws IOException {
+        final Iterator<Item> items = this.region.table(DyMessages.TBL)
+            .frame()
+            .through(
+                new QueryValve()
+                    .withScanIndexForward(false)
+                    .withLimit(1)
+                    .withAttributesToGet(DyMessages.RANGE)
+            )
+            .where(DyMessages.HASH, Conditions.equalTo(this.bout))
+            .iterator();
+        long top = 0L;
+        if (items.hasNext()) {
+            top = Long.parseLong(items.next().get(DyMessages.RANGE).getN());
+        }
+        return top;
+    }
+
     @Override
     public Pageable<Message> jump(final long number) {
         return new DyMessages(
@@ -0,0 +1,325 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Region;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Friend;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Friends of a bout, loaded all together.
+ *
+ * <p>All rows of the bout in "friends" table are loaded by one query and
+ * emails and photos of all friends by one batch request to "aliases"
+ * table, instead of a query per friend. Subscriptions are kept for
+ * a minute, so that notifying friends about a new message doesn't ask
+ * for them one by one; they are forgotten as soon as somebody is
+ * invited, kicked or changes subscription.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString
+@EqualsAndHashCode(of = "region")
+@SuppressWarnings("PMD.ExcessiveImports")
+final class DyRoster {
+
+    /**
+     * Subscriptions of friends, by bout numbers.
+     */
+    private static final Cache<Long, Map<String, Boolean>> SUBSCRIPTIONS =
+        CacheBuilder.newBuilder()
+            .maximumSize((long) Tv.TEN * (long) Tv.THOUSAND)
+            .expireAfterWrite(1L, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * Maximum number of keys in one batch request.
+     */
+    private static final int BATCH = Tv.HUNDRED;
+
+    /**
+     * First pause before asking for unprocessed keys again, in msec.
+     */
+    private static final long DELAY = 50L;
+
+    /**
+     * Longest pause before asking for unprocessed keys again, in msec.
+     */
+    private static final long MAX_DELAY = TimeUnit.SECONDS.toMillis(2L);
+
+    /**
+     * Region to work with.
+     */
+    private final transient Region region;
+
+    /**
+     * Ctor.
+     * @param reg Region
+     */
+    DyRoster(final Region reg) {
+        this.region = reg;
+    }
+
+    /**
+     * Friends of the bout, with their emails, photos and digests.
+     * @param bout Bout number
+     * @return Friends
+     * @throws IOException If fails
+     */
+    public List<Friend> friends(final long bout) throws IOException {
+        final Map<String, Boolean> subs = this.load(bout);
+        final Map<String, Map<String, AttributeValue>> aliases =
+            this.aliases(subs.keySet());
+        final List<Friend> friends = new ArrayList<>(subs.size());
+        for (final String alias : subs.keySet()) {
+            String email = "";
+            String photo = Alias.BLANK.toString();
+            boolean digest = false;
+            final Map<String, AttributeValue> attrs = aliases.get(alias);
+            if (attrs != null) {
+                if (attrs.containsKey(DyAliases.ATTR_EMAIL)) {
+                    email = attrs.get(DyAliases.ATTR_EMAIL).getS();
+                }
+                if (attrs.containsKey(DyAliases.ATTR_PHOTO)) {
+                    photo = attrs.get(DyAliases.ATTR_PHOTO).getS();
+                }
+                if (attrs.containsKey(DyAliases.ATTR_DIGEST)) {
+                    digest = Boolean.parseBoolean(
+                        attrs.get(DyAliases.ATTR_DIGEST).getS()
+                    );
+                }
+            }
+            friends.add(
+                new DyFriend(this.region, alias, email, photo, digest)
+            );
+        }
+        return friends;
+    }
+
+    /**
+     * Is this friend subscribed to the bout?
+     * @param bout Bout number
+     * @param alias Alias of the friend
+     * @return TRUE if subscribed, or not in the bout at all
+     * @throws IOException If fails
+     */
+    public boolean subscription(final long bout, final String alias)
+        throws IOException {
+        Map<String, Boolean> subs = DyRoster.SUBSCRIPTIONS.getIfPresent(bout);
+        if (subs == null) {
+            subs = this.load(bout);
+        }
+        boolean yes = true;
+        if (subs.containsKey(alias)) {
+            yes = subs.get(alias);
+        }
+        return yes;
+    }
+
+    /**
+     * Forget what we know about the bout.
+     * @param bout Bout number
+     */
+    public void flush(final long bout) {
+        DyRoster.SUBSCRIPTIONS.invalidate(bout);
+    }
+
+    /**
+     * Load subscriptions of all friends of the bout, with one query.
+     * @param bout Bout number
+     * @return Subscriptions, by aliases
+     * @throws IOException If fails
+     */
+    private Map<String, Boolean> load(final long bout) throws IOException {
+        final Map<String, Boolean> subs = new LinkedHashMap<>(Tv.TEN);
+        final QueryRequest request = new QueryRequest()
+            .withTableName(this.region.table(DyFriends.TBL).name())
+            .withConsistentRead(true)
+            .withAttributesToGet(DyFriends.RANGE, DyFriends.ATTR_SUBSCRIPTION)
+            .withKeyConditions(
+                Collections.singletonMap(
+                    DyFriends.HASH,
+                    new Condition()
+                        .withComparisonOperator(ComparisonOperator.EQ)
+                        .withAttributeValueList(
+                            new AttributeValue().withN(Long.toString(bout))
+                        )
+                )
+            );
+        final AmazonDynamoDB aws = this.region.aws();
+        try {
+            do {
+                final QueryResult result = aws.query(request);
+                for (final Map<String, AttributeValue> item
+                    : result.getItems()) {
+                    boolean yes = true;
+                    if (item.containsKey(DyFriends.ATTR_SUBSCRIPTION)) {
+                        yes = Boolean.parseBoolean(
+                            item.get(DyFriends.ATTR_SUBSCRIPTION).getS()
+                        );
+                    }
+                    subs.put(item.get(DyFriends.RANGE).getS(), yes);
+                }
+                request.setExclusiveStartKey(result.getLastEvaluatedKey());
+            } while (request.getExclusiveStartKey() != null);
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+        final Map<String, Boolean> found = Collections.unmodifiableMap(subs);
+        DyRoster.SUBSCRIPTIONS.put(bout, found);
+        return found;
+    }
+
+    /**
+     * Load emails and photos of aliases, with batch requests.
+     * @param names Aliases
+     * @return Attributes, by aliases
+     * @throws IOException If fails
+     */
+    private Map<String, Map<String, AttributeValue>> aliases(
+        final Collection<String> names) throws IOException {
+        final String table = this.region.table(DyAliases.TBL).name();
+        final Map<String, Map<String, AttributeValue>> found =
+            new HashMap<>(names.size());
+        final List<String> all = new ArrayList<>(names);
+        final AmazonDynamoDB aws = this.region.aws();
+        try {
+            for (int start = 0; start < all.size();
+                start += DyRoster.BATCH) {
+                final List<Map<String, AttributeValue>> keys =
+                    new ArrayList<>(DyRoster.BATCH);
+                for (final String name : all.subList(
+                    start, Math.min(all.size(), start + DyRoster.BATCH)
+                )) {
+                    keys.add(
+                        Collections.singletonMap(
+                            DyAliases.HASH, new AttributeValue(name)
+                        )
+                    );
+                }
+                DyRoster.fetch(aws, table, keys, found);
+            }
+        } catch (final AmazonClientException ex) {
+            throw new IOException(ex);
+        } finally {
+            aws.shutdown();
+        }
+        return found;
+    }
+
+    /**
+     * Fetch one batch of aliases, asking again for unprocessed keys,
+     * with growing pauses between attempts.
+     * @param aws DynamoDB client
+     * @param table Name of the table
+     * @param keys Keys to fetch, no more than {@link #BATCH}
+     * @param found Where to put attributes, by aliases
+     * @checkstyle ParameterNumberCheck (4 lines)
+     */
+    private static void fetch(final AmazonDynamoDB aws, final String table,
+        final List<Map<String, AttributeValue>> keys,
+        final Map<String, Map<String, AttributeValue>> found) {
+        Map<String, KeysAndAttributes> request = Collections.singletonMap(
+            table,
+            new KeysAndAttributes()
+                .withKeys(keys)
+                .withAttributesToGet(
+                    DyAliases.HASH, DyAliases.ATTR_EMAIL,
+                    DyAliases.ATTR_PHOTO, DyAliases.ATTR_DIGEST
+                )
+        );
+        long delay = 0L;
+        while (request != null && !request.isEmpty()) {
+            if (delay > 0L) {
+                DyRoster.pause(delay);
+            }
+            final BatchGetItemResult result = aws.batchGetItem(
+                new BatchGetItemRequest().withRequestItems(request)
+            );
+            final List<Map<String, AttributeValue>> items =
+                result.getResponses().get(table);
+            if (items != null) {
+                for (final Map<String, AttributeValue> item : items) {
+                    found.put(item.get(DyAliases.HASH).getS(), item);
+                }
+            }
+            request = result.getUnprocessedKeys();
+            delay = Math.min(
+                Math.max(delay * 2L, DyRoster.DELAY), DyRoster.MAX_DELAY
+            );
+        }
+    }
+
+    /**
+     * Wait before the next attempt.
+     * @param msec How long, in milliseconds
+     */
+    private static void pause(final long msec) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(msec);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
@@ -40,7 +40,6 @@ import com.netbout.spi.Bout;
 import java.io.IOException;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
 
 /**
  * Bout Invite Email.
@@ -56,10 +55,11 @@ import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
 final class BoutInviteMail {
 
     /**
-     * Encryptor.
+     * Tokens.
      */
-    private static final StandardPBEStringEncryptor ENC =
-        new StandardPBEStringEncryptor();
+    private static final EmToken TOKENS = new EmToken(
+        Manifests.read("Netbout-BoutInviteSecret")
+    );
 
     /**
      * Mail content for invited user by email.
@@ -73,12 +73,6 @@ final class BoutInviteMail {
      */
     private final transient Postman postman;
 
-    static {
-        BoutInviteMail.ENC.setPassword(
-            Manifests.read("Netbout-BoutInviteSecret")
-        );
-    }
-
     /**
      * Public ctor.
      * @param pst Postman
@@ -136,6 +130,6 @@ final class BoutInviteMail {
      * @return Encrypted string
      */
     private static String encrypt(final String text) {
-        return BoutInviteMail.ENC.encrypt(text);
+        return BoutInviteMail.TOKENS.encode(text);
     }
 }
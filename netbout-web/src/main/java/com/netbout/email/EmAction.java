@@ -26,6 +26,7 @@
  */
 package com.netbout.email;
 
+import com.jcabi.log.Logger;
 import com.jcabi.urn.URN;
 import com.netbout.spi.Base;
 import java.io.IOException;
@@ -50,6 +51,11 @@ public final class EmAction implements EmCatch.Action {
      */
     public static final String CRLF = "\r\n";
 
+    /**
+     * Domain of reply addresses.
+     */
+    private static final String DOMAIN = "@reply.netbout.com";
+
     /**
      * Base.
      */
@@ -69,10 +75,8 @@ public final class EmAction implements EmCatch.Action {
             for (final Address addr
                 : msg.getRecipients(Message.RecipientType.TO)) {
                 final String adr = addr.toString();
-                if (adr.endsWith("@reply.netbout.com")) {
-                    final String[] split = EmCatch.decrypt(
-                        adr.substring(0, adr.indexOf('@'))
-                    ).split("\\|");
+                if (adr.endsWith(EmAction.DOMAIN)) {
+                    final String[] split = EmAction.decode(adr);
                     this.base.user(URN.create(split[0])).aliases()
                         .iterate().iterator().next().inbox()
                         .bout(Long.parseLong(split[1]))
@@ -84,6 +88,54 @@ public final class EmAction implements EmCatch.Action {
         }
     }
 
+    /**
+     * Get the number of the bout this message replies to.
+     *
+     * <p>Reply addresses that can't be decoded, forged or garbled,
+     * are skipped with a warning.</p>
+     *
+     * @param msg Message
+     * @return Bout number, or zero if it's not a reply to any bout
+     * @throws IOException If some problem inside
+     * @since 2.32
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    static long bout(final Message msg) throws IOException {
+        long number = 0L;
+        try {
+            final Address[] addrs = msg.getRecipients(Message.RecipientType.TO);
+            if (addrs != null) {
+                for (final Address addr : addrs) {
+                    final String adr = addr.toString();
+                    if (number == 0L && adr.endsWith(EmAction.DOMAIN)) {
+                        try {
+                            number = Long.parseLong(EmAction.decode(adr)[1]);
+                        } catch (final RuntimeException ex) {
+                            Logger.warn(
+                                EmAction.class,
+                                "can't decode reply address %s: %s",
+                                adr, ex.getMessage()
+                            );
+                        }
+                    }
+                }
+            }
+        } catch (final MessagingException ex) {
+            throw new IOException(ex);
+        }
+        return number;
+    }
+
+    /**
+     * Decode reply address into URN of the user and bout number.
+     * @param adr Address
+     * @return URN and bout number
+     */
+    private static String[] decode(final String adr) {
+        return EmCatch.decrypt(adr.substring(0, adr.indexOf('@')))
+            .split("\\|");
+    }
+
     /**
      * Get its visible part.
      * @param msg Message
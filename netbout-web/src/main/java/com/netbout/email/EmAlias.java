@@ -163,6 +163,16 @@ final class EmAlias implements Alias {
         }
     }
 
+    @Override
+    public boolean digest() throws IOException {
+        return this.origin.digest();
+    }
+
+    @Override
+    public void digest(final boolean yes) throws IOException {
+        this.origin.digest(yes);
+    }
+
     @Override
     public Inbox inbox() throws IOException {
         return new EmInbox(this.origin.inbox(), this.postman, this.name());
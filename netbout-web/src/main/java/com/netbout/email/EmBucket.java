@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.jcabi.aspects.Cacheable;
+import com.jcabi.log.Logger;
+import com.jcabi.manifests.Manifests;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Region;
+import com.jcabi.s3.mock.MkRegion;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * S3 bucket, where emails waiting for delivery are kept.
+ *
+ * <p>It is the bucket of attachments, if S3 credentials are
+ * in the manifest. Otherwise, it is a local directory, which location
+ * is set by {@code netbout.spool} system property, or a temporary
+ * one, which is not durable and is good only for tests.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+final class EmBucket {
+
+    /**
+     * Utility class.
+     */
+    private EmBucket() {
+        // intentionally empty
+    }
+
+    /**
+     * The bucket.
+     * @return Bucket
+     */
+    @Cacheable(forever = true)
+    static Bucket bucket() {
+        final String key = Manifests.read("Netbout-S3Key");
+        final Region region;
+        if (key.matches("[0-9A-Z]{20}")) {
+            region = new Region.Simple(
+                key,
+                Manifests.read("Netbout-S3Secret")
+            );
+        } else {
+            final String path = System.getProperty("netbout.spool");
+            final File dir;
+            if (path == null) {
+                try {
+                    dir = Files.createTempDirectory(
+                        EmBucket.class.getSimpleName()
+                    ).toFile();
+                } catch (final IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                Logger.warn(
+                    EmBucket.class,
+                    "no S3 credentials, emails are spooled to %s",
+                    dir
+                );
+            } else {
+                dir = new File(path);
+            }
+            region = new MkRegion(dir);
+        }
+        return region.bucket(Manifests.read("Netbout-S3Bucket"));
+    }
+
+}
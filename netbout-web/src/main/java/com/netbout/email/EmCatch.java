@@ -26,10 +26,16 @@
  */
 package com.netbout.email;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
 import com.jcabi.manifests.Manifests;
+import com.sun.mail.imap.IMAPFolder;
+import com.sun.mail.imap.IMAPStore;
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
@@ -37,36 +43,63 @@ import javax.mail.Flags;
 import javax.mail.Folder;
 import javax.mail.Message;
 import javax.mail.MessagingException;
-import javax.mail.NoSuchProviderException;
 import javax.mail.Session;
-import javax.mail.Store;
 import javax.mail.URLName;
+import javax.mail.internet.MimeMessage;
 import javax.mail.search.FlagTerm;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
 
 /**
- * Monitors an email account periodically
- * through a daemon thread.
+ * Monitors an email account through a daemon thread.
+ *
+ * <p>The thread keeps one IMAP connection open and waits in IDLE
+ * until the server tells about new messages (or polls every
+ * {@code period} seconds, if the server doesn't support IDLE).
+ * Unseen messages are copied and handed over to the action one by one,
+ * in the order they arrived; the action is supposed to return quickly
+ * and do the work in background (see {@link EmLanes}). A message is
+ * marked as seen only after the action accepted it, a message the
+ * action failed with stays unseen and is tried again on the next check.
+ * A message with the same Message-ID is processed only once. When the
+ * server keeps IDLE silent for too long, the thread reconnects at once;
+ * when the connection breaks, it reconnects, waiting longer and longer
+ * if it keeps failing.</p>
+ *
  * @author Erim Erturk (erimerturk@gmail.com)
  * @version $Id$
  * @since 2.15
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 @Immutable
 @Loggable(Loggable.DEBUG)
 @ToString(of = { "action", "user", "password" })
 @EqualsAndHashCode(of = { "action", "user", "password" })
-final class EmCatch {
+@SuppressWarnings("PMD.ExcessiveImports")
+public final class EmCatch {
+    /**
+     * Tokens.
+     */
+    private static final EmToken TOKENS = new EmToken(
+        Manifests.read("Netbout-EmCatchSecret")
+    );
+    /**
+     * Max sleep time of thread, in seconds.
+     */
+    private static final long MAX_SLEEP_TIME = TimeUnit.HOURS.toSeconds(1L);
     /**
-     * Encryptor.
+     * How long to wait for the server, in milliseconds; IDLE is
+     * restarted on a fresh connection after that.
      */
-    private static final StandardPBEStringEncryptor ENC =
-        new StandardPBEStringEncryptor();
+    private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(10L);
     /**
-     * Max sleep time of thread.
+     * Message-IDs of messages seen recently.
      */
-    private static final long MAX_SLEEP_TIME = TimeUnit.HOURS.toMillis(1L);
+    private static final Cache<String, Boolean> SEEN =
+        CacheBuilder.newBuilder()
+            .maximumSize((long) Tv.HUNDRED * (long) Tv.THOUSAND)
+            .expireAfterWrite(1L, TimeUnit.DAYS)
+            .build();
     /**
      * Action.
      */
@@ -88,14 +121,11 @@ final class EmCatch {
      */
     private final transient int port;
     /**
-     * Email server check period in milliseconds.
+     * Email server check period in seconds, when IDLE is not
+     * supported, and the first delay before reconnecting.
      */
     private final transient long period;
 
-    static {
-        EmCatch.ENC.setPassword(Manifests.read("Netbout-EmCatchSecret"));
-    }
-
     /**
      * Ctor.
      * @param act Email message handler
@@ -103,10 +133,10 @@ final class EmCatch {
      * @param pass Email password
      * @param hst Email server host
      * @param prt Email server port
-     * @param prd Email server check period in milliseconds
+     * @param prd Email server check period in seconds
      * @checkstyle ParameterNumberCheck (3 lines)
      */
-    EmCatch(final Action act, final String usr, final String pass,
+    public EmCatch(final Action act, final String usr, final String pass,
         final String hst, final int prt, final long prd) {
         this.action = act;
         this.user = usr;
@@ -118,19 +148,31 @@ final class EmCatch {
 
     /**
      * Start the monitoring.
+     *
+     * <p>Closing the result interrupts the thread, which ends as soon as
+     * it sleeps or its connection breaks.</p>
+     *
+     * @return Closeable that stops it
      */
     @SuppressWarnings("PMD.DoNotUseThreads")
-    public void start() {
+    public Closeable start() {
         final Thread monitor = new Thread(
             new Runnable() {
                 @Override
                 public void run() {
                     EmCatch.this.mainLoop();
                 }
-            }
+            },
+            String.format("EmCatch-%s", this.user)
         );
         monitor.setDaemon(true);
         monitor.start();
+        return new Closeable() {
+            @Override
+            public void close() {
+                monitor.interrupt();
+            }
+        };
     }
 
     /**
@@ -140,7 +182,7 @@ final class EmCatch {
      */
     @SuppressWarnings("PMD.DefaultPackage")
     static String encrypt(final String text) {
-        return EmCatch.ENC.encrypt(text);
+        return EmCatch.TOKENS.encode(text);
     }
 
     /**
@@ -150,71 +192,149 @@ final class EmCatch {
      */
     @SuppressWarnings("PMD.DefaultPackage")
     static String decrypt(final String text) {
-        return EmCatch.ENC.decrypt(text);
+        return EmCatch.TOKENS.decode(text);
     }
 
     /**
-     * Main loop of the daemon thread. Fetches unread mail and persists
-     * new bout message periodically
+     * Main loop of the daemon thread. Listens to the inbox and
+     * reconnects when the connection breaks, until interrupted.
      */
     private void mainLoop() {
         long prd = this.period;
-        while (true) {
-            try {
-                TimeUnit.SECONDS.sleep(this.period);
-                this.check();
-                prd = this.period;
-            } catch (final InterruptedException ex) {
-                Thread.currentThread().interrupt();
-                throw new IllegalStateException(ex);
-            } catch (final MessagingException ex) {
-                Logger.error(this, "%[exception]s", ex);
-                if (prd * 2 < EmCatch.MAX_SLEEP_TIME) {
-                    prd = prd * 2;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final long start = System.currentTimeMillis();
+                try {
+                    this.listen();
+                    prd = this.period;
+                } catch (final MessagingException
+                    | IllegalStateException ex) {
+                    Logger.error(this, "%[exception]s", ex);
+                    if (System.currentTimeMillis() - start
+                        > TimeUnit.SECONDS.toMillis(prd)) {
+                        prd = this.period;
+                    } else if (prd * 2 < EmCatch.MAX_SLEEP_TIME) {
+                        prd = prd * 2;
+                    }
+                    TimeUnit.SECONDS.sleep(prd);
                 }
             }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
         }
+        Logger.info(this, "stopped catching emails of %s", this.user);
     }
+
     /**
-     * Read unread mail and persist new bout message.
+     * Connect, process unseen mail and wait for more, until the
+     * connection breaks, the server keeps silent for too long, or
+     * the thread is interrupted.
      * @throws MessagingException If fails
+     * @throws InterruptedException If interrupted
      */
-    private void check() throws MessagingException {
-        Store store = null;
-        Folder inbox = null;
+    private void listen() throws MessagingException, InterruptedException {
+        final Properties props = new Properties();
+        props.setProperty(
+            "mail.imap.timeout", Long.toString(EmCatch.TIMEOUT)
+        );
+        props.setProperty("mail.imap.peek", Boolean.TRUE.toString());
+        final IMAPStore store = IMAPStore.class.cast(
+            Session.getInstance(props).getStore(
+                new URLName(
+                    "imap",
+                    this.host,
+                    this.port,
+                    null,
+                    this.user,
+                    this.password
+                )
+            )
+        );
+        store.connect();
         try {
-            final Properties props = new Properties();
-            final Session session = Session.getInstance(props);
-            final URLName url = new URLName(
-                "pop3",
-                this.host,
-                this.port,
-                null,
-                this.user,
-                this.password
+            final IMAPFolder inbox = IMAPFolder.class.cast(
+                store.getFolder("inbox")
             );
-            store = session.getStore(url);
-            store.connect();
-            inbox = store.getFolder("inbox");
             if (!inbox.exists()) {
                 throw new IllegalStateException("inbox folder not exist!");
             }
             inbox.open(Folder.READ_WRITE);
-            final FlagTerm unseen = new FlagTerm(
-                new Flags(Flags.Flag.SEEN),
-                false
-            );
-            for (final Message msg : inbox.search(unseen)) {
-                this.action.run(msg);
+            final boolean idle = store.hasCapability("IDLE");
+            boolean alive = true;
+            try {
+                while (alive && !Thread.currentThread().isInterrupted()) {
+                    this.check(inbox);
+                    if (idle) {
+                        alive = this.idle(inbox);
+                    } else {
+                        TimeUnit.SECONDS.sleep(this.period);
+                        inbox.getMessageCount();
+                    }
+                }
+            } finally {
+                if (inbox.isOpen()) {
+                    inbox.close(false);
+                }
             }
-        } catch (final NoSuchProviderException | IOException ex) {
-            throw new IllegalStateException(ex);
         } finally {
-            if (inbox != null) {
-                inbox.close(true);
+            store.close();
+        }
+    }
+
+    /**
+     * Wait in IDLE until the server tells about changes in the folder.
+     * @param inbox The folder
+     * @return FALSE if the server kept silent too long and the connection
+     *  has to be opened again
+     * @throws MessagingException If fails
+     */
+    private boolean idle(final IMAPFolder inbox) throws MessagingException {
+        final long start = System.currentTimeMillis();
+        boolean alive = true;
+        try {
+            inbox.idle(true);
+        } catch (final MessagingException ex) {
+            if (System.currentTimeMillis() - start < EmCatch.TIMEOUT) {
+                throw ex;
+            }
+            Logger.debug(
+                this, "IMAP server kept silent for %[ms]s, reconnecting: %s",
+                System.currentTimeMillis() - start, ex.getMessage()
+            );
+            alive = false;
+        }
+        return alive;
+    }
+
+    /**
+     * Hand unseen mail over to the action and mark it as seen.
+     * @param inbox The folder
+     * @throws MessagingException If fails
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void check(final Folder inbox) throws MessagingException {
+        final Message[] unseen = inbox.search(
+            new FlagTerm(new Flags(Flags.Flag.SEEN), false)
+        );
+        for (final Message msg : unseen) {
+            final String[] ids = msg.getHeader("Message-ID");
+            if (ids != null
+                && EmCatch.SEEN.asMap().putIfAbsent(ids[0], true) != null) {
+                Logger.info(this, "message %s is seen already", ids[0]);
+                msg.setFlag(Flags.Flag.SEEN, true);
+                continue;
             }
-            if (store != null) {
-                store.close();
+            final Message copy = new MimeMessage(MimeMessage.class.cast(msg));
+            try {
+                this.action.run(copy);
+                msg.setFlag(Flags.Flag.SEEN, true);
+            } catch (final IOException | RuntimeException ex) {
+                if (ids != null) {
+                    EmCatch.SEEN.invalidate(ids[0]);
+                }
+                Logger.warn(
+                    this, "failed to process email: %[exception]s", ex
+                );
             }
         }
     }
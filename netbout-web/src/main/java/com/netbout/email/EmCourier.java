@@ -29,6 +29,7 @@ package com.netbout.email;
 import com.google.common.base.Joiner;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
 import com.jcabi.email.Envelope;
 import com.jcabi.email.Postman;
 import com.jcabi.email.enclosure.EnHTML;
@@ -73,59 +74,111 @@ final class EmCourier {
     }
 
     /**
-     * Send an email.
+     * Render the notification about a new message, once for all friends.
      * @param self Sender
-     * @param friend Friend to send to
      * @param text The text of the new message
+     * @param key Unique key of the post
+     * @return Notice, ready to be sent to any friend
      * @throws IOException If fails
      */
-    public void email(final String self, final Friend friend,
-        final String text)
-        throws IOException {
-        this.postman.send(
-            new Envelope.MIME()
-                .with(new StRecipient(friend.alias(), friend.email()))
-                .with(
-                    new StSubject(
-                        String.format(
-                            "#%d: %s",
-                            this.bout.number(),
-                            this.bout.title()
-                        )
-                    )
-                )
-                .with(
-                    new StReplyTo(
-                        String.format(
-                            "%s@reply.netbout.com",
-                            EmCatch.encrypt(
-                                String.format(
-                                    "%s|%d",
-                                    self,
-                                    this.bout.number()
-                                )
+    public EmCourier.Notice notice(final String self, final String text,
+        final String key) throws IOException {
+        final long number = this.bout.number();
+        final String html = new Markdown.Default().html(text);
+        return new EmCourier.Notice(
+            this.postman,
+            new EmDigest.Item(
+                number, this.bout.title(), self, html,
+                String.format(
+                    "%s@reply.netbout.com",
+                    EmCatch.encrypt(String.format("%s|%d", self, number))
+                ),
+                key
+            ),
+            Joiner.on('\n').join(
+                html,
+                "<p>--<br/>to reply click here: ",
+                String.format("http://www.netbout.com/b/%d", number),
+                "</p><p style=\"color:#C8C8C8;font-size:2px;\">"
+            ),
+            Joiner.on('\n').join(
+                "</p>",
+                new GmailViewAction(number).xml()
+            )
+        );
+    }
+
+    /**
+     * Notification about a new message, rendered once.
+     *
+     * <p>Only the recipient and a unique marker at the bottom of the body
+     * are different in each email, everything else is rendered in
+     * {@link EmCourier#notice(String, String, String)}.</p>
+     */
+    @Immutable
+    @ToString(of = "item")
+    static final class Notice {
+        /**
+         * Postman.
+         */
+        private final transient Postman postman;
+        /**
+         * The message, as it goes to digests.
+         */
+        private final transient EmDigest.Item item;
+        /**
+         * HTML before the marker.
+         */
+        private final transient String head;
+        /**
+         * HTML after the marker.
+         */
+        private final transient String tail;
+        /**
+         * Ctor.
+         * @param pst Postman
+         * @param itm The message
+         * @param before HTML before the marker
+         * @param after HTML after the marker
+         * @checkstyle ParameterNumberCheck (4 lines)
+         */
+        Notice(final Postman pst, final EmDigest.Item itm,
+            final String before, final String after) {
+            this.postman = pst;
+            this.item = itm;
+            this.head = before;
+            this.tail = after;
+        }
+        /**
+         * Send it to the friend, or add to the digest of the friend.
+         * @param friend Friend to send to
+         * @throws IOException If fails
+         */
+        public void email(final Friend friend) throws IOException {
+            if (friend.digest()) {
+                new EmDigest(this.postman).add(
+                    friend.alias(), friend.email(), this.item
+                );
+            } else {
+                this.postman.send(
+                    new Envelope.MIME()
+                        .with(new StRecipient(friend.alias(), friend.email()))
+                        .with(new StKey(this.item.key()))
+                        .with(new StSubject(this.item.subject()))
+                        .with(new StReplyTo(this.item.reply()))
+                        .with(
+                            new EnHTML(
+                                new StringBuilder(
+                                    this.head.length() + this.tail.length()
+                                        + Tv.TWENTY
+                                ).append(this.head).append('\n')
+                                    .append(System.nanoTime())
+                                    .append(this.tail)
+                                    .toString()
                             )
                         )
-                    )
-                )
-                .with(
-                    new EnHTML(
-                        Joiner.on('\n').join(
-                            new Markdown.Default().html(text),
-                            "<p>--<br/>to reply click here: ",
-                            String.format(
-                                "http://www.netbout.com/b/%d",
-                                this.bout.number()
-                            ),
-                            "</p><p style=\"color:#C8C8C8;font-size:2px;\">",
-                            String.format(
-                                "%d</p>",
-                                System.nanoTime()
-                            ),
-                            new GmailViewAction(this.bout.number()).xml()
-                        )
-                    )
-                )
-        );
+                );
+            }
+        }
     }
 }
@@ -0,0 +1,491 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.google.common.base.Joiner;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.email.Envelope;
+import com.jcabi.email.Postman;
+import com.jcabi.email.enclosure.EnHTML;
+import com.jcabi.email.stamp.StRecipient;
+import com.jcabi.email.stamp.StSubject;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import com.jcabi.s3.Bucket;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringEscapeUtils;
+
+/**
+ * Digest of notifications, one email per recipient per window.
+ *
+ * <p>Notifications for aliases, which opted in with
+ * {@link com.netbout.spi.Alias#digest(boolean)}, are not sent
+ * one by one, but accumulated and sent as a single email when the
+ * window is over, which starts with the first notification. Every
+ * message in the digest has its own reply link, so that replies go
+ * to the right bouts.</p>
+ *
+ * <p>Every notification is saved to the bucket before it gets into
+ * the digest and is deleted from there when the digest is sent.
+ * Notifications left by the previous run are sent by
+ * {@link #recover()}.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@ToString(of = "postman")
+@EqualsAndHashCode(of = { "postman", "bucket", "window" })
+@SuppressWarnings("PMD.ExcessiveImports")
+public final class EmDigest {
+
+    /**
+     * Prefix of keys in the bucket.
+     */
+    private static final String PREFIX = "digest/";
+
+    /**
+     * Default window, in minutes.
+     */
+    private static final long WINDOW = Long.parseLong(
+        System.getProperty("netbout.digest.window", "15")
+    );
+
+    /**
+     * Notifications waiting for the end of their windows, by alias.
+     */
+    private static final ConcurrentMap<String, EmDigest.Batch> BATCHES =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Thread sending digests.
+     */
+    private static final ScheduledExecutorService THREADS =
+        Executors.newSingleThreadScheduledExecutor(
+            new VerboseThreads(EmDigest.class)
+        );
+
+    /**
+     * Postman.
+     */
+    private final transient Postman postman;
+
+    /**
+     * Bucket, where notifications wait.
+     */
+    private final transient Bucket bucket;
+
+    /**
+     * Window, in milliseconds.
+     */
+    private final transient long window;
+
+    /**
+     * Public ctor.
+     * @param pst Postman
+     */
+    public EmDigest(final Postman pst) {
+        this(pst, EmBucket.bucket());
+    }
+
+    /**
+     * Public ctor.
+     * @param pst Postman
+     * @param bkt Bucket, where notifications wait
+     */
+    public EmDigest(final Postman pst, final Bucket bkt) {
+        this(pst, bkt, TimeUnit.MINUTES.toMillis(EmDigest.WINDOW));
+    }
+
+    /**
+     * Public ctor.
+     * @param pst Postman
+     * @param bkt Bucket, where notifications wait
+     * @param msec Window, in milliseconds
+     */
+    public EmDigest(final Postman pst, final Bucket bkt, final long msec) {
+        this.postman = pst;
+        this.bucket = bkt;
+        this.window = msec;
+    }
+
+    /**
+     * Add a notification to the digest of the alias.
+     * @param alias Alias of the recipient
+     * @param email Email of the recipient
+     * @param item The notification
+     * @throws IOException If fails to save it
+     */
+    public void add(final String alias, final String email,
+        final EmDigest.Item item) throws IOException {
+        this.save(alias, email, item);
+        while (true) {
+            EmDigest.Batch batch = EmDigest.BATCHES.get(alias);
+            if (batch == null) {
+                final EmDigest.Batch fresh = new EmDigest.Batch(email);
+                batch = EmDigest.BATCHES.putIfAbsent(alias, fresh);
+                if (batch == null) {
+                    batch = fresh;
+                    this.schedule(alias, fresh, this.window);
+                }
+            }
+            if (batch.add(item)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Send notifications left in the bucket by the previous run.
+     * @throws IOException If fails to read them
+     */
+    public void recover() throws IOException {
+        final Map<String, EmDigest.Batch> batches = new HashMap<>(0);
+        for (final String key : this.bucket.list(EmDigest.PREFIX)) {
+            final Properties props = this.load(key);
+            final String alias = props.getProperty("alias");
+            if (!batches.containsKey(alias)) {
+                batches.put(
+                    alias, new EmDigest.Batch(props.getProperty("email"))
+                );
+            }
+            batches.get(alias).add(
+                new EmDigest.Item(
+                    Long.parseLong(props.getProperty("bout")),
+                    props.getProperty("title"),
+                    props.getProperty("author"),
+                    props.getProperty("body"),
+                    props.getProperty("reply"),
+                    props.getProperty("key")
+                )
+            );
+        }
+        for (final Map.Entry<String, EmDigest.Batch> ent
+            : batches.entrySet()) {
+            this.schedule(ent.getKey(), ent.getValue(), 0L);
+        }
+        Logger.info(
+            this, "%d digest(s) left by the previous run", batches.size()
+        );
+    }
+
+    /**
+     * Send the digest when its window is over.
+     * @param alias Alias of the recipient
+     * @param batch The batch
+     * @param delay Delay in milliseconds
+     */
+    private void schedule(final String alias, final EmDigest.Batch batch,
+        final long delay) {
+        EmDigest.THREADS.schedule(
+            new VerboseRunnable(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        EmDigest.BATCHES.remove(alias, batch);
+                        EmDigest.this.send(alias, batch);
+                    }
+                },
+                true, false
+            ),
+            delay, TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Send one email with all notifications of the batch.
+     *
+     * <p>Notifications are deleted from the bucket only when the email
+     * is sent, otherwise they wait there for the next run.</p>
+     *
+     * @param alias Alias of the recipient
+     * @param batch The batch
+     */
+    private void send(final String alias, final EmDigest.Batch batch) {
+        final List<EmDigest.Item> items = batch.close();
+        final Collection<String> html = new ArrayList<>(items.size());
+        final Collection<String> keys = new ArrayList<>(items.size());
+        final Set<Long> bouts = new TreeSet<>();
+        for (final EmDigest.Item item : items) {
+            html.add(item.html());
+            keys.add(item.key);
+            bouts.add(item.bout);
+        }
+        final EmDigest.Item last = items.get(items.size() - 1);
+        try {
+            this.postman.send(
+                new Envelope.MIME()
+                    .with(new StRecipient(alias, batch.email))
+                    .with(new StKey(DigestUtils.sha1Hex(keys.toString())))
+                    .with(
+                        new StSubject(
+                            String.format(
+                                "%d new message(s) in %d bout(s)",
+                                items.size(), bouts.size()
+                            )
+                        )
+                    )
+                    .with(new StReplyTo(last.reply))
+                    .with(new EnHTML(Joiner.on("\n<hr/>\n").join(html)))
+            );
+            for (final EmDigest.Item item : items) {
+                this.bucket.remove(EmDigest.path(alias, item));
+            }
+        } catch (final IOException ex) {
+            Logger.warn(
+                this, "failed to send digest to @%s: %[exception]s",
+                alias, ex
+            );
+        }
+    }
+
+    /**
+     * Save the notification to the bucket.
+     * @param alias Alias of the recipient
+     * @param email Email of the recipient
+     * @param item The notification
+     * @throws IOException If fails
+     */
+    private void save(final String alias, final String email,
+        final EmDigest.Item item) throws IOException {
+        final Properties props = new Properties();
+        props.setProperty("alias", alias);
+        props.setProperty("email", email);
+        props.setProperty("bout", Long.toString(item.bout));
+        props.setProperty("title", item.title);
+        props.setProperty("author", item.author);
+        props.setProperty("body", item.body);
+        props.setProperty("reply", item.reply);
+        props.setProperty("key", item.key);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        props.store(baos, "");
+        final byte[] bytes = baos.toByteArray();
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentType("text/plain");
+        meta.setContentLength((long) bytes.length);
+        this.bucket.ocket(EmDigest.path(alias, item)).write(
+            new ByteArrayInputStream(bytes), meta
+        );
+    }
+
+    /**
+     * Load the notification from the bucket.
+     * @param key Key in the bucket
+     * @return Its properties
+     * @throws IOException If fails
+     */
+    private Properties load(final String key) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        this.bucket.ocket(key).read(baos);
+        final Properties props = new Properties();
+        props.load(new ByteArrayInputStream(baos.toByteArray()));
+        return props;
+    }
+
+    /**
+     * Key of the notification in the bucket.
+     * @param alias Alias of the recipient
+     * @param item The notification
+     * @return Key
+     */
+    private static String path(final String alias, final EmDigest.Item item) {
+        return String.format(
+            "%s%s/%s", EmDigest.PREFIX, alias, DigestUtils.sha1Hex(item.key)
+        );
+    }
+
+    /**
+     * One notification.
+     */
+    @Immutable
+    @ToString(of = { "bout", "key" })
+    @EqualsAndHashCode(of = "key")
+    public static final class Item {
+        /**
+         * Bout number.
+         */
+        private final transient long bout;
+        /**
+         * Bout title.
+         */
+        private final transient String title;
+        /**
+         * Author of the message.
+         */
+        private final transient String author;
+        /**
+         * HTML of the message.
+         */
+        private final transient String body;
+        /**
+         * Reply-to address.
+         */
+        private final transient String reply;
+        /**
+         * Unique key of the post.
+         */
+        private final transient String key;
+        /**
+         * Ctor.
+         * @param num Bout number
+         * @param ttl Bout title
+         * @param atr Author of the message
+         * @param html HTML of the message
+         * @param addr Reply-to address
+         * @param uid Unique key of the post
+         * @checkstyle ParameterNumberCheck (4 lines)
+         */
+        public Item(final long num, final String ttl, final String atr,
+            final String html, final String addr, final String uid) {
+            this.bout = num;
+            this.title = ttl;
+            this.author = atr;
+            this.body = html;
+            this.reply = addr;
+            this.key = uid;
+        }
+        /**
+         * Unique key of the post.
+         * @return Key
+         */
+        public String key() {
+            return this.key;
+        }
+        /**
+         * Reply-to address.
+         * @return Email address
+         */
+        public String reply() {
+            return this.reply;
+        }
+        /**
+         * Subject of a single notification.
+         * @return Subject
+         */
+        public String subject() {
+            return String.format("#%d: %s", this.bout, this.title);
+        }
+        /**
+         * Render it.
+         * @return HTML
+         */
+        public String html() {
+            return Joiner.on('\n').join(
+                String.format(
+                    "<p><b>#%d: %s</b>, @%s:</p>",
+                    this.bout,
+                    StringEscapeUtils.escapeHtml4(this.title),
+                    this.author
+                ),
+                this.body,
+                String.format(
+                    "<p>--<br/>to reply <a href=\"mailto:%s\">email</a>",
+                    this.reply
+                ),
+                String.format(
+                    "or click here: http://www.netbout.com/b/%d</p>",
+                    this.bout
+                )
+            );
+        }
+    }
+
+    /**
+     * Notifications of one recipient, waiting for the end of the window.
+     */
+    private static final class Batch {
+        /**
+         * Email of the recipient.
+         */
+        private final transient String email;
+        /**
+         * Notifications.
+         */
+        private final transient List<EmDigest.Item> items;
+        /**
+         * Is it sent already?
+         */
+        private transient boolean closed;
+        /**
+         * Ctor.
+         * @param addr Email of the recipient
+         */
+        Batch(final String addr) {
+            this.email = addr;
+            this.items = new ArrayList<>(Tv.TEN);
+        }
+        /**
+         * Add a notification.
+         * @param item The notification
+         * @return FALSE if it's too late and the batch is sent already
+         */
+        public boolean add(final EmDigest.Item item) {
+            synchronized (this.items) {
+                if (!this.closed) {
+                    this.items.add(item);
+                }
+                return !this.closed;
+            }
+        }
+        /**
+         * Close it and get all notifications.
+         * @return Notifications
+         */
+        public List<EmDigest.Item> close() {
+            synchronized (this.items) {
+                this.closed = true;
+                return new ArrayList<>(this.items);
+            }
+        }
+    }
+
+}
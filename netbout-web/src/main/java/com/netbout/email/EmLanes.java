@@ -0,0 +1,312 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Action that runs in parallel for different bouts.
+ *
+ * <p>Every message goes into one of a few lanes, by the number of the
+ * bout it replies to, and each lane runs the original action in its own
+ * thread, one message after another. Thus, replies to different bouts
+ * are posted in parallel, while replies to the same bout are posted in
+ * the order they arrived. When a lane is full, the caller waits.</p>
+ *
+ * <p>A message with the same Message-ID is posted into the same bout
+ * only once, even if it arrives again. If the original action fails,
+ * the message is forgotten and may be posted again.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+public final class EmLanes implements EmCatch.Action {
+
+    /**
+     * Lanes, each one with a single thread.
+     */
+    private static final ThreadPoolExecutor[] LANES =
+        new ThreadPoolExecutor[Tv.EIGHT];
+
+    /**
+     * Message-IDs posted or being posted, with bout numbers.
+     */
+    private static final Cache<String, Boolean> POSTED =
+        CacheBuilder.newBuilder()
+            .maximumSize((long) Tv.HUNDRED * (long) Tv.THOUSAND)
+            .expireAfterWrite(1L, TimeUnit.DAYS)
+            .build();
+
+    /**
+     * Messages received.
+     */
+    private static final AtomicLong RECEIVED = new AtomicLong();
+
+    /**
+     * Messages posted to bouts successfully.
+     */
+    private static final AtomicLong SUCCEEDED = new AtomicLong();
+
+    /**
+     * Messages ignored as duplicates.
+     */
+    private static final AtomicLong DUPLICATES = new AtomicLong();
+
+    /**
+     * Messages failed to post.
+     */
+    private static final AtomicLong FAILED = new AtomicLong();
+
+    /**
+     * Total lag of posted messages, in milliseconds.
+     */
+    private static final AtomicLong LAG = new AtomicLong();
+
+    /**
+     * Lag of the message posted last, in milliseconds.
+     */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    static {
+        for (int idx = 0; idx < EmLanes.LANES.length; ++idx) {
+            EmLanes.LANES[idx] = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(Tv.HUNDRED),
+                new VerboseThreads(EmLanes.class),
+                new EmLanes.Block()
+            );
+        }
+    }
+
+    /**
+     * Original action.
+     */
+    private final transient EmCatch.Action origin;
+
+    /**
+     * Ctor.
+     * @param action Original action
+     */
+    public EmLanes(final EmCatch.Action action) {
+        this.origin = action;
+    }
+
+    @Override
+    public void run(final Message msg) throws IOException {
+        EmLanes.RECEIVED.incrementAndGet();
+        final long bout = EmAction.bout(msg);
+        final String key = EmLanes.key(msg, bout);
+        if (!key.isEmpty()
+            && EmLanes.POSTED.asMap().putIfAbsent(key, true) != null) {
+            EmLanes.DUPLICATES.incrementAndGet();
+            Logger.info(this, "message %s is posted already", key);
+        } else {
+            final long start = EmLanes.sent(msg);
+            EmLanes.LANES[(int) (bout % (long) EmLanes.LANES.length)].execute(
+                new VerboseRunnable(
+                    new Runnable() {
+                        @Override
+                        public void run() {
+                            EmLanes.this.post(msg, key, start);
+                        }
+                    },
+                    true, false
+                )
+            );
+        }
+    }
+
+    /**
+     * Run the original action.
+     * @param msg Message
+     * @param key Unique key of the message, or empty
+     * @param start When the message was sent, in milliseconds
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void post(final Message msg, final String key, final long start) {
+        try {
+            this.origin.run(msg);
+            final long lag = System.currentTimeMillis() - start;
+            EmLanes.SUCCEEDED.incrementAndGet();
+            EmLanes.LAG.addAndGet(lag);
+            EmLanes.LAST.set(lag);
+        } catch (final IOException | RuntimeException ex) {
+            EmLanes.FAILED.incrementAndGet();
+            if (!key.isEmpty()) {
+                EmLanes.POSTED.invalidate(key);
+            }
+            Logger.warn(this, "failed to process email: %[exception]s", ex);
+        }
+    }
+
+    /**
+     * Unique key of the message in the bout.
+     * @param msg Message
+     * @param bout Bout number
+     * @return Message-ID and bout number, or empty if there is no ID
+     * @throws IOException If fails
+     */
+    private static String key(final Message msg, final long bout)
+        throws IOException {
+        final String[] ids;
+        try {
+            ids = msg.getHeader("Message-ID");
+        } catch (final MessagingException ex) {
+            throw new IOException(ex);
+        }
+        String key = "";
+        if (ids != null && ids.length > 0) {
+            key = String.format("%s %d", ids[0], bout);
+        }
+        return key;
+    }
+
+    /**
+     * When the message was sent, or now, if it's not known.
+     * @param msg Message
+     * @return Time in milliseconds
+     * @throws IOException If fails
+     */
+    private static long sent(final Message msg) throws IOException {
+        final Date date;
+        try {
+            date = msg.getSentDate();
+        } catch (final MessagingException ex) {
+            throw new IOException(ex);
+        }
+        long time = System.currentTimeMillis();
+        if (date != null) {
+            time = date.getTime();
+        }
+        return time;
+    }
+
+    /**
+     * Stats of inbound emails, in Prometheus text format.
+     */
+    public static final class Stats {
+        /**
+         * Print them.
+         * @return Text
+         */
+        public String print() {
+            long pending = 0L;
+            for (final ThreadPoolExecutor lane : EmLanes.LANES) {
+                pending += (long) lane.getQueue().size();
+            }
+            final StringBuilder text = new StringBuilder(Tv.HUNDRED)
+                .append("# TYPE netbout_inbound_pending gauge\n")
+                .append(
+                    String.format(
+                        Locale.ENGLISH, "netbout_inbound_pending %d\n",
+                        pending
+                    )
+                )
+                .append("# TYPE netbout_inbound_lag_seconds gauge\n")
+                .append(
+                    String.format(
+                        Locale.ENGLISH,
+                        "netbout_inbound_lag_seconds %.3f\n",
+                        (double) EmLanes.LAST.get() / (double) Tv.THOUSAND
+                    )
+                )
+                .append("# TYPE netbout_inbound_lag_seconds_total counter\n")
+                .append(
+                    String.format(
+                        Locale.ENGLISH,
+                        "netbout_inbound_lag_seconds_total %.3f\n",
+                        (double) EmLanes.LAG.get() / (double) Tv.THOUSAND
+                    )
+                );
+            final String[] kinds = {
+                "received", "posted", "duplicates", "failed"
+            };
+            final AtomicLong[] values = {
+                EmLanes.RECEIVED, EmLanes.SUCCEEDED,
+                EmLanes.DUPLICATES, EmLanes.FAILED
+            };
+            for (int idx = 0; idx < kinds.length; ++idx) {
+                text.append(
+                    String.format(
+                        "# TYPE netbout_inbound_%s_total counter\n", kinds[idx]
+                    )
+                ).append(
+                    String.format(
+                        Locale.ENGLISH,
+                        "netbout_inbound_%s_total %d\n",
+                        kinds[idx], values[idx].get()
+                    )
+                );
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Makes the caller wait until there is room in the lane.
+     */
+    private static final class Block implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(final Runnable task,
+            final ThreadPoolExecutor lane) {
+            try {
+                lane.getQueue().put(task);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException(ex);
+            }
+        }
+    }
+
+}
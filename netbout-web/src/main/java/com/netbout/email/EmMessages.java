@@ -26,21 +26,19 @@
  */
 package com.netbout.email;
 
-import com.google.common.base.Joiner;
 import com.jcabi.aspects.Immutable;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.email.Postman;
+import com.jcabi.log.Logger;
 import com.netbout.spi.Bout;
 import com.netbout.spi.Friend;
 import com.netbout.spi.Message;
 import com.netbout.spi.Messages;
 import com.netbout.spi.Pageable;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.UUID;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import org.takes.facets.forward.RsFailure;
 
 /**
  * Email Messages.
@@ -100,26 +98,7 @@ final class EmMessages implements Messages {
     @Override
     public void post(final String text) throws IOException {
         this.origin.post(text);
-        final Collection<String> failed = new ArrayList<String>(16);
-        for (final Friend friend : this.bout.friends().iterate()) {
-            if (friend.email().isEmpty()
-                || friend.alias().equals(this.self)
-                || !this.bout.subscription(friend.alias())) {
-                continue;
-            }
-            try {
-                this.courier.email(this.self, friend, text);
-            } catch (final IOException exception) {
-                failed.add(friend.alias());
-            }
-        }
-        if (!failed.isEmpty()) {
-            final String message = String.format(
-                "Sorry, we were not able to send the notification email to %s.",
-                Joiner.on(", ").join(failed)
-            );
-            throw new RsFailure(new EmailDeliveryException(message));
-        }
+        this.announce(text, UUID.randomUUID().toString());
     }
 
     @Override
@@ -127,6 +106,11 @@ final class EmMessages implements Messages {
         return this.origin.unread();
     }
 
+    @Override
+    public long top() throws IOException {
+        return this.origin.top();
+    }
+
     @Override
     public Pageable<Message> jump(final long num) throws IOException {
         return new EmPageable<Message>(
@@ -146,20 +130,36 @@ final class EmMessages implements Messages {
     }
 
     /**
-     * Thowable when the email could not be delivered.
-     * @see EmMessages#post(String)
+     * Notify all subscribed friends about the new message.
+     *
+     * <p>The message is already stored, that's why failures are only
+     * logged. The postman is supposed to be an {@link EmOutbox}, which
+     * accepts envelopes at once and delivers them in background.</p>
+     *
+     * @param text The text of the new message
+     * @param key Unique key of the post
      */
-    final class EmailDeliveryException extends IOException {
-        /**
-         * Serialization marker.
-         */
-        private static final long serialVersionUID = 0x7529FA78EED21470L;
-        /**
-         * Public ctor.
-         * @param message The error message
-         */
-        EmailDeliveryException(final String message) {
-            super(message);
+    private void announce(final String text, final String key) {
+        try {
+            final EmCourier.Notice notice =
+                this.courier.notice(this.self, text, key);
+            final Iterable<Friend> friends =
+                new EmRecipients(this.bout, this.self).resolve();
+            for (final Friend friend : friends) {
+                try {
+                    notice.email(friend);
+                } catch (final IOException ex) {
+                    Logger.warn(
+                        this, "failed to notify @%s: %[exception]s",
+                        friend.alias(), ex
+                    );
+                }
+            }
+        } catch (final IOException ex) {
+            Logger.warn(
+                this, "failed to notify friends of #%d: %[exception]s",
+                this.bout.number(), ex
+            );
         }
     }
 }
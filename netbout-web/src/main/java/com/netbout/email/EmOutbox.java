@@ -0,0 +1,455 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.email.Envelope;
+import com.jcabi.email.Postman;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import com.jcabi.s3.Bucket;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Outbox, which stores envelopes in a bucket and delivers them
+ * in background.
+ *
+ * <p>{@link #send(Envelope)} returns as soon as the envelope is saved
+ * to the bucket. A small pool of threads delivers them through
+ * the original postman, retrying failed deliveries with exponential
+ * backoff, and deletes them when delivered or given up. Envelopes left
+ * in the bucket by a previous run are delivered when the first
+ * outbox of this bucket is made. An envelope with the same recipients
+ * and the same {@link StKey} as the one already waiting or recently
+ * delivered is ignored.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+@Immutable
+@ToString(of = "origin")
+@EqualsAndHashCode(of = { "origin", "bucket" })
+@SuppressWarnings("PMD.ExcessiveImports")
+public final class EmOutbox implements Postman {
+
+    /**
+     * Prefix of keys in the bucket.
+     */
+    private static final String PREFIX = "outbox/";
+
+    /**
+     * First delay between attempts, in seconds.
+     */
+    private static final long BACKOFF = (long) Tv.TEN;
+
+    /**
+     * Longest delay between attempts, in seconds.
+     */
+    private static final long LONGEST = TimeUnit.HOURS.toSeconds(1L);
+
+    /**
+     * How many times to try before giving up.
+     */
+    private static final int ATTEMPTS = Tv.TWENTY;
+
+    /**
+     * Threads delivering envelopes.
+     */
+    private static final ScheduledExecutorService THREADS =
+        Executors.newScheduledThreadPool(
+            Tv.FOUR, new VerboseThreads(EmOutbox.class)
+        );
+
+    /**
+     * Keys of envelopes waiting for delivery.
+     */
+    private static final Set<String> PENDING = Collections.newSetFromMap(
+        new ConcurrentHashMap<String, Boolean>(0)
+    );
+
+    /**
+     * Keys of envelopes delivered recently.
+     */
+    private static final Cache<String, Boolean> SENT =
+        CacheBuilder.newBuilder()
+            .maximumSize((long) Tv.HUNDRED * (long) Tv.THOUSAND)
+            .expireAfterWrite(1L, TimeUnit.DAYS)
+            .build();
+
+    /**
+     * Buckets, which envelopes of the previous run are scheduled already.
+     */
+    private static final Set<Bucket> RECOVERED = Collections.newSetFromMap(
+        new ConcurrentHashMap<Bucket, Boolean>(0)
+    );
+
+    /**
+     * Envelopes saved to the bucket.
+     */
+    private static final AtomicLong QUEUED = new AtomicLong();
+
+    /**
+     * Envelopes delivered.
+     */
+    private static final AtomicLong DELIVERED = new AtomicLong();
+
+    /**
+     * Failed attempts, which are going to be repeated.
+     */
+    private static final AtomicLong RETRIES = new AtomicLong();
+
+    /**
+     * Envelopes given up.
+     */
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    /**
+     * Envelopes ignored as duplicates.
+     */
+    private static final AtomicLong DUPLICATES = new AtomicLong();
+
+    /**
+     * Original postman.
+     */
+    private final transient Postman origin;
+
+    /**
+     * Bucket, where envelopes wait.
+     */
+    private final transient Bucket bucket;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     */
+    public EmOutbox(final Postman org) {
+        this(org, EmBucket.bucket());
+    }
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     * @param bkt Bucket, where envelopes wait
+     */
+    public EmOutbox(final Postman org, final Bucket bkt) {
+        this.origin = org;
+        this.bucket = bkt;
+        if (EmOutbox.RECOVERED.add(bkt)) {
+            this.recover();
+        }
+    }
+
+    @Override
+    public void send(final Envelope env) throws IOException {
+        final Message msg = env.unwrap();
+        final byte[] bytes = EmOutbox.bytes(msg);
+        final String key = EmOutbox.key(msg, bytes);
+        if (EmOutbox.SENT.getIfPresent(key) != null
+            || !EmOutbox.PENDING.add(key)) {
+            EmOutbox.DUPLICATES.incrementAndGet();
+            Logger.info(this, "duplicate email %s ignored", key);
+        } else {
+            try {
+                this.save(key, bytes);
+            } catch (final IOException ex) {
+                EmOutbox.PENDING.remove(key);
+                throw ex;
+            }
+            EmOutbox.QUEUED.incrementAndGet();
+            this.schedule(key, 0, 0L);
+        }
+    }
+
+    /**
+     * Schedule delivery of envelopes left by the previous run.
+     *
+     * <p>If the bucket can't be listed, the next outbox made for it
+     * tries again.</p>
+     */
+    private void recover() {
+        int total = 0;
+        try {
+            for (final String name : this.bucket.list(EmOutbox.PREFIX)) {
+                final String key = name.substring(EmOutbox.PREFIX.length());
+                if (EmOutbox.PENDING.add(key)) {
+                    this.schedule(key, 0, 0L);
+                    ++total;
+                }
+            }
+            Logger.info(
+                this, "%d email(s) left by the previous run", total
+            );
+        } catch (final IOException ex) {
+            EmOutbox.RECOVERED.remove(this.bucket);
+            Logger.warn(
+                this, "failed to list emails of the previous run: %s",
+                ex.getMessage()
+            );
+        }
+    }
+
+    /**
+     * Schedule an attempt to deliver.
+     * @param key Key of the envelope
+     * @param attempt Number of the attempt, starting from zero
+     * @param delay Delay in seconds
+     */
+    private void schedule(final String key, final int attempt,
+        final long delay) {
+        EmOutbox.THREADS.schedule(
+            new VerboseRunnable(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        EmOutbox.this.deliver(key, attempt);
+                    }
+                },
+                true, false
+            ),
+            delay, TimeUnit.SECONDS
+        );
+    }
+
+    /**
+     * Try to deliver the envelope.
+     * @param key Key of the envelope
+     * @param attempt Number of the attempt, starting from zero
+     */
+    private void deliver(final String key, final int attempt) {
+        try {
+            this.origin.send(
+                new EmOutbox.Spooled(this.bucket, EmOutbox.PREFIX.concat(key))
+            );
+            EmOutbox.DELIVERED.incrementAndGet();
+            EmOutbox.SENT.put(key, true);
+            this.done(key);
+        } catch (final IOException ex) {
+            if (attempt + 1 < EmOutbox.ATTEMPTS) {
+                final long delay = Math.min(
+                    EmOutbox.BACKOFF << attempt, EmOutbox.LONGEST
+                );
+                EmOutbox.RETRIES.incrementAndGet();
+                Logger.info(
+                    this, "email %s failed (%s), attempt #%d in %ds",
+                    key, ex.getMessage(), attempt + 2, delay
+                );
+                this.schedule(key, attempt + 1, delay);
+            } else {
+                EmOutbox.DROPPED.incrementAndGet();
+                Logger.error(
+                    this, "email %s dropped after %d attempts: %[exception]s",
+                    key, EmOutbox.ATTEMPTS, ex
+                );
+                this.done(key);
+            }
+        }
+    }
+
+    /**
+     * The envelope is not waiting any more.
+     * @param key Key of the envelope
+     */
+    private void done(final String key) {
+        try {
+            this.bucket.remove(EmOutbox.PREFIX.concat(key));
+        } catch (final IOException ex) {
+            Logger.warn(
+                this, "failed to delete email %s: %[exception]s", key, ex
+            );
+        }
+        EmOutbox.PENDING.remove(key);
+    }
+
+    /**
+     * Key of the envelope: its recipients and its {@link StKey}, or
+     * its entire content, if there is no key.
+     * @param msg The message
+     * @param bytes Its content
+     * @return Key
+     * @throws IOException If fails
+     */
+    private static String key(final Message msg, final byte[] bytes)
+        throws IOException {
+        try {
+            final StringBuilder text = new StringBuilder(Tv.HUNDRED);
+            final Address[] rcpts = msg.getAllRecipients();
+            if (rcpts != null) {
+                text.append(Arrays.toString(rcpts));
+            }
+            final String[] keys = msg.getHeader(StKey.HEADER);
+            if (keys == null) {
+                text.append(DigestUtils.sha1Hex(bytes));
+            } else {
+                text.append(Iterables.getFirst(Arrays.asList(keys), ""));
+            }
+            return DigestUtils.sha1Hex(text.toString());
+        } catch (final MessagingException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Content of the message.
+     * @param msg The message
+     * @return MIME bytes
+     * @throws IOException If fails
+     */
+    private static byte[] bytes(final Message msg) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            msg.saveChanges();
+            msg.writeTo(baos);
+        } catch (final MessagingException ex) {
+            throw new IOException(ex);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Save the content to the bucket.
+     * @param key Key of the envelope
+     * @param bytes Content
+     * @throws IOException If fails
+     */
+    private void save(final String key, final byte[] bytes)
+        throws IOException {
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentType("message/rfc822");
+        meta.setContentLength((long) bytes.length);
+        this.bucket.ocket(EmOutbox.PREFIX.concat(key)).write(
+            new ByteArrayInputStream(bytes), meta
+        );
+    }
+
+    /**
+     * Statistics of all outboxes, in Prometheus text format.
+     */
+    public static final class Stats {
+        /**
+         * Print them.
+         * @return Text
+         */
+        public String print() {
+            final StringBuilder text = new StringBuilder(Tv.HUNDRED)
+                .append("# TYPE netbout_outbox_pending gauge\n")
+                .append(
+                    String.format(
+                        "netbout_outbox_pending %d\n", EmOutbox.PENDING.size()
+                    )
+                );
+            final String[] kinds = {
+                "queued", "sent", "retries", "dropped", "duplicates"
+            };
+            final AtomicLong[] values = {
+                EmOutbox.QUEUED, EmOutbox.DELIVERED, EmOutbox.RETRIES,
+                EmOutbox.DROPPED, EmOutbox.DUPLICATES
+            };
+            for (int idx = 0; idx < kinds.length; ++idx) {
+                text.append(
+                    String.format(
+                        "# TYPE netbout_outbox_%s_total counter\n", kinds[idx]
+                    )
+                ).append(
+                    String.format(
+                        "netbout_outbox_%s_total %d\n",
+                        kinds[idx], values[idx].get()
+                    )
+                );
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Envelope saved in the bucket.
+     */
+    @Immutable
+    @ToString(of = "key")
+    @EqualsAndHashCode(of = { "bucket", "key" })
+    private static final class Spooled implements Envelope {
+        /**
+         * Bucket.
+         */
+        private final transient Bucket bucket;
+        /**
+         * Key in the bucket.
+         */
+        private final transient String key;
+        /**
+         * Ctor.
+         * @param bkt Bucket
+         * @param name Key in the bucket
+         */
+        Spooled(final Bucket bkt, final String name) {
+            this.bucket = bkt;
+            this.key = name;
+        }
+        @Override
+        public Message unwrap() throws IOException {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            this.bucket.ocket(this.key).read(baos);
+            try {
+                return new MimeMessage(
+                    Session.getDefaultInstance(new Properties()),
+                    new ByteArrayInputStream(baos.toByteArray())
+                );
+            } catch (final MessagingException ex) {
+                throw new IOException(ex);
+            }
+        }
+    }
+
+}
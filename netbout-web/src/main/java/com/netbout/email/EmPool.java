@@ -0,0 +1,369 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Tv;
+import com.jcabi.email.Envelope;
+import com.jcabi.email.Postman;
+import com.jcabi.email.Wire;
+import com.jcabi.log.Logger;
+import java.io.IOException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Transport;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Postman, which keeps a few SMTP connections open and sends
+ * many envelopes through each of them.
+ *
+ * <p>At most {@code size} envelopes are being sent at the same time,
+ * the rest wait for a free connection. A connection is connected and
+ * authenticated once and then returned to the pool after each
+ * envelope. Connections idle for too long or used for too many
+ * envelopes are closed, since SMTP servers drop them anyway. If a
+ * connection turns out to be broken, the envelope is sent again
+ * through a fresh one.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@ToString(of = "wire")
+@EqualsAndHashCode(of = { "wire", "size" })
+public final class EmPool implements Postman {
+
+    /**
+     * How long a connection may stay idle, in milliseconds.
+     */
+    private static final long IDLE = TimeUnit.SECONDS.toMillis(30L);
+
+    /**
+     * How many envelopes to send through one connection.
+     */
+    private static final int ENVELOPES = Tv.HUNDRED;
+
+    /**
+     * Pools of connections, by wire.
+     */
+    private static final ConcurrentMap<Wire, EmPool.Slots> POOLS =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Connections made.
+     */
+    private static final AtomicLong CONNECTS = new AtomicLong();
+
+    /**
+     * Connections reused.
+     */
+    private static final AtomicLong REUSED = new AtomicLong();
+
+    /**
+     * Connections found broken.
+     */
+    private static final AtomicLong BROKEN = new AtomicLong();
+
+    /**
+     * Wire to connect through.
+     */
+    private final transient Wire wire;
+
+    /**
+     * Maximum number of connections.
+     */
+    private final transient int size;
+
+    /**
+     * Public ctor.
+     * @param wre Wire
+     */
+    public EmPool(final Wire wre) {
+        this(wre, Tv.FOUR);
+    }
+
+    /**
+     * Public ctor.
+     * @param wre Wire
+     * @param max Maximum number of connections
+     */
+    public EmPool(final Wire wre, final int max) {
+        this.wire = wre;
+        this.size = max;
+    }
+
+    @Override
+    public void send(final Envelope env) throws IOException {
+        final Message msg = env.unwrap();
+        final EmPool.Slots slots = this.slots();
+        slots.acquire();
+        try {
+            EmPool.Conn conn = this.take(slots);
+            try {
+                conn.deliver(msg);
+            } catch (final SendFailedException ex) {
+                slots.offer(conn);
+                throw new IOException(ex);
+            } catch (final MessagingException | IllegalStateException ex) {
+                EmPool.BROKEN.incrementAndGet();
+                Logger.info(
+                    this, "SMTP connection is broken, reconnecting: %s",
+                    ex.getMessage()
+                );
+                conn.close();
+                conn = this.connect();
+                try {
+                    conn.deliver(msg);
+                } catch (final MessagingException
+                    | IllegalStateException err) {
+                    conn.close();
+                    throw new IOException(err);
+                }
+            }
+            slots.offer(conn);
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * Close all idle connections.
+     */
+    public void close() {
+        final EmPool.Slots slots = EmPool.POOLS.get(this.wire);
+        if (slots != null) {
+            while (true) {
+                final EmPool.Conn conn = slots.poll();
+                if (conn == null) {
+                    break;
+                }
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * Get the pool of this wire.
+     * @return Slots
+     */
+    private EmPool.Slots slots() {
+        EmPool.Slots slots = EmPool.POOLS.get(this.wire);
+        if (slots == null) {
+            EmPool.POOLS.putIfAbsent(this.wire, new EmPool.Slots(this.size));
+            slots = EmPool.POOLS.get(this.wire);
+        }
+        return slots;
+    }
+
+    /**
+     * Take an idle connection or make a new one.
+     * @param slots Pool
+     * @return Connection
+     * @throws IOException If fails
+     */
+    private EmPool.Conn take(final EmPool.Slots slots) throws IOException {
+        EmPool.Conn conn;
+        while (true) {
+            conn = slots.poll();
+            if (conn == null) {
+                conn = this.connect();
+                break;
+            }
+            if (conn.fresh()) {
+                EmPool.REUSED.incrementAndGet();
+                break;
+            }
+            conn.close();
+        }
+        return conn;
+    }
+
+    /**
+     * Open a new connection.
+     * @return Connection
+     * @throws IOException If fails
+     */
+    private EmPool.Conn connect() throws IOException {
+        EmPool.CONNECTS.incrementAndGet();
+        return new EmPool.Conn(this.wire.connect());
+    }
+
+    /**
+     * Statistics of all pools.
+     */
+    public static final class Stats {
+        /**
+         * Print them.
+         * @return Text
+         */
+        public String print() {
+            final StringBuilder text = new StringBuilder(Tv.HUNDRED);
+            final String[] kinds = {"connects", "reused", "broken"};
+            final AtomicLong[] values = {
+                EmPool.CONNECTS, EmPool.REUSED, EmPool.BROKEN
+            };
+            for (int idx = 0; idx < kinds.length; ++idx) {
+                text.append(
+                    String.format(
+                        "# TYPE netbout_smtp_%s_total counter\n", kinds[idx]
+                    )
+                ).append(
+                    String.format(
+                        "netbout_smtp_%s_total %d\n",
+                        kinds[idx], values[idx].get()
+                    )
+                );
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Connections of one wire.
+     */
+    private static final class Slots {
+        /**
+         * Permits to send.
+         */
+        private final transient Semaphore permits;
+        /**
+         * Idle connections, the most recently used first.
+         */
+        private final transient BlockingDeque<EmPool.Conn> idle;
+        /**
+         * Ctor.
+         * @param max Maximum number of connections
+         */
+        Slots(final int max) {
+            this.permits = new Semaphore(max, true);
+            this.idle = new LinkedBlockingDeque<>(max);
+        }
+        /**
+         * Wait for a permit.
+         * @throws IOException If interrupted
+         */
+        public void acquire() throws IOException {
+            try {
+                this.permits.acquire();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IOException(ex);
+            }
+        }
+        /**
+         * Return the permit.
+         */
+        public void release() {
+            this.permits.release();
+        }
+        /**
+         * Take an idle connection.
+         * @return Connection or NULL if none
+         */
+        public EmPool.Conn poll() {
+            return this.idle.pollFirst();
+        }
+        /**
+         * Return a connection back.
+         * @param conn Connection
+         */
+        public void offer(final EmPool.Conn conn) {
+            if (!this.idle.offerFirst(conn)) {
+                conn.close();
+            }
+        }
+    }
+
+    /**
+     * Connection, used by one thread at a time.
+     */
+    private static final class Conn {
+        /**
+         * Transport.
+         */
+        private final transient Transport transport;
+        /**
+         * When it was used last time.
+         */
+        private transient long used;
+        /**
+         * How many envelopes were sent through it.
+         */
+        private transient int sent;
+        /**
+         * Ctor.
+         * @param trans Connected transport
+         */
+        Conn(final Transport trans) {
+            this.transport = trans;
+            this.used = System.currentTimeMillis();
+        }
+        /**
+         * Can it still be used?
+         * @return TRUE if it's connected and not too old
+         */
+        public boolean fresh() {
+            return this.sent < EmPool.ENVELOPES
+                && System.currentTimeMillis() - this.used < EmPool.IDLE
+                && this.transport.isConnected();
+        }
+        /**
+         * Send a message.
+         * @param msg Message
+         * @throws MessagingException If fails
+         */
+        public void deliver(final Message msg) throws MessagingException {
+            this.transport.sendMessage(msg, msg.getAllRecipients());
+            this.used = System.currentTimeMillis();
+            ++this.sent;
+        }
+        /**
+         * Close it quietly.
+         */
+        public void close() {
+            try {
+                this.transport.close();
+            } catch (final MessagingException ex) {
+                Logger.warn(this, "failed to close SMTP: %s", ex.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Friends of a bout, who have to be notified by email.
+ *
+ * <p>Friends are fetched once, together with their emails, and only
+ * those who have an email, are subscribed to the bout and are not
+ * the author himself are returned. Any path that emails friends of
+ * a bout (new messages, invitations, etc.) should use this class
+ * instead of asking every friend separately.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = { "bout", "self" })
+@EqualsAndHashCode(of = { "bout", "self" })
+final class EmRecipients {
+
+    /**
+     * Bout.
+     */
+    private final transient Bout bout;
+
+    /**
+     * Self alias, who never gets notified.
+     */
+    private final transient String self;
+
+    /**
+     * Ctor.
+     * @param bot Bout
+     * @param slf Self alias
+     */
+    EmRecipients(final Bout bot, final String slf) {
+        this.bout = bot;
+        this.self = slf;
+    }
+
+    /**
+     * Get friends to notify.
+     * @return Friends, ready to receive emails
+     * @throws IOException If fails
+     */
+    public List<Friend> resolve() throws IOException {
+        final List<Friend> friends = new LinkedList<>();
+        for (final Friend friend : this.bout.friends().iterate()) {
+            final String alias = friend.alias();
+            if (!alias.equals(this.self) && !friend.email().isEmpty()
+                && this.bout.subscription(alias)) {
+                friends.add(friend);
+            }
+        }
+        return friends;
+    }
+
+}
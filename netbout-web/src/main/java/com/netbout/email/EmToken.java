@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.google.common.io.BaseEncoding;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Locale;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.ToString;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+
+/**
+ * Tokens, which hide and sign short texts, like the ones in reply-to
+ * addresses and invitation links.
+ *
+ * <p>A token looks like {@code 1-<base32>}, where {@code 1} is the
+ * version of the format. The Base32 part is lower-case, so the token
+ * is safe in URLs and in local parts of email addresses. It contains
+ * the first eight bytes of HMAC-SHA256 of the text, followed by the
+ * text encrypted with AES-CTR, where the HMAC is used as the IV. Keys
+ * are derived from the secret once, in the constructor. Tokens of any
+ * other format are decrypted by the Jasypt PBE encryptor, which was
+ * used before.</p>
+ *
+ * <p>The class is thread-safe. Each thread has its own {@link Mac}
+ * and {@link Cipher}, so there is no locking.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@ToString(of = "legacy")
+final class EmToken {
+
+    /**
+     * Prefix of the current format.
+     */
+    private static final String VERSION = "1-";
+
+    /**
+     * How many bytes of HMAC to keep.
+     */
+    private static final int TAG = 8;
+
+    /**
+     * Size of AES key and block, in bytes.
+     */
+    private static final int BLOCK = 16;
+
+    /**
+     * Encoding.
+     */
+    private static final BaseEncoding BASE =
+        BaseEncoding.base32().lowerCase().omitPadding();
+
+    /**
+     * HMAC, one per thread.
+     */
+    private final transient ThreadLocal<Mac> macs;
+
+    /**
+     * Cipher, one per thread.
+     */
+    private final transient ThreadLocal<Cipher> ciphers;
+
+    /**
+     * Encryption key.
+     */
+    private final transient SecretKeySpec key;
+
+    /**
+     * Decryptor of old tokens.
+     */
+    private final transient StandardPBEStringEncryptor legacy;
+
+    /**
+     * Ctor.
+     * @param secret Secret
+     */
+    EmToken(final String secret) {
+        final byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        final SecretKeySpec sign = new SecretKeySpec(
+            EmToken.hmac(bytes, "netbout-token-mac"), "HmacSHA256"
+        );
+        this.key = new SecretKeySpec(
+            Arrays.copyOf(
+                EmToken.hmac(bytes, "netbout-token-aes"), EmToken.BLOCK
+            ),
+            "AES"
+        );
+        this.macs = new ThreadLocal<Mac>() {
+            @Override
+            protected Mac initialValue() {
+                try {
+                    final Mac mac = Mac.getInstance("HmacSHA256");
+                    mac.init(sign);
+                    return mac;
+                } catch (final GeneralSecurityException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+        this.ciphers = new ThreadLocal<Cipher>() {
+            @Override
+            protected Cipher initialValue() {
+                try {
+                    return Cipher.getInstance("AES/CTR/NoPadding");
+                } catch (final GeneralSecurityException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+        this.legacy = new StandardPBEStringEncryptor();
+        this.legacy.setPassword(secret);
+    }
+
+    /**
+     * Make a token.
+     * @param text The text to hide
+     * @return Token
+     */
+    public String encode(final String text) {
+        final byte[] plain = text.getBytes(StandardCharsets.UTF_8);
+        final byte[] tag = this.tag(plain);
+        final byte[] hidden = this.crypt(Cipher.ENCRYPT_MODE, tag, plain);
+        final byte[] all = Arrays.copyOf(tag, tag.length + hidden.length);
+        System.arraycopy(hidden, 0, all, tag.length, hidden.length);
+        return EmToken.VERSION.concat(EmToken.BASE.encode(all));
+    }
+
+    /**
+     * Read the text from the token.
+     * @param token The token
+     * @return The text
+     * @throws IllegalArgumentException If the token is broken or forged
+     */
+    public String decode(final String token) {
+        final String text;
+        if (token.startsWith(EmToken.VERSION)) {
+            final byte[] all = EmToken.BASE.decode(
+                token.substring(EmToken.VERSION.length())
+                    .toLowerCase(Locale.ENGLISH)
+            );
+            if (all.length < EmToken.TAG) {
+                throw new IllegalArgumentException("token is too short");
+            }
+            final byte[] tag = Arrays.copyOf(all, EmToken.TAG);
+            final byte[] plain = this.crypt(
+                Cipher.DECRYPT_MODE, tag,
+                Arrays.copyOfRange(all, EmToken.TAG, all.length)
+            );
+            if (!MessageDigest.isEqual(tag, this.tag(plain))) {
+                throw new IllegalArgumentException("token is not authentic");
+            }
+            text = new String(plain, StandardCharsets.UTF_8);
+        } else {
+            text = this.legacy.decrypt(token);
+        }
+        return text;
+    }
+
+    /**
+     * Calculate the tag of the text.
+     * @param plain The text
+     * @return Tag
+     */
+    private byte[] tag(final byte[] plain) {
+        return Arrays.copyOf(this.macs.get().doFinal(plain), EmToken.TAG);
+    }
+
+    /**
+     * Encrypt or decrypt.
+     * @param mode Mode of the cipher
+     * @param tag The tag, which is the IV
+     * @param input Input
+     * @return Output
+     */
+    private byte[] crypt(final int mode, final byte[] tag,
+        final byte[] input) {
+        try {
+            final Cipher cipher = this.ciphers.get();
+            cipher.init(
+                mode, this.key,
+                new IvParameterSpec(Arrays.copyOf(tag, EmToken.BLOCK))
+            );
+            return cipher.doFinal(input);
+        } catch (final GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Derive a key.
+     * @param secret The secret
+     * @param label Purpose of the key
+     * @return Key
+     */
+    private static byte[] hmac(final byte[] secret, final String label) {
+        try {
+            final Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac.doFinal(label.getBytes(StandardCharsets.UTF_8));
+        } catch (final GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.live;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.jcabi.aspects.Tv;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Events for connected browsers, by alias.
+ *
+ * <p>Every alias someone is listening to has a ring of
+ * {@link #CAPACITY} most recent events, each with a unique growing
+ * number. A listener remembers the number of the last event it has seen
+ * and asks for the events after it. When some of them are already
+ * pushed out of the ring, the listener gets a single {@link #RELOAD}
+ * event instead. Rings of aliases nobody listens to expire in a few
+ * minutes and events for them are not kept at all.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@ToString
+@EqualsAndHashCode
+public final class Events {
+
+    /**
+     * Event that tells the browser to reload everything.
+     */
+    public static final String RELOAD = "{\"type\":\"reload\"}";
+
+    /**
+     * How many events to keep per alias.
+     */
+    public static final int CAPACITY = Tv.EIGHT * Tv.EIGHT;
+
+    /**
+     * Number of the most recent event, unique in the JVM.
+     */
+    private static final AtomicLong LAST = new AtomicLong(
+        TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis())
+    );
+
+    /**
+     * Rings, by alias.
+     */
+    private static final Cache<String, Events.Ring> RINGS =
+        CacheBuilder.newBuilder()
+            .expireAfterAccess((long) Tv.FIVE, TimeUnit.MINUTES)
+            .build();
+
+    /**
+     * Publish an event.
+     * @param aliases Aliases to tell about it
+     * @param event The event, as JSON
+     */
+    public void publish(final Iterable<String> aliases, final String event) {
+        synchronized (Events.LAST) {
+            final long number = Events.LAST.incrementAndGet();
+            for (final String alias : aliases) {
+                final Events.Ring ring = Events.RINGS.getIfPresent(alias);
+                if (ring != null) {
+                    ring.add(number, event);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of the most recent event the alias could see.
+     * @param alias The alias
+     * @return Number of the event
+     */
+    public long last(final String alias) {
+        return Events.ring(alias).last();
+    }
+
+    /**
+     * Get events after the given one, waiting for them if there are none.
+     * @param alias The alias
+     * @param since Number of the last seen event
+     * @param time How long to wait
+     * @param unit Unit of time
+     * @return Events by their numbers, maybe empty
+     * @throws InterruptedException If interrupted while waiting
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public SortedMap<Long, String> after(final String alias, final long since,
+        final long time, final TimeUnit unit) throws InterruptedException {
+        return Events.ring(alias).after(since, unit.toMillis(time));
+    }
+
+    /**
+     * Get the ring of the alias, creating it if necessary.
+     * @param alias The alias
+     * @return The ring
+     */
+    private static Events.Ring ring(final String alias) {
+        try {
+            return Events.RINGS.get(
+                alias,
+                new Callable<Events.Ring>() {
+                    @Override
+                    public Events.Ring call() {
+                        return new Events.Ring(Events.LAST.get());
+                    }
+                }
+            );
+        } catch (final ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Ring of most recent events.
+     */
+    private static final class Ring {
+        /**
+         * Numbers of events.
+         */
+        private final transient long[] numbers = new long[Events.CAPACITY];
+        /**
+         * Events.
+         */
+        private final transient String[] events =
+            new String[Events.CAPACITY];
+        /**
+         * How many events were added.
+         */
+        private transient long total;
+        /**
+         * Number of the most recent event that is lost.
+         */
+        private transient long lost;
+        /**
+         * Ctor.
+         * @param start Number of the most recent event we don't have
+         */
+        Ring(final long start) {
+            this.lost = start;
+        }
+        /**
+         * Add an event.
+         * @param number Its number
+         * @param event The event
+         */
+        public synchronized void add(final long number, final String event) {
+            final int idx = (int) (this.total % (long) Events.CAPACITY);
+            if (this.total >= (long) Events.CAPACITY) {
+                this.lost = this.numbers[idx];
+            }
+            this.numbers[idx] = number;
+            this.events[idx] = event;
+            ++this.total;
+            this.notifyAll();
+        }
+        /**
+         * Number of the most recent event.
+         * @return Number
+         */
+        public synchronized long last() {
+            final long last;
+            if (this.total == 0L) {
+                last = this.lost;
+            } else {
+                last = this.numbers[
+                    (int) ((this.total - 1L) % (long) Events.CAPACITY)
+                ];
+            }
+            return last;
+        }
+        /**
+         * Events after the given one.
+         * @param since Number of the last seen event
+         * @param millis How long to wait for them
+         * @return Events
+         * @throws InterruptedException If interrupted
+         */
+        public synchronized SortedMap<Long, String> after(final long since,
+            final long millis) throws InterruptedException {
+            final long end = System.currentTimeMillis() + millis;
+            long left = millis;
+            while (this.last() <= since && left > 0L) {
+                this.wait(left);
+                left = end - System.currentTimeMillis();
+            }
+            final SortedMap<Long, String> found;
+            if (since < this.lost) {
+                found = new TreeMap<>(
+                    Collections.singletonMap(this.last(), Events.RELOAD)
+                );
+            } else {
+                found = new TreeMap<>();
+                final long first = Math.max(
+                    0L, this.total - (long) Events.CAPACITY
+                );
+                for (long pos = first; pos < this.total; ++pos) {
+                    final int idx = (int) (pos % (long) Events.CAPACITY);
+                    if (this.numbers[idx] > since) {
+                        found.put(this.numbers[idx], this.events[idx]);
+                    }
+                }
+            }
+            return found;
+        }
+    }
+
+}
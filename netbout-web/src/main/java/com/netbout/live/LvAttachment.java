@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.live;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Attachment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Live Attachment.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+final class LvAttachment implements Attachment {
+
+    /**
+     * Original.
+     */
+    private final transient Attachment origin;
+
+    /**
+     * Event to publish.
+     */
+    private final transient LvEvent event;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     * @param evt Event to publish
+     */
+    LvAttachment(final Attachment org, final LvEvent evt) {
+        this.origin = org;
+        this.event = evt;
+    }
+
+    @Override
+    public String name() throws IOException {
+        return this.origin.name();
+    }
+
+    @Override
+    public String ctype() throws IOException {
+        return this.origin.ctype();
+    }
+
+    @Override
+    public String etag() throws IOException {
+        return this.origin.etag();
+    }
+
+    @Override
+    public boolean unseen() throws IOException {
+        return this.origin.unseen();
+    }
+
+    @Override
+    public Date date() throws IOException {
+        return this.origin.date();
+    }
+
+    @Override
+    public String author() throws IOException {
+        return this.origin.author();
+    }
+
+    @Override
+    public InputStream read() throws IOException {
+        return this.origin.read();
+    }
+
+    @Override
+    public void write(final InputStream stream, final String ctype,
+        final String etag) throws IOException {
+        this.origin.write(stream, ctype, etag);
+        this.event.publish("attach", this.name());
+    }
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.live;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.log.Logger;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Event in a bout, to be published to all its friends.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@ToString(of = { "bout", "self" })
+@EqualsAndHashCode(of = { "bout", "self" })
+final class LvEvent {
+
+    /**
+     * The bout.
+     */
+    private final transient Bout bout;
+
+    /**
+     * Self alias, who is doing it.
+     */
+    private final transient String self;
+
+    /**
+     * Public ctor.
+     * @param bot Bout
+     * @param slf Self alias
+     */
+    LvEvent(final Bout bot, final String slf) {
+        this.bout = bot;
+        this.self = slf;
+    }
+
+    /**
+     * Publish it to all friends of the bout.
+     *
+     * <p>The change is already done, that's why a failure here
+     * is only logged.</p>
+     *
+     * @param type Type of the event
+     * @param name Name of what was changed or empty
+     */
+    public void publish(final String type, final String name) {
+        try {
+            final Collection<String> aliases = new ArrayList<>(16);
+            for (final Friend friend : this.bout.friends().iterate()) {
+                aliases.add(friend.alias());
+            }
+            final StringBuilder json = new StringBuilder(64)
+                .append("{\"type\":\"").append(type)
+                .append("\",\"bout\":").append(this.bout.number())
+                .append(",\"alias\":\"")
+                .append(LvEvent.escape(this.self)).append('"');
+            if (!name.isEmpty()) {
+                json.append(",\"name\":\"")
+                    .append(LvEvent.escape(name)).append('"');
+            }
+            new Events().publish(aliases, json.append('}').toString());
+        } catch (final IOException ex) {
+            Logger.warn(
+                this, "failed to publish \"%s\" in %s: %[exception]s",
+                type, this.bout, ex
+            );
+        }
+    }
+
+    /**
+     * Escape JSON string, including control characters, so that the
+     * result never breaks a line of Server-Sent Events.
+     * @param text The text
+     * @return Escaped text
+     */
+    private static String escape(final String text) {
+        final StringBuilder out = new StringBuilder(text.length());
+        for (final char chr : text.toCharArray()) {
+            if (chr == '"' || chr == '\\') {
+                out.append('\\').append(chr);
+            } else if (chr == '\n') {
+                out.append("\\n");
+            } else if (chr == '\r') {
+                out.append("\\r");
+            } else if (chr == '\t') {
+                out.append("\\t");
+            } else if (chr < ' ' || chr == '\u2028' || chr == '\u2029') {
+                out.append(String.format("\\u%04x", (int) chr));
+            } else {
+                out.append(chr);
+            }
+        }
+        return out.toString();
+    }
+
+}
@@ -0,0 +1,481 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.google.common.net.HttpHeaders;
+import com.jcabi.aspects.Tv;
+import com.jcabi.http.request.JdkRequest;
+import com.jcabi.http.response.RestResponse;
+import com.jcabi.http.wire.AutoRedirectingWire;
+import com.jcabi.http.wire.OneMinuteWire;
+import com.jcabi.http.wire.RetryWire;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseThreads;
+import com.netbout.breaker.Breakers;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.imageio.ImageIO;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Thumbnails of friend photos, kept on disk.
+ *
+ * <p>Thumbnails are stored in a temporary directory, one PNG file per
+ * photo URI, and the least recently used ones are deleted when the
+ * directory grows bigger than {@link #MAX} bytes. Photos are fetched
+ * and scaled in background threads, one fetch per URI at a time;
+ * a thumbnail checked more than a day ago is served as is and refreshed
+ * in background. The file is replaced only when its content changes,
+ * so its modification time can be used as its version. A new thumbnail
+ * is written to a temporary file and atomically renamed, that's why
+ * reads need no lock: the file is opened and served straight from its
+ * channel, and stays readable even when eviction deletes it or a fetch
+ * replaces it in the meantime. Only evictions are serialized.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ */
+@ToString
+@EqualsAndHashCode
+@SuppressWarnings("PMD.ExcessiveImports")
+final class Avatars {
+
+    /**
+     * Width of a thumbnail, in pixels.
+     */
+    public static final int WIDTH = Tv.HUNDRED;
+
+    /**
+     * Maximum total size of thumbnails on disk, in bytes.
+     */
+    public static final long MAX = (long) Tv.FIFTY * (long) Tv.MILLION;
+
+    /**
+     * Directory with thumbnails.
+     */
+    private static final File DIR = new File(
+        System.getProperty("java.io.tmpdir"), "netbout-avatars"
+    );
+
+    /**
+     * Photo to use when the real one can't be decoded.
+     */
+    private static final String UNKNOWN = "http://img.netbout.com/unknown.png";
+
+    /**
+     * Fetches in progress, by key.
+     */
+    private static final ConcurrentMap<String, Future<File>> FETCHES =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * When thumbnails were used last time, by file name.
+     */
+    private static final ConcurrentMap<String, Long> USED =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * When thumbnails were checked against their photos, by file name.
+     */
+    private static final ConcurrentMap<String, Long> CHECKED =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Threads fetching photos.
+     */
+    private static final ExecutorService THREADS =
+        Executors.newFixedThreadPool(
+            Tv.FOUR, new VerboseThreads(Avatars.class)
+        );
+
+    /**
+     * Get a thumbnail, waiting for it not longer than the given time.
+     * @param photo URI of the photo
+     * @param time How long to wait
+     * @param unit Unit of time
+     * @return Thumbnail or NULL if it's not ready yet or
+     *  remote hosts of photos are not available now
+     * @throws IOException If fails
+     */
+    public Avatars.Thumb thumb(final URI photo, final long time,
+        final TimeUnit unit) throws IOException {
+        final String key = DigestUtils.sha1Hex(photo.toString());
+        final File file = new File(Avatars.DIR, String.format("%s.png", key));
+        Avatars.Thumb thumb = Avatars.read(file);
+        if (thumb == null) {
+            if (!new Breakers().avatars().isOpen()) {
+                try {
+                    thumb = Avatars.read(
+                        Avatars.fetch(key, photo, file).get(time, unit)
+                    );
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                } catch (final ExecutionException ex) {
+                    throw new IOException(ex.getCause());
+                } catch (final TimeoutException ex) {
+                    Logger.info(
+                        this, "thumbnail of %s is not ready in %d %s",
+                        photo, time, unit
+                    );
+                }
+            }
+        } else if (System.currentTimeMillis() - Avatars.checked(file)
+            > TimeUnit.DAYS.toMillis(1L)
+            && !new Breakers().avatars().isOpen()) {
+            Avatars.fetch(key, photo, file);
+        }
+        return thumb;
+    }
+
+    /**
+     * Open the thumbnail on disk, if it is there.
+     *
+     * <p>When the file is replaced between the moment we check its
+     * version and the moment we open it, we try again, so the version
+     * always matches the content.</p>
+     *
+     * @param file The file
+     * @return Thumbnail or NULL if there is no file
+     * @throws IOException If fails
+     */
+    private static Avatars.Thumb read(final File file) throws IOException {
+        final long modified = file.lastModified();
+        Avatars.Thumb thumb = null;
+        if (modified != 0L) {
+            FileChannel channel = null;
+            try {
+                channel = FileChannel.open(
+                    file.toPath(), StandardOpenOption.READ
+                );
+            } catch (final NoSuchFileException ex) {
+                Logger.debug(Avatars.class, "%s is gone", file);
+            }
+            if (channel != null && file.lastModified() == modified) {
+                Avatars.USED.put(file.getName(), System.currentTimeMillis());
+                thumb = new Avatars.Thumb(
+                    String.format(
+                        "%s-%x", file.getName().replace(".png", ""), modified
+                    ),
+                    channel
+                );
+            } else if (channel != null) {
+                channel.close();
+                thumb = Avatars.read(file);
+            }
+        }
+        return thumb;
+    }
+
+    /**
+     * When the file was checked against its photo last time.
+     * @param file The file
+     * @return Time in milliseconds
+     */
+    private static long checked(final File file) {
+        final Long time = Avatars.CHECKED.get(file.getName());
+        final long checked;
+        if (time == null) {
+            checked = file.lastModified();
+        } else {
+            checked = Math.max(time, file.lastModified());
+        }
+        return checked;
+    }
+
+    /**
+     * When the file was used last time.
+     * @param file The file
+     * @return Time in milliseconds
+     */
+    private static long used(final File file) {
+        final Long time = Avatars.USED.get(file.getName());
+        final long used;
+        if (time == null) {
+            used = file.lastModified();
+        } else {
+            used = time;
+        }
+        return used;
+    }
+
+    /**
+     * Start fetching, unless it is already in progress.
+     * @param key Key of the photo
+     * @param photo URI of the photo
+     * @param file File to save the thumbnail to
+     * @return Future with the file
+     */
+    private static Future<File> fetch(final String key, final URI photo,
+        final File file) {
+        final FutureTask<File> task = new FutureTask<>(
+            new Callable<File>() {
+                @Override
+                public File call() throws IOException {
+                    try {
+                        Avatars.save(Avatars.render(photo), file);
+                    } finally {
+                        Avatars.FETCHES.remove(key);
+                    }
+                    return file;
+                }
+            }
+        );
+        final Future<File> before = Avatars.FETCHES.putIfAbsent(key, task);
+        final Future<File> future;
+        if (before == null) {
+            Avatars.THREADS.execute(task);
+            future = task;
+        } else {
+            future = before;
+        }
+        return future;
+    }
+
+    /**
+     * Fetch the photo and render its thumbnail.
+     * @param photo URI of the photo
+     * @return PNG content
+     * @throws IOException If fails
+     */
+    private static byte[] render(final URI photo) throws IOException {
+        final byte[] img = new Breakers().avatars().call(
+            new Callable<byte[]>() {
+                @Override
+                public byte[] call() throws IOException {
+                    return new JdkRequest(photo)
+                        .through(AutoRedirectingWire.class)
+                        .through(RetryWire.class)
+                        .through(OneMinuteWire.class)
+                        .header(HttpHeaders.ACCEPT, "image/*")
+                        .header(HttpHeaders.USER_AGENT, "Netbout.com")
+                        .fetch()
+                        .as(RestResponse.class)
+                        .assertStatus(HttpURLConnection.HTTP_OK)
+                        .binary();
+                }
+            }
+        );
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(img));
+        if (image == null) {
+            image = ImageIO.read(new URL(Avatars.UNKNOWN));
+        }
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(Avatars.scale(image), "png", baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Scale the image down to {@link #WIDTH}, halving it with bilinear
+     * interpolation step by step, which is much faster than
+     * {@code SCALE_SMOOTH} and looks almost the same.
+     * @param image The image
+     * @return Thumbnail
+     */
+    private static BufferedImage scale(final BufferedImage image) {
+        final int height = Math.max(
+            1, image.getHeight() * Avatars.WIDTH / image.getWidth()
+        );
+        BufferedImage thumb = image;
+        int wdt = image.getWidth();
+        int hgt = image.getHeight();
+        do {
+            wdt = Math.max(wdt / 2, Avatars.WIDTH);
+            hgt = Math.max(hgt / 2, height);
+            if (thumb.getWidth() <= Avatars.WIDTH) {
+                wdt = Avatars.WIDTH;
+                hgt = height;
+            }
+            final BufferedImage next = new BufferedImage(
+                wdt, hgt, BufferedImage.TYPE_INT_RGB
+            );
+            final Graphics2D graph = next.createGraphics();
+            graph.setRenderingHint(
+                RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_BILINEAR
+            );
+            graph.drawImage(thumb, 0, 0, wdt, hgt, null);
+            graph.dispose();
+            thumb = next;
+        } while (wdt != Avatars.WIDTH || hgt != height);
+        return thumb;
+    }
+
+    /**
+     * Save the thumbnail, if it differs from what is on disk.
+     * @param png PNG content
+     * @param file File to save to
+     * @throws IOException If fails
+     */
+    private static void save(final byte[] png, final File file)
+        throws IOException {
+        if (file.exists()
+            && Arrays.equals(Files.readAllBytes(file.toPath()), png)) {
+            Avatars.CHECKED.put(file.getName(), System.currentTimeMillis());
+        } else {
+            Avatars.evict(png.length);
+            final File temp = File.createTempFile(
+                "avatar", ".tmp", Avatars.DIR
+            );
+            Files.write(temp.toPath(), png);
+            Files.move(
+                temp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        }
+    }
+
+    /**
+     * Delete least recently used thumbnails to make room for a new one.
+     * @param room How many bytes we need
+     * @throws IOException If fails
+     */
+    private static void evict(final long room) throws IOException {
+        synchronized (Avatars.DIR) {
+            if (!Avatars.DIR.exists() && !Avatars.DIR.mkdirs()) {
+                throw new IOException(
+                    String.format("can't create %s", Avatars.DIR)
+                );
+            }
+            final File[] files = Avatars.DIR.listFiles(
+                new FilenameFilter() {
+                    @Override
+                    public boolean accept(final File dir, final String name) {
+                        return name.endsWith(".png");
+                    }
+                }
+            );
+            long total = room;
+            for (final File file : files) {
+                total += file.length();
+            }
+            Arrays.sort(
+                files,
+                new Comparator<File>() {
+                    @Override
+                    public int compare(final File left, final File right) {
+                        return Long.compare(
+                            Avatars.used(left), Avatars.used(right)
+                        );
+                    }
+                }
+            );
+            for (final File file : files) {
+                if (total <= Avatars.MAX) {
+                    break;
+                }
+                total -= file.length();
+                Files.deleteIfExists(file.toPath());
+                Avatars.USED.remove(file.getName());
+                Avatars.CHECKED.remove(file.getName());
+            }
+        }
+    }
+
+    /**
+     * Thumbnail, opened on disk.
+     *
+     * <p>It must be closed, either through its stream or directly.</p>
+     */
+    @ToString(of = "ver")
+    @EqualsAndHashCode(of = "ver")
+    public static final class Thumb implements Closeable {
+        /**
+         * Version, which changes when the content changes.
+         */
+        private final transient String ver;
+        /**
+         * Channel with PNG content.
+         */
+        private final transient FileChannel channel;
+        /**
+         * Ctor.
+         * @param version Version of the content
+         * @param chnl Channel with PNG content
+         */
+        Thumb(final String version, final FileChannel chnl) {
+            this.ver = version;
+            this.channel = chnl;
+        }
+        /**
+         * Version of the content, good for an ETag.
+         * @return Version
+         */
+        public String version() {
+            return this.ver;
+        }
+        /**
+         * PNG content, which closes the thumbnail when closed.
+         * @return Stream
+         */
+        public InputStream stream() {
+            return Channels.newInputStream(this.channel);
+        }
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+}
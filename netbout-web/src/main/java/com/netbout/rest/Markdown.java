@@ -47,7 +47,7 @@ public interface Markdown {
     String html(@NotNull String txt);
 
     /**
-     * Default implementation.
+     * Default implementation, with rendered HTML cached.
      */
     final class Default implements Markdown {
         /**
@@ -59,7 +59,7 @@ public interface Markdown {
          * Ctor.
          */
         public Default() {
-            this.processor = new MarkdownTxtmark();
+            this.processor = new MarkdownCached(new MarkdownTxtmark());
         }
 
         @Override
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.jcabi.aspects.Tv;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Markdown that renders every distinct text only once.
+ *
+ * <p>Rendered HTML is kept in memory, keyed by the origin and a hash of
+ * the source text, so the same message rendered on a bout page, in an
+ * email to every friend and in a preview costs one call to the origin.
+ * The storage is bounded by its size in memory and is shared by all
+ * instances; HTML of one origin is never served by an instance that
+ * decorates another, unless the origins are equal.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class MarkdownCached implements Markdown {
+
+    /**
+     * Memory budget, in bytes.
+     */
+    private static final long BUDGET = (long) Tv.TWENTY * (long) Tv.MILLION;
+
+    /**
+     * Rendered HTML, by key.
+     */
+    private static final Cache<MarkdownCached.Key, String> HTML =
+        CacheBuilder.newBuilder()
+            .maximumWeight(MarkdownCached.BUDGET)
+            .weigher(
+                new Weigher<MarkdownCached.Key, String>() {
+                    @Override
+                    public int weigh(final MarkdownCached.Key key,
+                        final String html) {
+                        return (key.weight() + html.length()) << 1;
+                    }
+                }
+            )
+            .build();
+
+    /**
+     * Original markdown processor.
+     */
+    private final transient Markdown origin;
+
+    /**
+     * Ctor.
+     * @param org Original processor
+     */
+    public MarkdownCached(final Markdown org) {
+        this.origin = org;
+    }
+
+    @Override
+    public String html(@NotNull final String txt) {
+        try {
+            return this.html(
+                String.format("sha256:%s", DigestUtils.sha256Hex(txt)),
+                new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return txt;
+                    }
+                }
+            );
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Convert it to HTML, unless HTML for this key is already known.
+     *
+     * <p>The source is read only when nothing is cached under the key
+     * yet, which makes it possible to skip loading of the text itself,
+     * when its identity is known in advance, for example, an ETag of
+     * an attachment.</p>
+     *
+     * @param key Unique and immutable identity of the text, for
+     *  this origin
+     * @param src The raw source text
+     * @return The HTML
+     * @throws IOException If fails to read the source
+     */
+    public String html(@NotNull final String key,
+        @NotNull final Callable<String> src) throws IOException {
+        try {
+            return MarkdownCached.HTML.get(
+                new MarkdownCached.Key(this.origin, key),
+                new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return MarkdownCached.this.origin.html(src.call());
+                    }
+                }
+            );
+        } catch (final ExecutionException ex) {
+            throw new IOException(ex.getCause());
+        }
+    }
+
+    /**
+     * Key in the storage.
+     */
+    @EqualsAndHashCode
+    private static final class Key {
+        /**
+         * Original processor.
+         */
+        private final transient Markdown origin;
+        /**
+         * Identity of the text.
+         */
+        private final transient String text;
+        /**
+         * Ctor.
+         * @param org Original processor
+         * @param txt Identity of the text
+         */
+        Key(final Markdown org, final String txt) {
+            this.origin = org;
+            this.text = txt;
+        }
+        /**
+         * Weight of the key, in chars.
+         * @return Chars
+         */
+        public int weight() {
+            return this.text.length();
+        }
+    }
+
+}
@@ -28,147 +28,175 @@ package com.netbout.rest;
 
 import com.github.rjeschke.txtmark.Configuration;
 import com.github.rjeschke.txtmark.Processor;
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.validation.constraints.NotNull;
+import lombok.EqualsAndHashCode;
 
 /**
  * Text with markdown formatting.
  * Using TxtMark markdown processor.
  *
+ * <p>Before the text goes to TxtMark it is prepared in one linear scan,
+ * without regular expressions: code markers are tracked, line breaks are
+ * forced outside of code and plain links are turned into Markdown links,
+ * all on the way, straight into one buffer. Only the code blocks TxtMark
+ * renders are fixed afterwards, in its output.</p>
+ *
  * @author Dmitry Zaytsev (dmitry.zaytsev@gmail.com)
  * @version $Id$
  * @since 2.23
  */
+@EqualsAndHashCode
+@SuppressWarnings("PMD.TooManyMethods")
 public final class MarkdownTxtmark implements Markdown {
     /**
-     * Plain link detection pattern.
+     * TxtMark configuration, it is immutable and may be shared.
      */
-    private static final Pattern LINK = Pattern.compile(
-        // @checkstyle LineLengthCheck (1 line)
-        "(?<!\\]\\s{0,256}\\()(?<!\\]:\\s{0,256})(?<!=\")(https?:\\/\\/[a-zA-Z0-9-._~:\\?#@!$&'*+,;=%\\/]+[a-zA-Z0-9-_~#@$&'*+=%\\/])(?![\\w.]*\\]\\()"
-    );
+    private static final Configuration CONFIG = Configuration.builder()
+        .enableSafeMode()
+        .build();
     /**
-     * Pattern to detect lines which should have a line break at the end.
-     * We look for lines which have less than two spaces on their end because
-     * TxtMark automatically puts {@code <br/>} if the line has two or more
-     * spaces on its end and we should skip a line that starts with four
-     * or more spaces because it's a code block in markdown.
+     * Code markers, in the order they are looked for.
      */
-    private static final Pattern NEW_LINE = Pattern.compile(
-        "^ {0,3}(\\S|(\\S.*\\S)) ?$", Pattern.MULTILINE
-    );
+    private static final String[] MARKERS = {"```", "``", "`"};
     /**
-     * String pattern for end of line characters match.
-     * @checkstyle LineLengthCheck (2 line)
+     * Characters allowed inside a plain link.
      */
-    private static final String EOL = "\\u000D\\u000A|[\\u000A\\u000B\\u000C\\u000D\\u0085\\u2028\\u2029]";
+    private static final boolean[] URL = MarkdownTxtmark.table(
+        "!#$%&'*+,-./0123456789:;=?@_~ABCDEFGHIJKLMNOPQRSTUVWXYZ",
+        "abcdefghijklmnopqrstuvwxyz"
+    );
     /**
-     * Pattern used for fixing the start of code blocks after processing.
+     * Characters a plain link may end with.
      */
-    private static final Pattern CODE_BLOCK_START = Pattern.compile(
-        String.format("<code>`(%s)?", MarkdownTxtmark.EOL)
+    private static final boolean[] URL_END = MarkdownTxtmark.table(
+        "#$%&'*+-/0123456789=@_~ABCDEFGHIJKLMNOPQRSTUVWXYZ",
+        "abcdefghijklmnopqrstuvwxyz"
     );
     /**
-     * Pattern used for fixing the end of code blocks after processing.
+     * Characters that may appear between a plain link and "](",
+     * which means that the link is a label of a Markdown link.
      */
-    private static final Pattern CODE_BLOCK_END = Pattern.compile(
-        String.format("(%s)?</code>`", MarkdownTxtmark.EOL)
+    private static final boolean[] WORD = MarkdownTxtmark.table(
+        "._0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ",
+        "abcdefghijklmnopqrstuvwxyz"
     );
+    /**
+     * Maximum number of spaces between "](" or "]:" and a link, which
+     * is still considered to be a part of Markdown link.
+     */
+    private static final int GAP = 256;
+    /**
+     * Code block start, as TxtMark renders it.
+     */
+    private static final String BLOCK_START = "<code>`";
+    /**
+     * Code block end, as TxtMark renders it.
+     */
+    private static final String BLOCK_END = "</code>`";
 
     @Override
     public String html(@NotNull final String txt) {
-        final Configuration conf = Configuration.builder()
-            .enableSafeMode()
-            .build();
         return MarkdownTxtmark.fixedCodeBlocks(
             Processor.process(
-                MarkdownTxtmark.formatLinks(
-                    MarkdownTxtmark.makeLineBreakExcludeCode(
-                        txt,
-                        Arrays.asList("```", "``", "`").iterator()
-                    )
-                ),
-                conf
+                new MarkdownTxtmark.Scan(txt).prepare(),
+                MarkdownTxtmark.CONFIG
             )
         );
     }
 
     /**
-     * Replace plain links with Markdown syntax. To be convinced it doesn't
-     * replace links inside markdown syntax, it ensures that characters
-     * before and after link do not match to Markdown link syntax.
-     * @param txt Text to find links in
-     * @return Text with Markdown-formatted links
-     */
-    private static String formatLinks(final String txt) {
-        final StringBuffer result = new StringBuffer();
-        final Matcher matcher = MarkdownTxtmark.LINK.matcher(txt);
-        while (matcher.find()) {
-            matcher.appendReplacement(
-                result,
-                String.format("[%1$s](%1$s)", matcher.group())
-            );
-        }
-        matcher.appendTail(result);
-        return result.toString();
+     * Find the end of a plain link that starts at the given position.
+     * @param txt Text
+     * @param start Position to start at
+     * @return Position right after the link or -1 if there is no link
+     */
+    private static int link(final CharSequence txt, final int start) {
+        int end = -1;
+        if (MarkdownTxtmark.starts(txt, start, "http")) {
+            int pos = start + "http".length();
+            if (MarkdownTxtmark.starts(txt, pos, "s")) {
+                ++pos;
+            }
+            if (MarkdownTxtmark.starts(txt, pos, "://")
+                && !MarkdownTxtmark.labeled(txt, start)) {
+                end = MarkdownTxtmark.tail(txt, pos + "://".length());
+            }
+        }
+        return end;
     }
 
     /**
-     * Insert two spaces at the end of string that needs line break to
-     * force creation of HTML line break. Skip code blocks marked with markers
-     * elements.
-     * @param txt Text to parse
-     * @param markers Markers to be used in the iteration order
-     * @return Text with Markdown-formatted line breaks outside code blocks
-     */
-    private static String makeLineBreakExcludeCode(final String txt,
-        final Iterator<String> markers) {
-        final String result;
-        if (markers.hasNext()) {
-            final String marker = markers.next();
-            final StringBuilder builder = new StringBuilder();
-            boolean code = false;
-            for (final String fragment : txt.split(marker, -1)) {
-                if (code) {
-                    builder.append(marker)
-                    .append(fragment)
-                        .append(marker);
-                } else {
-                    builder.append(makeLineBreakExcludeCode(fragment, markers));
-                }
-                code = !code;
+     * Find the end of a plain link, which is the longest possible one,
+     * unless it is followed by "](" and is a label of a Markdown link.
+     * @param txt Text
+     * @param start Position right after the protocol
+     * @return Position right after the link or -1 if there is no link
+     */
+    private static int tail(final CharSequence txt, final int start) {
+        int tail = start;
+        while (tail < txt.length()
+            && MarkdownTxtmark.in(MarkdownTxtmark.URL, txt.charAt(tail))) {
+            ++tail;
+        }
+        int word = tail;
+        while (word < txt.length()
+            && MarkdownTxtmark.in(MarkdownTxtmark.WORD, txt.charAt(word))) {
+            ++word;
+        }
+        boolean label = MarkdownTxtmark.starts(txt, word, "](");
+        int end = -1;
+        for (int last = tail; end < 0 && last > start + 1; --last) {
+            if (last < tail) {
+                label = label && MarkdownTxtmark.in(
+                    MarkdownTxtmark.WORD, txt.charAt(last)
+                );
+            }
+            if (!label && MarkdownTxtmark.in(
+                MarkdownTxtmark.URL_END, txt.charAt(last - 1)
+            )) {
+                end = last;
             }
-            result = builder.toString();
-        } else {
-            result = makeLineBreak(txt);
         }
-        return result;
+        return end;
     }
 
     /**
-     * Insert two spaces at the end of string that needs line break to
-     * force creation of HTML line break.
-     * @param txt Text to replace
-     * @return Text with Markdown-formatted line breaks
-     */
-    private static String makeLineBreak(final String txt) {
-        final StringBuffer result = new StringBuffer();
-        final Matcher matcher = MarkdownTxtmark.NEW_LINE.matcher(txt);
-        while (matcher.find()) {
-            if (!matcher.hitEnd()) {
-                matcher.appendReplacement(
-                    result,
-                    String.format(
-                        "%s  ", Matcher.quoteReplacement(matcher.group())
-                    )
-                );
-            }
+     * The position is right after "](", "]:" or "=\"", possibly
+     * followed by some spaces, which means that a link here is already
+     * a part of Markdown or HTML.
+     * @param txt Text
+     * @param pos Position to check
+     * @return TRUE if it is
+     */
+    private static boolean labeled(final CharSequence txt, final int pos) {
+        boolean labeled = MarkdownTxtmark.starts(txt, pos - 2, "=\"");
+        if (!labeled && pos > 0 && txt.charAt(pos - 1) == '(') {
+            final int gap = MarkdownTxtmark.spaces(txt, pos - 1);
+            labeled = gap <= MarkdownTxtmark.GAP
+                && MarkdownTxtmark.starts(txt, pos - gap - 2, "]");
+        }
+        if (!labeled) {
+            final int gap = MarkdownTxtmark.spaces(txt, pos);
+            labeled = gap <= MarkdownTxtmark.GAP
+                && MarkdownTxtmark.starts(txt, pos - gap - 2, "]:");
         }
-        matcher.appendTail(result);
-        return result.toString();
+        return labeled;
+    }
+
+    /**
+     * Count whitespace characters right before the position, but not
+     * more than one over the {@link #GAP}.
+     * @param txt Text
+     * @param pos Position
+     * @return How many of them
+     */
+    private static int spaces(final CharSequence txt, final int pos) {
+        int gap = 0;
+        while (gap <= MarkdownTxtmark.GAP && pos - gap > 0
+            && MarkdownTxtmark.space(txt.charAt(pos - gap - 1))) {
+            ++gap;
+        }
+        return gap;
     }
 
     /**
@@ -177,10 +205,375 @@ public final class MarkdownTxtmark implements Markdown {
      * @return Fixed text with correct code blocks.
      */
     private static String fixedCodeBlocks(final String txt) {
-        return MarkdownTxtmark.CODE_BLOCK_END.matcher(
-            MarkdownTxtmark.CODE_BLOCK_START
-            .matcher(txt)
-            .replaceAll("<pre><code>")
-        ).replaceAll("</code></pre>");
+        final StringBuilder out = new StringBuilder(txt.length());
+        int done = 0;
+        int pos = 0;
+        while (pos < txt.length()) {
+            final int eol = MarkdownTxtmark.eol(txt, pos, txt.length());
+            if (txt.startsWith(MarkdownTxtmark.BLOCK_START, pos)) {
+                out.append(txt, done, pos).append("<pre><code>");
+                pos += MarkdownTxtmark.BLOCK_START.length();
+                pos += MarkdownTxtmark.eol(txt, pos, txt.length());
+                done = pos;
+            } else if (txt.startsWith(MarkdownTxtmark.BLOCK_END, pos + eol)) {
+                out.append(txt, done, pos).append("</code></pre>");
+                pos += eol + MarkdownTxtmark.BLOCK_END.length();
+                done = pos;
+            } else {
+                ++pos;
+            }
+        }
+        return out.append(txt, done, txt.length()).toString();
+    }
+
+    /**
+     * Length of the EOL characters at the position.
+     * @param txt Text
+     * @param pos Position
+     * @param to Where the text ends
+     * @return Length of EOL, zero if there is no EOL at the position
+     */
+    private static int eol(final String txt, final int pos, final int to) {
+        int eol = 0;
+        if (pos < to) {
+            final char chr = txt.charAt(pos);
+            if (chr == '\r' && pos + 1 < to && txt.charAt(pos + 1) == '\n') {
+                eol = 2;
+            } else if (MarkdownTxtmark.eol(chr) || chr == '\u000B'
+                || chr == '\f') {
+                eol = 1;
+            }
+        }
+        return eol;
+    }
+
+    /**
+     * This is a line terminator.
+     * @param chr Character
+     * @return TRUE if it is
+     */
+    private static boolean eol(final char chr) {
+        return chr == '\n' || chr == '\r' || chr == '\u0085'
+            || chr == '\u2028' || chr == '\u2029';
+    }
+
+    /**
+     * This is a whitespace character.
+     * @param chr Character
+     * @return TRUE if it is
+     */
+    private static boolean space(final char chr) {
+        return chr == ' ' || chr == '\t' || chr == '\n' || chr == '\u000B'
+            || chr == '\f' || chr == '\r';
+    }
+
+    /**
+     * The text has the prefix at the position.
+     * @param txt Text
+     * @param pos Position
+     * @param prefix Prefix
+     * @return TRUE if it has
+     */
+    private static boolean starts(final CharSequence txt, final int pos,
+        final String prefix) {
+        boolean starts = pos >= 0
+            && pos + prefix.length() <= txt.length();
+        for (int idx = 0; starts && idx < prefix.length(); ++idx) {
+            starts = txt.charAt(pos + idx) == prefix.charAt(idx);
+        }
+        return starts;
+    }
+
+    /**
+     * The character is in the table.
+     * @param table Table made by {@link #table(String...)}
+     * @param chr Character
+     * @return TRUE if it is
+     */
+    private static boolean in(final boolean[] table, final char chr) {
+        return chr < table.length && table[chr];
+    }
+
+    /**
+     * Make a lookup table of ASCII characters.
+     * @param chars Characters to put into the table
+     * @return Table
+     */
+    private static boolean[] table(final String... chars) {
+        final boolean[] table = new boolean[Byte.MAX_VALUE + 1];
+        for (final String part : chars) {
+            for (final char chr : part.toCharArray()) {
+                table[chr] = true;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Scan of a text, which prepares it for TxtMark.
+     *
+     * <p>Code is marked with "```", "``" or "`", which are looked for in
+     * this order: the part of the text before the first "```" is split
+     * by "``", and the part before the first "``" by "`". Code that
+     * isn't closed is closed at the end of its part. Plain links are
+     * formatted everywhere. The text is walked only once, and the result
+     * goes straight into one buffer.</p>
+     *
+     * <p>Lines outside of code, except the last line of each part, get
+     * two spaces at the end, if they need a line break. We look for lines
+     * which have less than two spaces on their end because TxtMark
+     * automatically puts {@code <br/>} if the line has two or more spaces
+     * on its end and we should skip a line that starts with four or more
+     * spaces because it's a code block in markdown. Line separators
+     * U+0085, U+2028 and U+2029 are treated the way regular expression
+     * {@code ^ {0,3}(\S|(\S.*\S)) ?$} in multiline mode always treated
+     * them: they end a line, but they are not whitespace, so a line may
+     * start or end with one of them.</p>
+     */
+    private static final class Scan {
+        /**
+         * Text.
+         */
+        private final transient String txt;
+        /**
+         * Output.
+         */
+        private final transient StringBuilder out;
+        /**
+         * Index of the marker we split by now.
+         */
+        private transient int level;
+        /**
+         * Are we in code?
+         */
+        private transient boolean code;
+        /**
+         * Are we at the start of a line?
+         */
+        private transient boolean fresh = true;
+        /**
+         * Where the next line break goes, or -1.
+         */
+        private transient int brk = -1;
+        /**
+         * Position, where the next line to break may start.
+         */
+        private transient int resume;
+        /**
+         * Did we look at the end of the current part of the text?
+         */
+        private transient boolean hit;
+        /**
+         * Position in the text, where it is copied to the output up to.
+         */
+        private transient int done;
+        /**
+         * Ctor.
+         * @param text Text to scan
+         */
+        Scan(final String text) {
+            this.txt = text;
+            this.out = new StringBuilder(text.length() << 1);
+            this.level = MarkdownTxtmark.MARKERS.length - 1;
+        }
+        /**
+         * Prepare the text.
+         * @return Text, ready for TxtMark
+         */
+        public String prepare() {
+            int pos = 0;
+            while (pos < this.txt.length()) {
+                this.line(pos);
+                int next = this.marker(pos);
+                if (next < 0) {
+                    next = this.link(pos);
+                }
+                if (next < 0) {
+                    next = this.eol(pos);
+                }
+                if (next < 0) {
+                    next = pos + 1;
+                }
+                pos = next;
+            }
+            this.flush(this.txt.length());
+            this.close();
+            return this.out.toString();
+        }
+        /**
+         * Put the line break, which is due at the position, and find
+         * where the next one goes, if a line starts here.
+         * @param pos Position
+         */
+        private void line(final int pos) {
+            if (pos == this.brk) {
+                this.flush(pos);
+                this.out.append("  ");
+                this.brk = -1;
+            }
+            if (this.fresh && !this.code && pos >= this.resume) {
+                this.hit = false;
+                final int end = this.breaks(pos);
+                if (end >= 0) {
+                    this.resume = end;
+                    if (!this.hit) {
+                        this.brk = end;
+                    }
+                }
+            }
+            this.fresh = false;
+        }
+        /**
+         * Take the code marker at the position, if it's there.
+         * @param pos Position
+         * @return Position after the marker or -1 if there is none
+         */
+        private int marker(final int pos) {
+            int next = -1;
+            if (this.txt.charAt(pos) == '`') {
+                for (int idx = 0; next < 0 && idx <= this.level; ++idx) {
+                    final String marker = MarkdownTxtmark.MARKERS[idx];
+                    if (this.txt.startsWith(marker, pos)) {
+                        this.flush(pos);
+                        if (idx < this.level) {
+                            this.close();
+                            this.level = idx;
+                            this.code = false;
+                        }
+                        this.out.append(marker);
+                        this.code = !this.code;
+                        next = pos + marker.length();
+                        this.done = next;
+                        this.fresh = true;
+                        this.resume = next;
+                    }
+                }
+            }
+            return next;
+        }
+        /**
+         * Format the plain link at the position, if it's there.
+         * @param pos Position
+         * @return Position after the link or -1 if there is none
+         */
+        private int link(final int pos) {
+            final int end = MarkdownTxtmark.link(this.txt, pos);
+            if (end >= 0) {
+                this.flush(pos);
+                this.out.append('[').append(this.txt, pos, end)
+                    .append("](").append(this.txt, pos, end).append(')');
+                this.done = end;
+            }
+            return end;
+        }
+        /**
+         * Take the end of line at the position, if it's there.
+         * @param pos Position
+         * @return Position after the EOL or -1 if there is none
+         */
+        private int eol(final int pos) {
+            int next = -1;
+            if (MarkdownTxtmark.eol(this.txt.charAt(pos))) {
+                next = pos + MarkdownTxtmark.eol(
+                    this.txt, pos, this.txt.length()
+                );
+                this.fresh = true;
+            }
+            return next;
+        }
+        /**
+         * Find where the line, which starts at the position, needs
+         * a forced line break.
+         * @param start Start of the line
+         * @return Position of the line break or -1 if it doesn't need it
+         */
+        private int breaks(final int start) {
+            int first = start;
+            while (first - start < "   ".length() && !this.ends(first)
+                && this.txt.charAt(first) == ' ') {
+                ++first;
+            }
+            int end = -1;
+            if (this.solid(first)) {
+                end = this.tail(first + 1);
+                if (end < 0) {
+                    int last = first + 1;
+                    while (!this.ends(last)
+                        && !MarkdownTxtmark.eol(this.txt.charAt(last))) {
+                        ++last;
+                    }
+                    for (; end < 0 && last > first; --last) {
+                        if (this.solid(last)) {
+                            end = this.tail(last + 1);
+                        }
+                    }
+                }
+            }
+            return end;
+        }
+        /**
+         * Find the end of a line, which may have one space at the end.
+         * @param pos Position right after the last non-space character
+         * @return End of the line or -1 if it's not the end
+         */
+        private int tail(final int pos) {
+            int end = -1;
+            if (!this.ends(pos) && this.txt.charAt(pos) == ' '
+                && this.last(pos + 1)) {
+                end = pos + 1;
+            } else if (this.last(pos)) {
+                end = pos;
+            }
+            return end;
+        }
+        /**
+         * The line ends at the position.
+         * @param pos Position
+         * @return TRUE if it does
+         */
+        private boolean last(final int pos) {
+            return this.ends(pos) || MarkdownTxtmark.eol(this.txt.charAt(pos));
+        }
+        /**
+         * There is a non-whitespace character at the position.
+         * @param pos Position
+         * @return TRUE if there is
+         */
+        private boolean solid(final int pos) {
+            return !this.ends(pos)
+                && !MarkdownTxtmark.space(this.txt.charAt(pos));
+        }
+        /**
+         * The current part of the text ends at the position, where the
+         * text ends or the next marker starts.
+         * @param pos Position
+         * @return TRUE if it ends
+         */
+        private boolean ends(final int pos) {
+            final boolean ends = pos >= this.txt.length()
+                || this.txt.charAt(pos) == '`' && this.txt.startsWith(
+                    MarkdownTxtmark.MARKERS[this.level], pos
+                );
+            if (ends) {
+                this.hit = true;
+            }
+            return ends;
+        }
+        /**
+         * Copy the text to the output, up to the position.
+         * @param pos Position
+         */
+        private void flush(final int pos) {
+            this.out.append(this.txt, this.done, pos);
+            this.done = pos;
+        }
+        /**
+         * Close the code, if it's open.
+         */
+        private void close() {
+            if (this.code) {
+                this.out.append(MarkdownTxtmark.MARKERS[this.level]);
+            }
+        }
     }
 }
@@ -0,0 +1,318 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.jcabi.aspects.Tv;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Latency and status metrics of routes.
+ *
+ * <p>Latencies are counted in log-linear buckets, four per power of two
+ * of microseconds, the way HdrHistogram does it, so any percentile is
+ * known with precision of about 12%. Recording is a few atomic
+ * increments, without locks and without allocations. A route without
+ * finished requests has no percentiles, they are printed as NaN.
+ * Metrics are printed in Prometheus text exposition format.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@ToString
+@EqualsAndHashCode
+public final class Metrics {
+
+    /**
+     * Percentiles to print.
+     */
+    private static final double[] QUANTILES = {0.5d, 0.9d, 0.99d, 0.999d};
+
+    /**
+     * Routes, by name.
+     */
+    private static final ConcurrentMap<String, Metrics.Route> ROUTES =
+        new ConcurrentSkipListMap<>();
+
+    /**
+     * Get route, registering it if necessary.
+     * @param name Name of the route
+     * @return Route
+     */
+    public Metrics.Route route(final String name) {
+        Metrics.Route route = Metrics.ROUTES.get(name);
+        if (route == null) {
+            Metrics.ROUTES.putIfAbsent(name, new Metrics.Route());
+            route = Metrics.ROUTES.get(name);
+        }
+        return route;
+    }
+
+    /**
+     * Print all metrics in Prometheus text format.
+     * @return Text
+     */
+    public String print() {
+        final StringBuilder text = new StringBuilder(Tv.THOUSAND)
+            .append("# HELP netbout_request_seconds Latency of requests\n")
+            .append("# TYPE netbout_request_seconds summary\n");
+        for (final Map.Entry<String, Metrics.Route> ent
+            : Metrics.ROUTES.entrySet()) {
+            final String label = Metrics.label(ent.getKey());
+            final Metrics.Route route = ent.getValue();
+            for (final double quantile : Metrics.QUANTILES) {
+                text.append(
+                    String.format(
+                        Locale.ENGLISH,
+                        "netbout_request_seconds{%s,quantile=\"%s\"} %f\n",
+                        label, quantile, route.quantile(quantile)
+                    )
+                );
+            }
+            text.append(
+                String.format(
+                    Locale.ENGLISH,
+                    "netbout_request_seconds_sum{%s} %f\n",
+                    label, Metrics.seconds(route.sum.get())
+                )
+            ).append(
+                String.format(
+                    Locale.ENGLISH,
+                    "netbout_request_seconds_count{%s} %d\n",
+                    label, route.count()
+                )
+            );
+        }
+        text.append("# HELP netbout_responses_total Responses by status\n")
+            .append("# TYPE netbout_responses_total counter\n");
+        for (final Map.Entry<String, Metrics.Route> ent
+            : Metrics.ROUTES.entrySet()) {
+            final AtomicLongArray statuses = ent.getValue().statuses;
+            for (int idx = 1; idx < statuses.length(); ++idx) {
+                text.append(
+                    String.format(
+                        Locale.ENGLISH,
+                        "netbout_responses_total{%s,code=\"%dxx\"} %d\n",
+                        Metrics.label(ent.getKey()), idx, statuses.get(idx)
+                    )
+                );
+            }
+        }
+        text.append("# HELP netbout_requests_in_flight Requests in work\n")
+            .append("# TYPE netbout_requests_in_flight gauge\n");
+        for (final Map.Entry<String, Metrics.Route> ent
+            : Metrics.ROUTES.entrySet()) {
+            text.append(
+                String.format(
+                    Locale.ENGLISH,
+                    "netbout_requests_in_flight{%s} %d\n",
+                    Metrics.label(ent.getKey()),
+                    ent.getValue().flight()
+                )
+            );
+        }
+        return text.toString();
+    }
+
+    /**
+     * Make a label of the route.
+     * @param name Name of the route
+     * @return Label
+     */
+    private static String label(final String name) {
+        return String.format(
+            "route=\"%s\"",
+            name.replace("\\", "\\\\").replace("\"", "\\\"")
+        );
+    }
+
+    /**
+     * Convert microseconds to seconds.
+     * @param micros Microseconds
+     * @return Seconds
+     */
+    private static double seconds(final long micros) {
+        return (double) micros / (double) TimeUnit.SECONDS.toMicros(1L);
+    }
+
+    /**
+     * Metrics of one route.
+     */
+    public static final class Route {
+        /**
+         * Sub-buckets per power of two.
+         */
+        private static final int SUB = 4;
+        /**
+         * Counters of latencies, by bucket.
+         */
+        private final transient AtomicLongArray buckets =
+            new AtomicLongArray(Tv.HUNDRED + Tv.FORTY);
+        /**
+         * Counters of responses, by first digit of the status.
+         */
+        private final transient AtomicLongArray statuses =
+            new AtomicLongArray(Tv.SIX);
+        /**
+         * Total latency, in microseconds.
+         */
+        private final transient AtomicLong sum = new AtomicLong();
+        /**
+         * Requests in work now.
+         */
+        private final transient AtomicLong flights = new AtomicLong();
+        /**
+         * A request started.
+         *
+         * <p>Every started request must be finished exactly once,
+         * through {@link #finish(int, long)}.</p>
+         *
+         * @return When it started, in nanoseconds
+         */
+        public long start() {
+            this.flights.incrementAndGet();
+            return System.nanoTime();
+        }
+        /**
+         * A request finished.
+         * @param status HTTP status of the response
+         * @param nanos How long it took, in nanoseconds
+         */
+        public void finish(final int status, final long nanos) {
+            this.flights.decrementAndGet();
+            this.record(status, nanos);
+        }
+        /**
+         * Requests in work now.
+         * @return Count
+         */
+        public long flight() {
+            return this.flights.get();
+        }
+        /**
+         * Record a finished request.
+         * @param status HTTP status of the response
+         * @param nanos How long it took, in nanoseconds
+         */
+        private void record(final int status, final long nanos) {
+            final long micros = Math.max(
+                0L, TimeUnit.NANOSECONDS.toMicros(nanos)
+            );
+            this.buckets.incrementAndGet(
+                Math.min(
+                    Metrics.Route.bucket(micros), this.buckets.length() - 1
+                )
+            );
+            this.sum.addAndGet(micros);
+            final int idx = status / Tv.HUNDRED;
+            if (idx > 0 && idx < this.statuses.length()) {
+                this.statuses.incrementAndGet(idx);
+            }
+        }
+        /**
+         * Total number of finished requests.
+         * @return Count
+         */
+        public long count() {
+            long count = 0L;
+            for (int idx = 0; idx < this.buckets.length(); ++idx) {
+                count += this.buckets.get(idx);
+            }
+            return count;
+        }
+        /**
+         * Latency below which the given part of requests finished.
+         * @param part Part of requests, between zero and one
+         * @return Seconds, or NaN if nothing finished yet
+         */
+        public double quantile(final double part) {
+            final long count = this.count();
+            double seconds = Double.NaN;
+            if (count > 0L) {
+                final long target = Math.max(
+                    1L, (long) Math.ceil(part * (double) count)
+                );
+                long seen = 0L;
+                int idx = 0;
+                while (idx < this.buckets.length() - 1) {
+                    seen += this.buckets.get(idx);
+                    if (seen >= target) {
+                        break;
+                    }
+                    ++idx;
+                }
+                seconds = Metrics.seconds(Metrics.Route.upper(idx));
+            }
+            return seconds;
+        }
+        /**
+         * Bucket of the latency.
+         * @param micros Latency, in microseconds
+         * @return Index of the bucket
+         */
+        private static int bucket(final long micros) {
+            final int bucket;
+            if (micros < (long) Metrics.Route.SUB) {
+                bucket = (int) micros;
+            } else {
+                final int exp = Long.SIZE - 1
+                    - Long.numberOfLeadingZeros(micros);
+                final long sub = micros >> (exp - 2)
+                    & (long) (Metrics.Route.SUB - 1);
+                bucket = (exp - 1) * Metrics.Route.SUB + (int) sub;
+            }
+            return bucket;
+        }
+        /**
+         * Upper bound of the bucket, exclusive.
+         * @param bucket Index of the bucket
+         * @return Microseconds
+         */
+        private static long upper(final int bucket) {
+            final long upper;
+            if (bucket < Metrics.Route.SUB) {
+                upper = (long) bucket + 1L;
+            } else {
+                final int exp = bucket / Metrics.Route.SUB + 1;
+                upper = (long) (Metrics.Route.SUB + 1
+                    + bucket % Metrics.Route.SUB) << (exp - 2);
+            }
+            return upper;
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.takes.Response;
+
+/**
+ * Response that tells when it's finished.
+ *
+ * <p>Most of our responses render their bodies lazily, that's why
+ * the response is finished only when its body is read to the end or
+ * closed. It is also finished, as a broken one, when its head or body
+ * can't be read. The callback is called only once.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+final class RsFinished implements Response {
+
+    /**
+     * Original response.
+     */
+    private final transient Response origin;
+
+    /**
+     * Callback.
+     */
+    private final transient RsFinished.Callback callback;
+
+    /**
+     * Is it finished already?
+     */
+    private final transient AtomicBoolean done = new AtomicBoolean();
+
+    /**
+     * Ctor.
+     * @param response Original response
+     * @param cbk Callback
+     */
+    RsFinished(final Response response, final RsFinished.Callback cbk) {
+        this.origin = response;
+        this.callback = cbk;
+    }
+
+    @Override
+    public Iterable<String> head() throws IOException {
+        try {
+            return this.origin.head();
+        } catch (final IOException | RuntimeException ex) {
+            this.finish(true);
+            throw ex;
+        }
+    }
+
+    @Override
+    public InputStream body() throws IOException {
+        try {
+            return new RsFinished.Stream(this.origin.body(), this);
+        } catch (final IOException | RuntimeException ex) {
+            this.finish(true);
+            throw ex;
+        }
+    }
+
+    /**
+     * Finish the response, only once.
+     * @param broken TRUE if it failed
+     */
+    private void finish(final boolean broken) {
+        if (this.done.compareAndSet(false, true)) {
+            this.callback.finished(broken);
+        }
+    }
+
+    /**
+     * Callback.
+     */
+    interface Callback {
+        /**
+         * The response is finished.
+         * @param broken TRUE if its head or body failed
+         */
+        void finished(boolean broken);
+    }
+
+    /**
+     * Stream that finishes the response, when it's read or closed.
+     */
+    private static final class Stream extends FilterInputStream {
+        /**
+         * The response.
+         */
+        private final transient RsFinished response;
+        /**
+         * Ctor.
+         * @param stream Original stream
+         * @param rsp The response
+         */
+        Stream(final InputStream stream, final RsFinished rsp) {
+            super(stream);
+            this.response = rsp;
+        }
+        @Override
+        public int read() throws IOException {
+            try {
+                final int data = super.read();
+                if (data < 0) {
+                    this.response.finish(false);
+                }
+                return data;
+            } catch (final IOException | RuntimeException ex) {
+                this.response.finish(true);
+                throw ex;
+            }
+        }
+        @Override
+        public int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            try {
+                final int done = super.read(buf, off, len);
+                if (done < 0) {
+                    this.response.finish(false);
+                }
+                return done;
+            } catch (final IOException | RuntimeException ex) {
+                this.response.finish(true);
+                throw ex;
+            }
+        }
+        @Override
+        public void close() throws IOException {
+            this.response.finish(false);
+            super.close();
+        }
+    }
+
+}
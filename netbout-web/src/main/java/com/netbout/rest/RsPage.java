@@ -27,8 +27,28 @@
 package com.netbout.rest;
 
 import com.netbout.spi.Base;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
 import lombok.EqualsAndHashCode;
 import org.takes.Request;
 import org.takes.Response;
@@ -37,25 +57,68 @@ import org.takes.facets.fork.Fork;
 import org.takes.facets.fork.RsFork;
 import org.takes.misc.Opt;
 import org.takes.rq.RqHeaders;
-import org.takes.rs.RsPrettyXML;
+import org.takes.rs.RsWithStatus;
 import org.takes.rs.RsWithType;
 import org.takes.rs.RsWrap;
-import org.takes.rs.RsXSLT;
-import org.takes.rs.xe.RsXembly;
+import org.takes.rs.xe.XeChain;
 import org.takes.rs.xe.XeSource;
 import org.takes.rs.xe.XeStylesheet;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xembly.ImpossibleModificationException;
+import org.xembly.Xembler;
 
 /**
  * Index resource, front page of the website.
  *
+ * <p>The page is built as a DOM only once, when its body is requested,
+ * and then either written as XML through a StAX writer, or given to
+ * XSL transformation as is, without serializing and parsing it again.
+ * XML is pretty printed only in development.</p>
+ *
+ * <p>XML is streamed: the DOM is walked without recursion, a few nodes
+ * at a time, each time takes reads the body, so the first bytes go to
+ * the socket right after the DOM is built and only a small chunk of the
+ * text is in memory at once. XSL transformation can't be paused half
+ * way, that's why HTML is still rendered into memory before it goes to
+ * the socket; the buffer is handed over as is, without copying it once
+ * again.</p>
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.14
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
  */
 @EqualsAndHashCode(callSuper = true)
+@SuppressWarnings("PMD.ExcessiveImports")
 public final class RsPage extends RsWrap {
 
+    /**
+     * Pretty print XML, which we do only when sources are around,
+     * that is in development.
+     */
+    private static final boolean PRETTY =
+        new File("./netbout-web/src/main/xsl").exists();
+
+    /**
+     * DOM factory, it is not thread-safe.
+     */
+    private static final DocumentBuilderFactory DOMS =
+        DocumentBuilderFactory.newInstance();
+
+    /**
+     * StAX factory, which declares namespaces when necessary.
+     */
+    private static final XMLOutputFactory STAX = RsPage.stax();
+
+    /**
+     * Factory of identity transformers, it is not thread-safe.
+     */
+    private static final TransformerFactory IDENTITY =
+        TransformerFactory.newInstance();
+
     /**
      * Ctor.
      * @param xsl XSL
@@ -82,41 +145,407 @@ public final class RsPage extends RsWrap {
      */
     private static Response make(final String xsl, final Base base,
         final Request req, final XeSource... src) throws IOException {
-        final Response xbl = new RsXembly(
-            new XeStylesheet(xsl),
-            new XePage(base, req, src)
+        final RsPage.Dom dom = new RsPage.Dom(
+            new XeChain(
+                new XeStylesheet(xsl),
+                new XePage(base, req, src)
+            )
         );
-        final Response raw = new RsWithType(xbl, "text/xml");
-        return new RsPrettyXML(
-            new RsFork(
-                req,
-                new Fork() {
-                    @Override
-                    public Opt<Response> route(final Request rst)
-                        throws IOException {
-                        final RqHeaders hdr = new RqHeaders.Base(rst);
-                        final Iterator<String> agent =
-                            hdr.header("User-Agent").iterator();
-                        final Opt<Response> opt;
-                        if (agent.hasNext()
-                            && agent.next().contains("Firefox")) {
-                            // @checkstyle MultipleStringLiteralsCheck (3 line)
-                            opt = new Opt.Single<Response>(
-                                new RsXSLT(new RsWithType(raw, "text/html"))
-                            );
-                        } else {
-                            opt = new Opt.Empty<>();
-                        }
-                        return opt;
+        final Response raw = RsPage.xml(dom);
+        final Response html = RsPage.html(dom, xsl);
+        return new RsFork(
+            req,
+            new Fork() {
+                @Override
+                public Opt<Response> route(final Request rst)
+                    throws IOException {
+                    final RqHeaders hdr = new RqHeaders.Base(rst);
+                    final Iterator<String> agent =
+                        hdr.header("User-Agent").iterator();
+                    final Opt<Response> opt;
+                    if (agent.hasNext()
+                        && agent.next().contains("Firefox")) {
+                        opt = new Opt.Single<Response>(html);
+                    } else {
+                        opt = new Opt.Empty<>();
                     }
-                },
-                new FkTypes("application/xml,text/xml", raw),
-                new FkTypes(
-                    "*/*",
-                    new RsXSLT(new RsWithType(raw, "text/html"))
-                )
-            )
+                    return opt;
+                }
+            },
+            new FkTypes("application/xml,text/xml", raw),
+            new FkTypes("*/*", html)
+        );
+    }
+
+    /**
+     * Render XML.
+     * @param dom DOM of the page
+     * @return Response with XML
+     */
+    private static Response xml(final RsPage.Dom dom) {
+        final Response typed = new RsWithType(
+            new RsWithStatus(HttpURLConnection.HTTP_OK), "text/xml"
         );
+        return new Response() {
+            @Override
+            public Iterable<String> head() throws IOException {
+                return typed.head();
+            }
+            @Override
+            public InputStream body() throws IOException {
+                final InputStream body;
+                if (RsPage.PRETTY) {
+                    body = RsPage.pretty(dom);
+                } else {
+                    body = new RsPage.Pull(dom);
+                }
+                return body;
+            }
+        };
+    }
+
+    /**
+     * Render HTML on server side, with a compiled stylesheet.
+     * @param dom DOM of the page
+     * @param xsl XSL
+     * @return Response with HTML
+     */
+    private static Response html(final RsPage.Dom dom, final String xsl) {
+        final Response typed = new RsWithType(
+            new RsWithStatus(HttpURLConnection.HTTP_OK), "text/html"
+        );
+        return new Response() {
+            @Override
+            public Iterable<String> head() throws IOException {
+                return typed.head();
+            }
+            @Override
+            public InputStream body() throws IOException {
+                final RsPage.Buffer baos = new RsPage.Buffer();
+                final Writer writer = new OutputStreamWriter(
+                    baos, StandardCharsets.UTF_8
+                );
+                new Stylesheets().transform(
+                    xsl, new DOMSource(dom.node()), new StreamResult(writer)
+                );
+                writer.flush();
+                return baos.input();
+            }
+        };
+    }
+
+    /**
+     * Render pretty printed XML into memory, for development.
+     * @param dom DOM of the page
+     * @return XML
+     * @throws IOException If fails
+     */
+    private static InputStream pretty(final RsPage.Dom dom)
+        throws IOException {
+        final RsPage.Buffer baos = new RsPage.Buffer();
+        final Transformer identity;
+        try {
+            synchronized (RsPage.IDENTITY) {
+                identity = RsPage.IDENTITY.newTransformer();
+            }
+            identity.setOutputProperty(OutputKeys.INDENT, "yes");
+            identity.transform(
+                new DOMSource(dom.node()), new StreamResult(baos)
+            );
+        } catch (final TransformerException ex) {
+            throw new IOException(ex);
+        }
+        return baos.input();
+    }
+
+    /**
+     * Write start tag of the element, with its namespace and attributes.
+     * @param node The element
+     * @param writer The writer
+     * @throws XMLStreamException If fails
+     */
+    private static void start(final Node node, final XMLStreamWriter writer)
+        throws XMLStreamException {
+        if (node.getNamespaceURI() == null) {
+            writer.writeStartElement(node.getNodeName());
+        } else {
+            writer.writeStartElement(
+                RsPage.prefix(node), node.getLocalName(),
+                node.getNamespaceURI()
+            );
+        }
+        final NamedNodeMap attrs = node.getAttributes();
+        for (int pos = 0; pos < attrs.getLength(); ++pos) {
+            final Node attr = attrs.item(pos);
+            final String name = attr.getNodeName();
+            if ("xmlns".equals(name)) {
+                writer.writeDefaultNamespace(attr.getNodeValue());
+            } else if (name.startsWith("xmlns:")) {
+                writer.writeNamespace(
+                    name.substring(name.indexOf(':') + 1),
+                    attr.getNodeValue()
+                );
+            } else if (attr.getNamespaceURI() == null) {
+                writer.writeAttribute(name, attr.getNodeValue());
+            } else {
+                writer.writeAttribute(
+                    RsPage.prefix(attr), attr.getNamespaceURI(),
+                    attr.getLocalName(), attr.getNodeValue()
+                );
+            }
+        }
+    }
+
+    /**
+     * Prefix of the node, or empty if it has none.
+     * @param node The node
+     * @return Prefix
+     */
+    private static String prefix(final Node node) {
+        String prefix = node.getPrefix();
+        if (prefix == null) {
+            prefix = "";
+        }
+        return prefix;
+    }
+
+    /**
+     * Make StAX factory.
+     * @return Factory
+     */
+    private static XMLOutputFactory stax() {
+        final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+        factory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
+        return factory;
+    }
+
+    /**
+     * Buffer, which can be read without copying.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        /**
+         * Read what is written.
+         * @return Stream
+         */
+        public InputStream input() {
+            synchronized (this) {
+                return new ByteArrayInputStream(this.buf, 0, this.count);
+            }
+        }
+        /**
+         * Copy written bytes out.
+         * @param pos Position to copy from
+         * @param dest Where to copy to
+         * @param off Offset in the destination
+         * @param len How many bytes to copy
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        public void copy(final int pos, final byte[] dest, final int off,
+            final int len) {
+            synchronized (this) {
+                System.arraycopy(this.buf, pos, dest, off, len);
+            }
+        }
+    }
+
+    /**
+     * XML of the page, written by StAX a few nodes at a time, when
+     * it is read.
+     */
+    private static final class Pull extends InputStream {
+        /**
+         * How many nodes to write at once.
+         */
+        private static final int NODES = 64;
+        /**
+         * DOM of the page.
+         */
+        private final transient RsPage.Dom dom;
+        /**
+         * Bytes written, but not read yet.
+         */
+        private final transient RsPage.Buffer buffer = new RsPage.Buffer();
+        /**
+         * StAX writer, when it is started.
+         */
+        private transient XMLStreamWriter writer;
+        /**
+         * Next node to write, or NULL when all of them are written.
+         */
+        private transient Node cursor;
+        /**
+         * Position of the next byte to read in the buffer.
+         */
+        private transient int pos;
+        /**
+         * Is the document written to the end?
+         */
+        private transient boolean done;
+        /**
+         * Ctor.
+         * @param page DOM of the page
+         */
+        Pull(final RsPage.Dom page) {
+            super();
+            this.dom = page;
+        }
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            int data = -1;
+            if (this.read(one, 0, 1) > 0) {
+                // @checkstyle MagicNumber (1 line)
+                data = one[0] & 0xff;
+            }
+            return data;
+        }
+        @Override
+        public int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            while (this.pos >= this.buffer.size() && !this.done) {
+                this.fill();
+            }
+            final int total = Math.min(len, this.buffer.size() - this.pos);
+            int read = -1;
+            if (total > 0) {
+                this.buffer.copy(this.pos, buf, off, total);
+                this.pos += total;
+                read = total;
+            } else if (len == 0) {
+                read = 0;
+            }
+            return read;
+        }
+        /**
+         * Write next few nodes into the empty buffer.
+         * @throws IOException If fails
+         */
+        private void fill() throws IOException {
+            this.buffer.reset();
+            this.pos = 0;
+            try {
+                if (this.writer == null) {
+                    this.writer = RsPage.STAX.createXMLStreamWriter(
+                        this.buffer, StandardCharsets.UTF_8.name()
+                    );
+                    this.writer.writeStartDocument(
+                        StandardCharsets.UTF_8.name(), "1.0"
+                    );
+                    this.cursor = this.dom.node().getFirstChild();
+                }
+                for (int idx = 0; idx < RsPage.Pull.NODES
+                    && this.cursor != null; ++idx) {
+                    this.step();
+                }
+                if (this.cursor == null) {
+                    this.writer.writeEndDocument();
+                    this.writer.close();
+                    this.done = true;
+                } else {
+                    this.writer.flush();
+                }
+            } catch (final XMLStreamException ex) {
+                throw new IOException(ex);
+            }
+        }
+        /**
+         * Write the node at the cursor and move the cursor forward.
+         * @throws XMLStreamException If fails
+         */
+        private void step() throws XMLStreamException {
+            final Node node = this.cursor;
+            boolean down = false;
+            switch (node.getNodeType()) {
+                case Node.ELEMENT_NODE:
+                    RsPage.start(node, this.writer);
+                    if (node.hasChildNodes()) {
+                        this.cursor = node.getFirstChild();
+                        down = true;
+                    } else {
+                        this.writer.writeEndElement();
+                    }
+                    break;
+                case Node.TEXT_NODE:
+                    this.writer.writeCharacters(node.getNodeValue());
+                    break;
+                case Node.CDATA_SECTION_NODE:
+                    this.writer.writeCData(node.getNodeValue());
+                    break;
+                case Node.PROCESSING_INSTRUCTION_NODE:
+                    this.writer.writeProcessingInstruction(
+                        node.getNodeName(), node.getNodeValue()
+                    );
+                    break;
+                case Node.COMMENT_NODE:
+                    this.writer.writeComment(node.getNodeValue());
+                    break;
+                default:
+                    break;
+            }
+            if (!down) {
+                this.next(node);
+            }
+        }
+        /**
+         * Move the cursor to the node after this one, closing elements
+         * on the way up.
+         * @param node The node, which is written
+         * @throws XMLStreamException If fails
+         */
+        private void next(final Node node) throws XMLStreamException {
+            Node here = node;
+            while (here.getNextSibling() == null
+                && here.getParentNode().getNodeType() == Node.ELEMENT_NODE) {
+                here = here.getParentNode();
+                this.writer.writeEndElement();
+            }
+            this.cursor = here.getNextSibling();
+        }
+    }
+
+    /**
+     * DOM of the page, built on first request.
+     */
+    private static final class Dom {
+        /**
+         * Source of the page.
+         */
+        private final transient XeSource source;
+        /**
+         * The document, when it is built.
+         */
+        private transient Document document;
+        /**
+         * Ctor.
+         * @param src Source of the page
+         */
+        Dom(final XeSource src) {
+            this.source = src;
+        }
+        /**
+         * Get the document.
+         * @return Document
+         * @throws IOException If fails
+         */
+        public Document node() throws IOException {
+            synchronized (this.source) {
+                if (this.document == null) {
+                    final DocumentBuilder builder;
+                    try {
+                        synchronized (RsPage.DOMS) {
+                            builder = RsPage.DOMS.newDocumentBuilder();
+                        }
+                        final Document doc = builder.newDocument();
+                        new Xembler(this.source.toXembly()).apply(doc);
+                        this.document = doc;
+                    } catch (final ParserConfigurationException
+                        | ImpossibleModificationException ex) {
+                        throw new IOException(ex);
+                    }
+                }
+                return this.document;
+            }
+        }
     }
 
 }
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.jcabi.aspects.Tv;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.xml.transform.Result;
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.URIResolver;
+import javax.xml.transform.stream.StreamSource;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Compiled XSL stylesheets from classpath.
+ *
+ * <p>Every stylesheet is compiled once, on first use, and stays in
+ * memory until {@link #flush()}, together with all documents it loads
+ * from classpath. Every stylesheet has its own pool of transformers,
+ * since a transformer can't be used by two threads at the same time,
+ * but can be reused after {@link Transformer#reset()}. A pool keeps not
+ * more than {@link #IDLE} idle transformers, which is the number of
+ * worker threads of the server, extra ones are dropped.</p>
+ *
+ * <p>All instances share the same storage.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@ToString
+@EqualsAndHashCode
+final class Stylesheets {
+
+    /**
+     * Maximum number of idle transformers of a stylesheet.
+     */
+    private static final int IDLE = Tv.FIFTY;
+
+    /**
+     * Classpath resources, by path.
+     */
+    private static final ConcurrentMap<String, byte[]> RESOURCES =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Resolver of URIs.
+     */
+    private static final URIResolver RESOLVER = new Stylesheets.Classpath();
+
+    /**
+     * Factory, it is not thread-safe.
+     */
+    private static final TransformerFactory FACTORY = Stylesheets.factory();
+
+    /**
+     * Pools of transformers, by stylesheet path.
+     */
+    private static final ConcurrentMap<String, Stylesheets.Pool> POOLS =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Transform.
+     * @param xsl Path of the stylesheet in classpath
+     * @param xml Source to transform
+     * @param result Where to save the result
+     * @throws IOException If fails
+     */
+    public void transform(final String xsl, final Source xml,
+        final Result result) throws IOException {
+        final Stylesheets.Pool pool = Stylesheets.pool(xsl);
+        final Transformer transformer = pool.take();
+        try {
+            transformer.transform(xml, result);
+        } catch (final TransformerException ex) {
+            throw new IOException(ex);
+        } finally {
+            pool.release(transformer);
+        }
+    }
+
+    /**
+     * Forget all compiled stylesheets and loaded documents.
+     */
+    public void flush() {
+        Stylesheets.POOLS.clear();
+        Stylesheets.RESOURCES.clear();
+    }
+
+    /**
+     * Get a pool for the stylesheet, compiling it if necessary.
+     * @param xsl Path of the stylesheet
+     * @return Pool
+     * @throws IOException If fails
+     */
+    private static Stylesheets.Pool pool(final String xsl) throws IOException {
+        Stylesheets.Pool pool = Stylesheets.POOLS.get(xsl);
+        if (pool == null) {
+            final Templates templates;
+            try {
+                synchronized (Stylesheets.FACTORY) {
+                    templates = Stylesheets.FACTORY.newTemplates(
+                        Stylesheets.RESOLVER.resolve(xsl, "")
+                    );
+                }
+            } catch (final TransformerException ex) {
+                throw new IOException(ex);
+            }
+            pool = new Stylesheets.Pool(templates, Stylesheets.IDLE);
+            final Stylesheets.Pool before =
+                Stylesheets.POOLS.putIfAbsent(xsl, pool);
+            if (before != null) {
+                pool = before;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Make a factory.
+     * @return Factory
+     */
+    private static TransformerFactory factory() {
+        final TransformerFactory factory = TransformerFactory.newInstance();
+        factory.setURIResolver(Stylesheets.RESOLVER);
+        return factory;
+    }
+
+    /**
+     * Pool of transformers of one stylesheet.
+     */
+    static final class Pool {
+        /**
+         * Compiled stylesheet.
+         */
+        private final transient Templates templates;
+        /**
+         * Transformers ready to be used.
+         */
+        private final transient Queue<Transformer> idle;
+        /**
+         * Ctor.
+         * @param tpls Compiled stylesheet
+         * @param max Maximum number of idle transformers
+         */
+        Pool(final Templates tpls, final int max) {
+            this.templates = tpls;
+            this.idle = new ArrayBlockingQueue<>(max);
+        }
+        /**
+         * Take a transformer out of the pool.
+         * @return Transformer
+         * @throws IOException If fails
+         */
+        public Transformer take() throws IOException {
+            Transformer transformer = this.idle.poll();
+            if (transformer == null) {
+                try {
+                    transformer = this.templates.newTransformer();
+                } catch (final TransformerConfigurationException ex) {
+                    throw new IOException(ex);
+                }
+                transformer.setURIResolver(Stylesheets.RESOLVER);
+            }
+            return transformer;
+        }
+        /**
+         * Return the transformer back to the pool, unless the pool
+         * is full.
+         * @param transformer Transformer
+         */
+        public void release(final Transformer transformer) {
+            transformer.reset();
+            transformer.setURIResolver(Stylesheets.RESOLVER);
+            this.idle.offer(transformer);
+        }
+    }
+
+    /**
+     * Resolver of URIs in classpath, which keeps loaded documents.
+     */
+    private static final class Classpath implements URIResolver {
+        @Override
+        public Source resolve(final String href, final String base)
+            throws TransformerException {
+            final URI uri;
+            if (base == null || base.isEmpty()) {
+                uri = URI.create(href);
+            } else {
+                uri = URI.create(base).resolve(href);
+            }
+            final String path = uri.getPath();
+            byte[] bytes = Stylesheets.RESOURCES.get(path);
+            if (bytes == null) {
+                bytes = Stylesheets.Classpath.load(path);
+                Stylesheets.RESOURCES.put(path, bytes);
+            }
+            return new StreamSource(new ByteArrayInputStream(bytes));
+        }
+        /**
+         * Load resource from classpath.
+         * @param path Path of it
+         * @return Content
+         * @throws TransformerException If not found
+         */
+        private static byte[] load(final String path)
+            throws TransformerException {
+            final InputStream input =
+                Stylesheets.class.getResourceAsStream(path);
+            if (input == null) {
+                throw new TransformerException(
+                    String.format("resource \"%s\" not found", path)
+                );
+            }
+            try {
+                return IOUtils.toByteArray(input);
+            } catch (final IOException ex) {
+                throw new TransformerException(ex);
+            } finally {
+                IOUtils.closeQuietly(input);
+            }
+        }
+    }
+
+}
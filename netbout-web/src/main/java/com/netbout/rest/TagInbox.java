@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.google.common.collect.Iterables;
+import com.netbout.spi.Base;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Inbox;
+import java.io.IOException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.takes.Request;
+import org.takes.rq.RqHref;
+
+/**
+ * Tag of the inbox page.
+ *
+ * <p>The list of bouts is read from the origin, since it is what
+ * tells about new bouts and their order, while everything else in the
+ * tag comes from the values the cached layer keeps for each bout.
+ * Search results are not tagged.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+final class TagInbox implements TkNotModified.Tag {
+
+    /**
+     * Base.
+     */
+    private final transient Base base;
+
+    /**
+     * Ctor.
+     * @param bse Base
+     */
+    TagInbox(final Base bse) {
+        this.base = bse;
+    }
+
+    @Override
+    public String tag(final Request req) throws IOException {
+        final RqHref.Smart href = new RqHref.Smart(new RqHref.Base(req));
+        final long since = NumberUtils.toLong(
+            href.single("since", Long.toString(Inbox.NEVER)), -1L
+        );
+        final StringBuilder tag = new StringBuilder(0);
+        if (StringUtils.isBlank(href.single("q", ""))
+            && since >= 0L) {
+            tag.append(new TagAlias(this.base).tag(req));
+            final Inbox inbox = new RqAlias(this.base, req).alias().inbox();
+            final Iterable<Bout> bouts = Iterables.limit(
+                inbox.jump(since).iterate(), Inbox.PAGE
+            );
+            for (final Bout bout : bouts) {
+                tag.append('\n')
+                    .append(bout.number()).append(' ')
+                    .append(bout.updated().getTime()).append(' ')
+                    .append(bout.messages().unread()).append(' ')
+                    .append(bout.attachments().unseen()).append(' ')
+                    .append(bout.subscription()).append(' ')
+                    .append(bout.title());
+                for (final Friend friend : bout.friends().iterate()) {
+                    tag.append(' ').append(friend.alias());
+                }
+            }
+        }
+        return tag.toString();
+    }
+
+}
@@ -35,6 +35,7 @@ import com.netbout.spi.Base;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import org.takes.Request;
 import org.takes.Response;
@@ -48,6 +49,7 @@ import org.takes.facets.fork.FkFixed;
 import org.takes.facets.fork.FkHitRefresh;
 import org.takes.facets.fork.FkParams;
 import org.takes.facets.fork.FkRegex;
+import org.takes.facets.fork.Fork;
 import org.takes.facets.fork.TkFork;
 import org.takes.facets.forward.TkForward;
 import org.takes.facets.ret.RsReturn;
@@ -137,10 +139,14 @@ public final class TkApp extends TkWrap {
         return new TkWithHeaders(
             new TkVersioned(
                 new TkMeasured(
-                    new TkFlash(
-                        new TkAppFallback(
-                            new TkForward(auth)
-                        )
+                    new TkTraced(
+                        new TkFlash(
+                            new TkAppFallback(
+                                new TkForward(auth)
+                            )
+                        ),
+                        TimeUnit.SECONDS.toMillis(1L),
+                        "/events"
                     )
                 )
             ),
@@ -163,46 +169,46 @@ public final class TkApp extends TkWrap {
                 new TkRedirect()
             ),
             new FkRegex("/robots.txt", ""),
-            new FkRegex(
+            TkApp.route(
                 "/xsl/[a-z\\-]+\\.xsl",
                 new TkWithType(
                     TkApp.refresh("./netbout-web/src/main/xsl"),
                     "text/xsl"
                 )
             ),
-            new FkRegex(
+            TkApp.route(
                 "/js/[a-z]+\\.js",
                 new TkWithType(
                     TkApp.refresh("./netbout-web/src/main/js"),
                     "text/javascript"
                 )
             ),
-            new FkRegex(
+            TkApp.route(
                 "/js/thridparty/[a-z.]+\\.(js|map)",
                 new TkWithType(
                     TkApp.refresh("./netbout-web/src/main/js/thridparty"),
                     "text/javascript"
                 )
             ),
-            new FkRegex(
+            TkApp.route(
                 "/css/[a-z]+\\.css",
                 new TkWithType(
                     TkApp.refresh("./netbout-web/src/main/scss"),
                     "text/css"
                 )
             ),
-            new FkRegex(
+            TkApp.route(
                 "/lang/[a-z]+\\.xml",
                 new TkWithType(
                     TkApp.refresh("./netbout-web/src/main/resources/lang"),
                     "text/xml"
                 )
             ),
-            new FkRegex("/favicon.ico", new TkFavicon()),
-            new FkRegex("/emverify/(.*)", new TkEmVerify(base)),
+            TkApp.route("/favicon.ico", new TkFavicon()),
+            TkApp.route("/emverify/(.*)", new TkEmVerify(base)),
             new FkAnonymous(
                 new TkFork(
-                    new FkRegex("/", new TkHome(base)),
+                    new FkRegex("/", new TkMetered("home", new TkHome(base))),
                     new FkFixed(
                         new Take() {
                             @Override
@@ -224,18 +230,25 @@ public final class TkApp extends TkWrap {
                         new TkWithAliasHeader(
                             base,
                             new TkFork(
-                                new FkRegex(
+                                TkApp.route(
                                     "/",
-                                    new TkReturn(new TkInbox(base))
+                                    new TkReturn(
+                                        new TkNotModified(
+                                            new TkInbox(base),
+                                            new TagInbox(base)
+                                        )
+                                    )
                                 ),
-                                new FkRegex(
+                                TkApp.route(
                                     "/search",
                                     new TkReturn(new TkInbox(base))
                                 ),
-                                new FkRegex("/start", new TkStart(base)),
-                                new FkRegex("/b/.*", new TkBout(base)),
-                                new FkRegex("/acc/.*", new TkAccount(base)),
-                                new FkRegex(
+                                TkApp.route("/start", new TkStart(base)),
+                                TkApp.route("/b/.*", new TkBout(base)),
+                                TkApp.route("/acc/.*", new TkAccount(base)),
+                                new FkRegex("/events", new TkEvents(base)),
+                                new FkRegex("/metrics", new TkMetrics()),
+                                TkApp.route(
                                     "/f/([a-zA-Z0-9]+)\\.png",
                                     new TkFriend(base)
                                 )
@@ -243,12 +256,22 @@ public final class TkApp extends TkWrap {
                         )
                     ),
                     new FkRegex("/", new RsRedirect("/login/start")),
-                    new FkRegex("/login/.*", new TkLogin(base))
+                    TkApp.route("/login/.*", new TkLogin(base))
                 )
             )
         );
     }
 
+    /**
+     * Route, with its metrics.
+     * @param regex Regular expression of the path
+     * @param take Take
+     * @return Fork
+     */
+    private static Fork route(final String regex, final Take take) {
+        return new FkRegex(regex, new TkMetered(regex, take));
+    }
+
     /**
      * Hit refresh fork.
      * @param path Path of files
@@ -269,6 +292,7 @@ public final class TkApp extends TkWrap {
                                 "generate-resources"
                             )
                         ).stdout();
+                        new Stylesheets().flush();
                     }
                 },
                 new TkFiles("./netbout-web/target/classes")
@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.google.common.base.Joiner;
+import com.google.common.net.HttpHeaders;
+import com.jcabi.aspects.Tv;
+import com.netbout.live.Events;
+import com.netbout.spi.Base;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rq.RqHeaders;
+import org.takes.rq.RqHref;
+import org.takes.rs.RsWithBody;
+import org.takes.rs.RsWithHeader;
+import org.takes.rs.RsWithStatus;
+import org.takes.rs.RsWithType;
+
+/**
+ * Live events of the current alias.
+ *
+ * <p>The request is held until there are events, but not longer than
+ * {@link #WAIT} seconds, which is well below the maximum latency of
+ * the server, and then it is answered. When the browser accepts
+ * {@code text/event-stream}, events go out as Server-Sent Events (or
+ * a comment line, if there are none) and the browser reconnects with
+ * {@code Last-Event-ID} right away, as it always does when the stream
+ * ends. Otherwise, they are returned as JSON, with the number of the
+ * last one, which the browser sends back in {@code since} query
+ * parameter next time.</p>
+ *
+ * <p>Every held request ties up a worker thread of the server, that's why
+ * not more than {@link #HOLDS} of them are held at the same time, which
+ * is well below the number of workers. When all holds are taken, the
+ * request is answered right away: Server-Sent Events go out with the
+ * events that are already there and a longer {@code retry}, while JSON
+ * gets {@code 503} with {@code Retry-After}, and the browser tries again
+ * later.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TkEvents implements Take {
+
+    /**
+     * How long to wait for events, in seconds.
+     */
+    private static final long WAIT = (long) Tv.TWENTY;
+
+    /**
+     * How soon the browser should reconnect, in milliseconds.
+     */
+    private static final long RETRY = (long) Tv.THOUSAND;
+
+    /**
+     * How soon the browser should reconnect, when we're busy,
+     * in milliseconds.
+     */
+    private static final long BUSY = TimeUnit.SECONDS.toMillis(10L);
+
+    /**
+     * How many requests may be held at the same time, out of fifty
+     * worker threads of the server.
+     */
+    private static final int HOLDS = Tv.TWENTY;
+
+    /**
+     * Holds of requests.
+     */
+    private final transient Semaphore holds;
+
+    /**
+     * Base.
+     */
+    private final transient Base base;
+
+    /**
+     * Ctor.
+     * @param bse Base
+     */
+    public TkEvents(final Base bse) {
+        this(bse, TkEvents.HOLDS);
+    }
+
+    /**
+     * Ctor.
+     * @param bse Base
+     * @param max How many requests may be held at the same time
+     */
+    TkEvents(final Base bse, final int max) {
+        this.base = bse;
+        this.holds = new Semaphore(max);
+    }
+
+    @Override
+    public Response act(final Request req) throws IOException {
+        final String alias = new RqAlias(this.base, req).alias().name();
+        final long since = TkEvents.since(req, alias);
+        final boolean held = this.holds.tryAcquire();
+        final SortedMap<Long, String> events;
+        try {
+            if (held) {
+                events = TkEvents.after(
+                    alias, since, TimeUnit.SECONDS.toMillis(TkEvents.WAIT)
+                );
+            } else {
+                events = TkEvents.after(alias, since, 0L);
+            }
+        } finally {
+            if (held) {
+                this.holds.release();
+            }
+        }
+        final Response response;
+        if (Joiner.on(',').join(
+            new RqHeaders.Base(req).header(HttpHeaders.ACCEPT)
+        ).contains("text/event-stream")) {
+            final long retry;
+            if (held) {
+                retry = TkEvents.RETRY;
+            } else {
+                retry = TkEvents.BUSY;
+            }
+            final StringBuilder text = new StringBuilder(Tv.HUNDRED)
+                .append("retry: ").append(retry).append('\n');
+            if (events.isEmpty()) {
+                text.append(":\n\n");
+            }
+            for (final Map.Entry<Long, String> evt : events.entrySet()) {
+                text.append("id: ").append(evt.getKey())
+                    .append("\ndata: ").append(evt.getValue())
+                    .append("\n\n");
+            }
+            response = new RsWithHeader(
+                new RsWithType(
+                    new RsWithBody(text.toString()),
+                    "text/event-stream"
+                ),
+                HttpHeaders.CACHE_CONTROL, "no-cache"
+            );
+        } else if (!held) {
+            response = new RsWithHeader(
+                new RsWithStatus(HttpURLConnection.HTTP_UNAVAILABLE),
+                HttpHeaders.RETRY_AFTER,
+                Long.toString(TimeUnit.MILLISECONDS.toSeconds(TkEvents.BUSY))
+            );
+        } else {
+            final long last;
+            if (events.isEmpty()) {
+                last = since;
+            } else {
+                last = events.lastKey();
+            }
+            response = new RsWithHeader(
+                new RsWithType(
+                    new RsWithBody(
+                        String.format(
+                            "{\"last\":%d,\"events\":[%s]}",
+                            last, Joiner.on(',').join(events.values())
+                        )
+                    ),
+                    "application/json"
+                ),
+                HttpHeaders.CACHE_CONTROL, "no-cache"
+            );
+        }
+        return response;
+    }
+
+    /**
+     * Number of the last event the browser has seen.
+     * @param req Request
+     * @param alias Alias
+     * @return Number
+     * @throws IOException If fails
+     */
+    private static long since(final Request req, final String alias)
+        throws IOException {
+        Iterator<String> value = new RqHeaders.Base(req)
+            .header("Last-Event-ID").iterator();
+        if (!value.hasNext()) {
+            value = new RqHref.Base(req).href().param("since").iterator();
+        }
+        long since = -1L;
+        if (value.hasNext()) {
+            since = NumberUtils.toLong(value.next(), -1L);
+        }
+        if (since < 0L) {
+            since = new Events().last(alias);
+        }
+        return since;
+    }
+
+    /**
+     * Wait for events after the given one.
+     * @param alias Alias
+     * @param since Number of the last seen event
+     * @param millis How long to wait for them
+     * @return Events
+     * @throws IOException If interrupted
+     */
+    private static SortedMap<Long, String> after(final String alias,
+        final long since, final long millis) throws IOException {
+        try {
+            return new Events().after(
+                alias, since, millis, TimeUnit.MILLISECONDS
+            );
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(ex.getMessage());
+        }
+    }
+
+}
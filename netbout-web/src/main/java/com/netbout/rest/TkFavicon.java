@@ -34,26 +34,63 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import javax.imageio.ImageIO;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
 import org.takes.rq.RqHref;
 import org.takes.rs.RsWithBody;
+import org.takes.rs.RsWithHeader;
 import org.takes.rs.RsWithType;
 
 /**
  * Favicon rendering.
  *
+ * <p>There are only a hundred different icons, they are rendered once,
+ * when requested for the first time, and then served from memory.
+ * The number is in the URL, so browsers may cache them for months.</p>
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.14
  */
 public final class TkFavicon implements Take {
 
+    /**
+     * Rendered icons, by number of unread messages.
+     */
+    private static final AtomicReferenceArray<byte[]> ICONS =
+        new AtomicReferenceArray<>(Tv.HUNDRED);
+
     @Override
     public Response act(final Request req) throws IOException {
-        final long unread = TkFavicon.unread(req);
+        final int unread = (int) Math.max(
+            0L, Math.min(TkFavicon.unread(req), (long) Tv.HUNDRED - 1L)
+        );
+        byte[] icon = TkFavicon.ICONS.get(unread);
+        if (icon == null) {
+            icon = TkFavicon.render(unread);
+            TkFavicon.ICONS.set(unread, icon);
+        }
+        return new RsWithHeader(
+            new RsWithType(new RsWithBody(icon), "image/gif"),
+            "Cache-Control",
+            String.format(
+                "public, max-age=%d",
+                TimeUnit.DAYS.toSeconds((long) Tv.THREE * (long) Tv.HUNDRED)
+            )
+        );
+    }
+
+    /**
+     * Render an icon.
+     * @param unread Number of unread messages, less than a hundred
+     * @return GIF content
+     * @throws IOException If fails
+     */
+    private static byte[] render(final int unread) throws IOException {
         final int width = 64;
         final int height = 64;
         final BufferedImage image = new BufferedImage(
@@ -63,13 +100,8 @@ public final class TkFavicon implements Take {
         // @checkstyle MagicNumber (1 line)
         graph.setColor(new Color(0x4b, 0x42, 0x50));
         graph.fillRect(0, 0, width, height);
-        if (unread > 0L) {
-            final String text;
-            if (unread >= (long) Tv.HUNDRED) {
-                text = "99";
-            } else {
-                text = Long.toString(unread);
-            }
+        if (unread > 0) {
+            final String text = Integer.toString(unread);
             graph.setColor(Color.WHITE);
             graph.setFont(new Font(Font.SANS_SERIF, Font.BOLD, height / 2));
             graph.drawString(
@@ -81,10 +113,7 @@ public final class TkFavicon implements Take {
         }
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
         ImageIO.write(image, "gif", baos);
-        return new RsWithType(
-            new RsWithBody(baos.toByteArray()),
-            "image/gif"
-        );
+        return baos.toByteArray();
     }
 
     /**
@@ -28,33 +28,34 @@ package com.netbout.rest;
 
 import com.google.common.collect.Iterables;
 import com.google.common.net.HttpHeaders;
+import com.jcabi.aspects.Cacheable;
 import com.jcabi.aspects.Tv;
-import com.jcabi.http.request.JdkRequest;
-import com.jcabi.http.response.RestResponse;
-import com.jcabi.http.wire.AutoRedirectingWire;
-import com.jcabi.http.wire.OneMinuteWire;
-import com.jcabi.http.wire.RetryWire;
 import com.netbout.spi.Base;
 import com.netbout.spi.Friend;
 import com.netbout.spi.User;
-import java.awt.Image;
+import java.awt.Color;
+import java.awt.Graphics;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.concurrent.TimeUnit;
 import javax.imageio.ImageIO;
 import org.takes.Response;
 import org.takes.facets.fork.RqRegex;
 import org.takes.facets.fork.TkRegex;
 import org.takes.facets.forward.RsFailure;
+import org.takes.rq.RqHeaders;
 import org.takes.rs.RsFluent;
 
 /**
  * Friend.
  *
+ * <p>Thumbnails are taken from {@link Avatars}. When the thumbnail
+ * is not ready in a few seconds, a blank one is returned, which
+ * browsers are not allowed to cache.</p>
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.14
@@ -91,40 +92,58 @@ public final class TkFriend implements TkRegex {
                 String.format("alias \"%s\" is not found", alias)
             );
         }
-        final byte[] img = new JdkRequest(friend.photo())
-            .through(AutoRedirectingWire.class)
-            .through(RetryWire.class)
-            .through(OneMinuteWire.class)
-            .header(HttpHeaders.ACCEPT, "image/*")
-            .header(HttpHeaders.USER_AGENT, "Netbout.com")
-            .fetch()
-            .as(RestResponse.class)
-            .assertStatus(HttpURLConnection.HTTP_OK)
-            .binary();
-        BufferedImage image = ImageIO.read(new ByteArrayInputStream(img));
-        if (image == null) {
-            image = ImageIO.read(new URL("http://img.netbout.com/unknown.png"));
-        }
-        final Image thumb = image.getScaledInstance(
-            Tv.HUNDRED, -1, Image.SCALE_SMOOTH
+        final Avatars.Thumb thumb = new Avatars().thumb(
+            friend.photo(), (long) Tv.FIVE, TimeUnit.SECONDS
         );
-        final BufferedImage bthumb = new BufferedImage(
-            thumb.getWidth(null), thumb.getHeight(null),
-            BufferedImage.TYPE_INT_RGB
+        final Response response;
+        if (thumb == null) {
+            response = new RsFluent()
+                .withType("image/png")
+                .withHeader(HttpHeaders.CACHE_CONTROL, "no-store")
+                .withBody(new ByteArrayInputStream(TkFriend.blank()));
+        } else {
+            final String etag = String.format("\"%s\"", thumb.version());
+            if (Iterables.contains(
+                new RqHeaders.Base(req).header(HttpHeaders.IF_NONE_MATCH),
+                etag
+            )) {
+                thumb.close();
+                response = new RsFluent()
+                    .withStatus(HttpURLConnection.HTTP_NOT_MODIFIED)
+                    .withHeader(HttpHeaders.ETAG, etag);
+            } else {
+                response = new RsFluent()
+                    .withType("image/png")
+                    .withHeader(
+                        HttpHeaders.CACHE_CONTROL,
+                        String.format(
+                            "private, max-age=%d",
+                            TimeUnit.DAYS.toSeconds(1L)
+                        )
+                    )
+                    .withHeader(HttpHeaders.ETAG, etag)
+                    .withBody(thumb.stream());
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Blank thumbnail, drawn once.
+     * @return PNG content
+     * @throws IOException If fails
+     */
+    @Cacheable(forever = true)
+    private static byte[] blank() throws IOException {
+        final BufferedImage image = new BufferedImage(
+            Avatars.WIDTH, Avatars.WIDTH, BufferedImage.TYPE_INT_RGB
         );
-        bthumb.getGraphics().drawImage(thumb, 0, 0, null);
+        final Graphics graph = image.getGraphics();
+        graph.setColor(Color.LIGHT_GRAY);
+        graph.fillRect(0, 0, Avatars.WIDTH, Avatars.WIDTH);
         final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(bthumb, "png", baos);
-        return new RsFluent()
-            .withType("image/png")
-            .withHeader(
-                "Cache-Control",
-                String.format(
-                    "private, max-age=%d",
-                    TimeUnit.DAYS.toSeconds(1L)
-                )
-            )
-            .withBody(new ByteArrayInputStream(baos.toByteArray()));
+        ImageIO.write(image, "png", baos);
+        return baos.toByteArray();
     }
 
 }
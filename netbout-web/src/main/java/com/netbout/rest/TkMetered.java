@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Iterator;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.takes.HttpException;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+
+/**
+ * Take that records its latency and status in {@link Metrics}.
+ *
+ * <p>The request is finished by {@link RsFinished}, exactly once, when
+ * the body of the response is read to the end or closed. The back of
+ * Takes closes the body after printing it, even when the client is gone,
+ * so every response we return is finished sooner or later.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TkMetered implements Take {
+
+    /**
+     * Original take.
+     */
+    private final transient Take origin;
+
+    /**
+     * Metrics of the route.
+     */
+    private final transient Metrics.Route route;
+
+    /**
+     * Ctor.
+     * @param name Name of the route
+     * @param take Original take
+     */
+    public TkMetered(final String name, final Take take) {
+        this.origin = take;
+        this.route = new Metrics().route(name);
+    }
+
+    @Override
+    public Response act(final Request req) throws IOException {
+        final long start = this.route.start();
+        final Response response;
+        try {
+            response = this.origin.act(req);
+        } catch (final HttpException ex) {
+            this.route.finish(ex.code(), System.nanoTime() - start);
+            throw ex;
+        } catch (final IOException | RuntimeException ex) {
+            this.route.finish(
+                HttpURLConnection.HTTP_INTERNAL_ERROR,
+                System.nanoTime() - start
+            );
+            throw ex;
+        }
+        final Metrics.Route rte = this.route;
+        return new RsFinished(
+            response,
+            new RsFinished.Callback() {
+                @Override
+                public void finished(final boolean broken) {
+                    int status = HttpURLConnection.HTTP_INTERNAL_ERROR;
+                    if (!broken) {
+                        status = TkMetered.status(response);
+                    }
+                    rte.finish(status, System.nanoTime() - start);
+                }
+            }
+        );
+    }
+
+    /**
+     * Get status of the response.
+     * @param response Response
+     * @return HTTP status, or zero if it's unknown
+     */
+    private static int status(final Response response) {
+        int status = 0;
+        try {
+            final Iterator<String> head = response.head().iterator();
+            if (head.hasNext()) {
+                final String[] parts = head.next().split(" ", 3);
+                if (parts.length > 1) {
+                    status = NumberUtils.toInt(parts[1]);
+                }
+            }
+        } catch (final IOException ex) {
+            status = 0;
+        }
+        return status;
+    }
+
+}
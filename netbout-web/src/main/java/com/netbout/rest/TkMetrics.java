@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.jcabi.manifests.Manifests;
+import com.netbout.breaker.Breakers;
+import com.netbout.email.EmLanes;
+import com.netbout.email.EmOutbox;
+import com.netbout.email.EmPool;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+import org.takes.HttpException;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.facets.auth.RqAuth;
+import org.takes.rs.RsText;
+import org.takes.rs.RsWithType;
+
+/**
+ * Metrics of all routes, breakers, the outbox and inbound emails,
+ * in Prometheus text format.
+ *
+ * <p>Only admins can see them. Their URNs are listed in
+ * {@code Netbout-Admins} attribute of the manifest, separated
+ * by spaces.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TkMetrics implements Take {
+
+    @Override
+    public Response act(final Request req) throws IOException {
+        final String urn = new RqAuth(req).identity().urn();
+        if (!Arrays.asList(
+            Manifests.read("Netbout-Admins").split("\\s+")
+        ).contains(urn)) {
+            throw new HttpException(
+                HttpURLConnection.HTTP_FORBIDDEN,
+                String.format("%s is not an admin", urn)
+            );
+        }
+        return new RsWithType(
+            new RsText(
+                new Metrics().print()
+                    .concat(new Breakers().print())
+                    .concat(new EmOutbox.Stats().print())
+                    .concat(new EmPool.Stats().print())
+                    .concat(new EmLanes.Stats().print())
+            ),
+            "text/plain; version=0.0.4"
+        );
+    }
+
+}
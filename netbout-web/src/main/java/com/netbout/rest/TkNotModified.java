@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.google.common.base.Joiner;
+import com.google.common.net.HttpHeaders;
+import com.jcabi.manifests.Manifests;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Iterator;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rq.RqHeaders;
+import org.takes.rq.RqHref;
+import org.takes.rq.RqMethod;
+import org.takes.rs.RsWithHeaders;
+import org.takes.rs.RsWithStatus;
+
+/**
+ * Take that answers with 304 when the page is not modified.
+ *
+ * <p>The ETag of a page is a hash of the request URI, the headers
+ * the page depends on, the version of the application and a tag,
+ * which the {@link TkNotModified.Tag} makes from the data shown on
+ * the page. When the tag is cheaper to build than the page itself,
+ * which is almost always the case, since the data is cached,
+ * polling browsers don't cost us XML and XSL rendering.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TkNotModified implements Take {
+
+    /**
+     * Version of the system.
+     */
+    private static final String VERSION = Joiner.on(' ').join(
+        Manifests.read("Netbout-Version"),
+        Manifests.read("Netbout-Revision"),
+        Manifests.read("Netbout-Date")
+    );
+
+    /**
+     * Original take.
+     */
+    private final transient Take origin;
+
+    /**
+     * Tag of the data.
+     */
+    private final transient TkNotModified.Tag tag;
+
+    /**
+     * Ctor.
+     * @param take Original take
+     * @param tgs Tag of the data shown by the take
+     */
+    public TkNotModified(final Take take, final TkNotModified.Tag tgs) {
+        this.origin = take;
+        this.tag = tgs;
+    }
+
+    @Override
+    public Response act(final Request req) throws IOException {
+        final String data;
+        if (RqMethod.GET.equals(new RqMethod.Base(req).method())) {
+            data = this.tag.tag(req);
+        } else {
+            data = "";
+        }
+        final Response response;
+        if (data.isEmpty()) {
+            response = this.origin.act(req);
+        } else {
+            final String etag = TkNotModified.etag(req, data);
+            final String[] headers = {
+                String.format("%s: %s", HttpHeaders.ETAG, etag),
+                String.format(
+                    "%s: private, no-cache", HttpHeaders.CACHE_CONTROL
+                ),
+            };
+            if (TkNotModified.matches(req, etag)) {
+                response = new RsWithHeaders(
+                    new RsWithStatus(HttpURLConnection.HTTP_NOT_MODIFIED),
+                    headers
+                );
+            } else {
+                response = new RsWithHeaders(this.origin.act(req), headers);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Make ETag.
+     * @param req Request
+     * @param data Tag of the data
+     * @return ETag, quoted
+     * @throws IOException If fails
+     */
+    private static String etag(final Request req, final String data)
+        throws IOException {
+        final RqHeaders hdrs = new RqHeaders.Base(req);
+        return String.format(
+            "\"%s\"",
+            DigestUtils.sha1Hex(
+                Joiner.on('\n').join(
+                    TkNotModified.VERSION,
+                    new RqHref.Base(req).href(),
+                    Joiner.on(';').join(hdrs.header(HttpHeaders.COOKIE)),
+                    Joiner.on(',').join(hdrs.header(HttpHeaders.ACCEPT)),
+                    Joiner.on(' ').join(hdrs.header(HttpHeaders.USER_AGENT)),
+                    data
+                )
+            )
+        );
+    }
+
+    /**
+     * The request has this ETag in If-None-Match header.
+     * @param req Request
+     * @param etag ETag
+     * @return TRUE if it has
+     * @throws IOException If fails
+     */
+    private static boolean matches(final Request req, final String etag)
+        throws IOException {
+        final Iterator<String> hdrs = new RqHeaders.Base(req)
+            .header(HttpHeaders.IF_NONE_MATCH).iterator();
+        boolean matches = false;
+        while (!matches && hdrs.hasNext()) {
+            for (final String tag : hdrs.next().split(",")) {
+                matches = matches || etag.equals(tag.trim());
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Tag of the data shown on a page.
+     */
+    public interface Tag {
+        /**
+         * Make a tag, which must change when the data shown on the page
+         * changes.
+         * @param req Request
+         * @return Tag or empty string if the page can't be validated
+         * @throws IOException If fails
+         */
+        String tag(Request req) throws IOException;
+    }
+
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.jcabi.log.Logger;
+import com.netbout.traced.Trace;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.misc.Href;
+import org.takes.rq.RqHref;
+import org.takes.rq.RqMethod;
+
+/**
+ * Take that traces calls to the base made by a request, and logs them
+ * when the request is slow.
+ *
+ * <p>{@code X-Netbout-Calls} header has the number of calls made
+ * before the head is sent. The body is streamed as is, and the calls
+ * made while it is rendered are counted in the log only: the total
+ * is logged at debug level when the body is read to the end or closed,
+ * and the full trace is logged as a warning, if the request took longer
+ * than the threshold. Requests with paths matching the skip pattern,
+ * like long polls, are not traced.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TkTraced implements Take {
+
+    /**
+     * Original take.
+     */
+    private final transient Take origin;
+
+    /**
+     * Threshold, in milliseconds.
+     */
+    private final transient long threshold;
+
+    /**
+     * Paths not to trace.
+     */
+    private final transient Pattern skip;
+
+    /**
+     * Ctor.
+     * @param take Original take
+     * @param millis Log requests slower than this, in milliseconds
+     * @param paths Regular expression of paths not to trace
+     */
+    public TkTraced(final Take take, final long millis, final String paths) {
+        this.origin = take;
+        this.threshold = millis;
+        this.skip = Pattern.compile(paths);
+    }
+
+    @Override
+    public Response act(final Request req) throws IOException {
+        final Href href = new RqHref.Base(req).href();
+        final Response response;
+        if (this.skip.matcher(href.path()).matches()) {
+            response = this.origin.act(req);
+        } else {
+            response = this.traced(
+                req,
+                String.format(
+                    "%s %s", new RqMethod.Base(req).method(), href
+                )
+            );
+        }
+        return response;
+    }
+
+    /**
+     * Trace the request.
+     * @param req Request
+     * @param name Name of the request
+     * @return Response
+     * @throws IOException If fails
+     */
+    private Response traced(final Request req, final String name)
+        throws IOException {
+        final long start = System.nanoTime();
+        new Trace().start();
+        final Response response;
+        try {
+            response = this.origin.act(req);
+        } catch (final IOException | RuntimeException ex) {
+            this.finish(name, start);
+            throw ex;
+        }
+        return new RsFinished(
+            new TkTraced.Counted(response),
+            new RsFinished.Callback() {
+                @Override
+                public void finished(final boolean broken) {
+                    TkTraced.this.finish(name, start);
+                }
+            }
+        );
+    }
+
+    /**
+     * Finish the trace and log it, if the request was slow.
+     * @param name Name of the request
+     * @param start When it started, in nanoseconds
+     */
+    private void finish(final String name, final long start) {
+        final Trace.Spans spans = new Trace().finish();
+        final long millis = TimeUnit.NANOSECONDS.toMillis(
+            System.nanoTime() - start
+        );
+        if (millis > this.threshold) {
+            Logger.warn(
+                this, "%s took %dms and %d calls to the base:\n%s",
+                name, millis, spans.size(), spans.print()
+            );
+        } else {
+            Logger.debug(
+                this, "%s took %dms and %d calls to the base",
+                name, millis, spans.size()
+            );
+        }
+    }
+
+    /**
+     * Response with the number of calls made before its head is sent.
+     */
+    private static final class Counted implements Response {
+        /**
+         * Original response.
+         */
+        private final transient Response origin;
+        /**
+         * Ctor.
+         * @param rsp Original response
+         */
+        Counted(final Response rsp) {
+            this.origin = rsp;
+        }
+        @Override
+        public Iterable<String> head() throws IOException {
+            final Collection<String> head = new LinkedList<>();
+            for (final String line : this.origin.head()) {
+                head.add(line);
+            }
+            head.add(
+                String.format("X-Netbout-Calls: %d", new Trace().size())
+            );
+            return head;
+        }
+        @Override
+        public InputStream body() throws IOException {
+            return this.origin.body();
+        }
+    }
+
+}
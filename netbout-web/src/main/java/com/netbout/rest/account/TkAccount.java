@@ -68,6 +68,12 @@ public final class TkAccount extends TkWrap {
                 new TkFork(
                     new FkMethods("POST", new TkSaveEmail(base))
                 )
+            ),
+            new FkRegex(
+                "/acc/digest",
+                new TkFork(
+                    new FkMethods("POST", new TkSaveDigest(base))
+                )
             )
         );
     }
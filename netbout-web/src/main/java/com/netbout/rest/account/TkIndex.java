@@ -27,6 +27,7 @@
 package com.netbout.rest.account;
 
 import com.google.common.net.HttpHeaders;
+import com.netbout.rest.RqAlias;
 import com.netbout.rest.RqWithDefaultHeader;
 import com.netbout.rest.RsPage;
 import com.netbout.spi.Base;
@@ -34,6 +35,7 @@ import java.io.IOException;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
+import org.takes.rs.xe.XeAppend;
 import org.takes.rs.xe.XeLink;
 
 /**
@@ -65,7 +67,14 @@ final class TkIndex implements Take {
             "/xsl/account.xsl",
             this.base,
             new RqWithDefaultHeader(req, HttpHeaders.ACCEPT, "text/xml"),
-            new XeLink("save-email", "/acc/save")
+            new XeLink("save-email", "/acc/save"),
+            new XeLink("save-digest", "/acc/digest"),
+            new XeAppend(
+                "digest",
+                Boolean.toString(
+                    new RqAlias(this.base, req).alias().digest()
+                )
+            )
         );
     }
 
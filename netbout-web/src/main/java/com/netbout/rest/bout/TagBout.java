@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest.bout;
+
+import com.netbout.rest.TagAlias;
+import com.netbout.rest.TkNotModified;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Base;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Inbox;
+import java.io.IOException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.takes.Request;
+import org.takes.rq.RqHref;
+
+/**
+ * Tag of the bout page.
+ *
+ * <p>Messages are tagged by the number of the newest one and the page
+ * start, since they never change after they are posted. The tag is made
+ * only of values, which reading doesn't mark messages as seen, and
+ * which the cached layer keeps, including the number of the newest
+ * message, taken from the head page it holds, so an unchanged page
+ * costs no database queries. Search results are not tagged.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+final class TagBout implements TkNotModified.Tag {
+
+    /**
+     * Base.
+     */
+    private final transient Base base;
+
+    /**
+     * Ctor.
+     * @param bse Base
+     */
+    TagBout(final Base bse) {
+        this.base = bse;
+    }
+
+    @Override
+    public String tag(final Request req) throws IOException {
+        final RqHref.Smart href = new RqHref.Smart(new RqHref.Base(req));
+        final long start = NumberUtils.toLong(
+            href.single("start", Long.toString(Inbox.NEVER)), -1L
+        );
+        final StringBuilder tag = new StringBuilder(0);
+        if (StringUtils.isBlank(href.single("q", ""))
+            && start >= 0L) {
+            final Bout bout = new RqBout(this.base, req).bout();
+            tag.append(new TagAlias(this.base).tag(req)).append('\n')
+                .append(bout.number()).append(' ')
+                .append(bout.updated().getTime()).append(' ')
+                .append(bout.messages().top()).append(' ')
+                .append(start).append(' ')
+                .append(bout.messages().unread()).append(' ')
+                .append(bout.subscription()).append(' ')
+                .append(bout.title()).append('\n');
+            for (final Friend friend : bout.friends().iterate()) {
+                tag.append(friend.alias()).append(' ');
+            }
+            for (final Attachment atmt : bout.attachments().iterate()) {
+                tag.append('\n')
+                    .append(atmt.name()).append(' ')
+                    .append(atmt.ctype()).append(' ')
+                    .append(atmt.etag()).append(' ')
+                    .append(atmt.unseen());
+            }
+        }
+        return tag.toString();
+    }
+
+}
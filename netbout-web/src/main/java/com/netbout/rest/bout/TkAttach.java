@@ -27,25 +27,27 @@
 package com.netbout.rest.bout;
 
 import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
 import com.netbout.spi.Attachment;
 import com.netbout.spi.Attachments;
 import com.netbout.spi.Base;
 import com.netbout.spi.Bout;
 import eu.medsea.mimeutil.MimeUtil;
 import eu.medsea.mimeutil.detector.MagicMimeMimeDetector;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URLDecoder;
+import java.security.DigestInputStream;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.codec.CharEncoding;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
@@ -58,6 +60,18 @@ import org.takes.rq.RqMultipart;
 /**
  * Attach.
  *
+ * <p>The uploaded file is read once: its MIME type is detected by
+ * the first few kilobytes, which are kept in a buffer, and then the
+ * entire content goes to the attachment, while its size is checked and
+ * its SHA-256 hash is calculated on the fly. The part itself is spooled
+ * to disk by {@link RqMultipart.Base} before it gets here, and big
+ * content is spooled once more by the attachment, since S3 needs its
+ * length before the upload; memory stays bounded either way.</p>
+ *
+ * <p>Requests with {@code Content-Length} over the limit are rejected
+ * before anything is created. The check on the fly is only for
+ * requests without the length, like chunked ones.</p>
+ *
  * @author Yegor Bugayenko (yegor@teamed.io)
  * @version $Id$
  * @since 2.14
@@ -72,6 +86,16 @@ final class TkAttach implements Take {
         "(.*)(name=\"file\")(.*)(filename=\"(.*)\")(.*)"
     );
 
+    /**
+     * Maximum size of an attachment, in bytes.
+     */
+    private static final long MAX = (long) Tv.TEN * (long) Tv.MILLION;
+
+    /**
+     * How many bytes to look at, to detect MIME type.
+     */
+    private static final int SNIFF = Tv.EIGHT * Tv.THOUSAND;
+
     /**
      * Base.
      */
@@ -93,17 +117,41 @@ final class TkAttach implements Take {
 
     @Override
     public Response act(final Request req) throws IOException {
+        final long length = Long.parseLong(
+            new RqHeaders.Smart(new RqHeaders.Base(req))
+                .single("Content-Length", "0")
+        );
+        if (length > TkAttach.MAX) {
+            throw new RsFailure(
+                new Attachment.TooBigException(
+                    String.format(
+                        "upload of %d bytes is too big, %s",
+                        length, "10Mb is the maximum size"
+                    )
+                )
+            );
+        }
         final Request file = new RqMultipart.Smart(
             new RqMultipart.Base(req)
         ).single("file");
         final Bout bout = new RqBout(this.base, req).bout();
         final String name = name(file);
-        final File temp = File.createTempFile("netbout", "bin");
+        final InputStream body = new BufferedInputStream(
+            file.body(), TkAttach.SNIFF
+        );
         try {
-            try (OutputStream os = new FileOutputStream(temp)) {
-                IOUtils.copy(file.body(), os);
+            body.mark(TkAttach.SNIFF);
+            final byte[] head = new byte[TkAttach.SNIFF];
+            final int len = IOUtils.read(body, head);
+            body.reset();
+            if (len == 0) {
+                throw new Attachment.BrokenContentException(
+                    String.format(
+                        "content of attachment \"%s\" can't be empty",
+                        name
+                    )
+                );
             }
-            validate(temp, name);
             final StringBuilder msg = new StringBuilder(Tv.HUNDRED);
             if (new Attachments.Search(bout.attachments()).exists(name)) {
                 msg.append(
@@ -113,15 +161,23 @@ final class TkAttach implements Take {
                 bout.attachments().create(name);
                 msg.append(String.format("attachment \"%s\" uploaded", name));
             }
-            final String ctype = TkAttach.ctype(temp);
-            msg.append(" (").append(temp.length())
+            final String ctype = TkAttach.ctype(Arrays.copyOf(head, len));
+            final CountingInputStream counter = new TkAttach.Limited(
+                body, name
+            );
+            final DigestInputStream digest = new DigestInputStream(
+                counter, DigestUtils.getSha256Digest()
+            );
+            bout.attachments().get(name).write(
+                digest, ctype, Long.toString(System.currentTimeMillis())
+            );
+            Logger.info(
+                this, "attachment \"%s\" in #%d: %d bytes, %s, SHA-256 %s",
+                name, bout.number(), counter.getByteCount(), ctype,
+                Hex.encodeHexString(digest.getMessageDigest().digest())
+            );
+            msg.append(" (").append(counter.getByteCount())
                 .append(" bytes, ").append(ctype).append(')');
-            try (InputStream is = new FileInputStream(temp)) {
-                bout.attachments().get(name).write(
-                    is,
-                    ctype, Long.toString(System.currentTimeMillis())
-                );
-            }
             bout.messages().post(msg.toString());
             throw new RsForward(new RsFlash(msg.toString()));
         } catch (final Attachment.TooBigException
@@ -132,7 +188,7 @@ final class TkAttach implements Take {
             }
             throw new RsFailure(ex);
         } finally {
-            FileUtils.forceDelete(temp);
+            body.close();
         }
     }
 
@@ -156,38 +212,12 @@ final class TkAttach implements Take {
     }
 
     /**
-     * Checks some limitations on attachment.
-     * @param attach Temportary file with attachment
-     * @param name Attachment name
-     * @throws IOException If attachment violates limitations
-     */
-    private static void validate(final File attach, final String name)
-        throws IOException {
-        if (attach.length() == 0) {
-            throw new Attachment.BrokenContentException(
-                String.format(
-                    "content of attachment \"%s\" can't be empty",
-                    name
-                )
-            );
-        }
-        if (attach.length() > Tv.TEN * Tv.MILLION) {
-            throw new Attachment.TooBigException(
-                String.format(
-                    "attachment \"%s\" is too big, 10Mb is the maximum size",
-                    name
-                )
-            );
-        }
-    }
-
-    /**
-     * Get CType of file.
-     * @param file File
+     * Get CType of content.
+     * @param head First bytes of the content
      * @return MIME type
      */
-    private static String ctype(final File file) {
-        final Collection<?> ctypes = MimeUtil.getMimeTypes(file);
+    private static String ctype(final byte[] head) {
+        final Collection<?> ctypes = MimeUtil.getMimeTypes(head);
         final String ctype;
         if (ctypes.isEmpty()) {
             ctype = "application/octet-stream";
@@ -197,4 +227,36 @@ final class TkAttach implements Take {
         return ctype;
     }
 
+    /**
+     * Stream that fails when there is too much content.
+     */
+    private static final class Limited extends CountingInputStream {
+        /**
+         * Attachment name.
+         */
+        private final transient String name;
+        /**
+         * Ctor.
+         * @param stream Original stream
+         * @param attachment Attachment name
+         */
+        Limited(final InputStream stream, final String attachment) {
+            super(stream);
+            this.name = attachment;
+        }
+        @Override
+        protected synchronized void afterRead(final int num)
+            throws IOException {
+            super.afterRead(num);
+            if (this.getByteCount() > TkAttach.MAX) {
+                throw new Attachment.TooBigException(
+                    String.format(
+                        "attachment \"%s\" is too big, %s",
+                        this.name, "10Mb is the maximum size"
+                    )
+                );
+            }
+        }
+    }
+
 }
@@ -26,6 +26,7 @@
  */
 package com.netbout.rest.bout;
 
+import com.netbout.rest.TkNotModified;
 import com.netbout.spi.Base;
 import org.takes.Take;
 import org.takes.facets.fork.TkFork;
@@ -56,7 +57,10 @@ public final class TkBout extends TkWrap {
      */
     private static Take make(final Base base) {
         return new TkFork(
-            new FkBout("", new TkIndex(base)),
+            new FkBout(
+                "",
+                new TkNotModified(new TkIndex(base), new TagBout(base))
+            ),
             new FkBout("/attach", new TkAttach(base)),
             new FkBout("/upload", new TkUpload(base)),
             new FkBout("/download", new TkDownload(base)),
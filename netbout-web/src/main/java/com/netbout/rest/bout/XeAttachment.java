@@ -27,11 +27,14 @@
 package com.netbout.rest.bout;
 
 import com.netbout.rest.Markdown;
+import com.netbout.rest.MarkdownCached;
+import com.netbout.rest.MarkdownTxtmark;
 import com.netbout.spi.Attachment;
 import com.netbout.spi.Bout;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
 import org.apache.commons.io.IOUtils;
 import org.takes.Request;
 import org.takes.misc.Href;
@@ -86,6 +89,7 @@ final class XeAttachment extends XeWrap {
             open = param.next();
         }
         final String name = "name";
+        final boolean unseen = atmt.unseen();
         return new XeAppend(
             "attachment",
             new XeDirectives(
@@ -93,7 +97,7 @@ final class XeAttachment extends XeWrap {
                     .add("name").set(atmt.name()).up()
                     .add("ctype").set(atmt.ctype()).up()
                     .add("etag").set(atmt.etag()).up()
-                    .add("unseen").set(Boolean.toString(atmt.unseen())).up()
+                    .add("unseen").set(Boolean.toString(unseen)).up()
                     .add("author").set(atmt.author()).up()
                     .add("date").set(atmt.date().getTime())
             ),
@@ -128,12 +132,7 @@ final class XeAttachment extends XeWrap {
                     public Iterable<Directive> toXembly() throws IOException {
                         return new Directives().add("html").set(
                             Xembler.escape(
-                                new Markdown.Default().html(
-                                    IOUtils.toString(
-                                        atmt.read(),
-                                        StandardCharsets.UTF_8
-                                    )
-                                )
+                                XeAttachment.html(bout, atmt, unseen)
                             )
                         );
                     }
@@ -142,4 +141,43 @@ final class XeAttachment extends XeWrap {
         );
     }
 
+    /**
+     * Render markdown attachment to HTML.
+     *
+     * <p>When the attachment is already seen and has an ETag, its HTML
+     * is taken from cache, without reading the content. Otherwise
+     * the content is read, in order to mark the attachment as seen.</p>
+     *
+     * @param bout Bout
+     * @param atmt Attachment
+     * @param unseen TRUE if it is not seen yet
+     * @return HTML
+     * @throws IOException If fails
+     */
+    private static String html(final Bout bout, final Attachment atmt,
+        final boolean unseen) throws IOException {
+        final String etag = atmt.etag();
+        final String html;
+        if (unseen || etag.isEmpty()) {
+            html = new Markdown.Default().html(
+                IOUtils.toString(atmt.read(), StandardCharsets.UTF_8)
+            );
+        } else {
+            html = new MarkdownCached(new MarkdownTxtmark()).html(
+                String.format(
+                    "attachment:%d:%s:%s", bout.number(), atmt.name(), etag
+                ),
+                new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return IOUtils.toString(
+                            atmt.read(), StandardCharsets.UTF_8
+                        );
+                    }
+                }
+            );
+        }
+        return html;
+    }
+
 }
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Attachment;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Traced Attachment.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+final class TrAttachment implements Attachment {
+
+    /**
+     * Original.
+     */
+    private final transient Attachment origin;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     */
+    TrAttachment(final Attachment org) {
+        this.origin = org;
+    }
+
+    @Override
+    public String name() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.name();
+        } finally {
+            new Trace().record("Attachment.name", start);
+        }
+    }
+
+    @Override
+    public String ctype() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.ctype();
+        } finally {
+            new Trace().record("Attachment.ctype", start);
+        }
+    }
+
+    @Override
+    public String etag() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.etag();
+        } finally {
+            new Trace().record("Attachment.etag", start);
+        }
+    }
+
+    @Override
+    public boolean unseen() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.unseen();
+        } finally {
+            new Trace().record("Attachment.unseen", start);
+        }
+    }
+
+    @Override
+    public Date date() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.date();
+        } finally {
+            new Trace().record("Attachment.date", start);
+        }
+    }
+
+    @Override
+    public String author() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.author();
+        } finally {
+            new Trace().record("Attachment.author", start);
+        }
+    }
+
+    @Override
+    public InputStream read() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.read();
+        } finally {
+            new Trace().record("Attachment.read", start);
+        }
+    }
+
+    @Override
+    public void write(final InputStream stream, final String ctype,
+        final String etag) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.origin.write(stream, ctype, etag);
+        } finally {
+            new Trace().record("Attachment.write", start, stream, ctype, etag);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Attachments;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Traced Attachments.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+final class TrAttachments implements Attachments {
+
+    /**
+     * Original.
+     */
+    private final transient Attachments origin;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     */
+    TrAttachments(final Attachments org) {
+        this.origin = org;
+    }
+
+    @Override
+    public int unseen() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.unseen();
+        } finally {
+            new Trace().record("Attachments.unseen", start);
+        }
+    }
+
+    @Override
+    public void create(final String name) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.origin.create(name);
+        } finally {
+            new Trace().record("Attachments.create", start, name);
+        }
+    }
+
+    @Override
+    public void delete(final String name) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.origin.delete(name);
+        } finally {
+            new Trace().record("Attachments.delete", start, name);
+        }
+    }
+
+    @Override
+    public Attachment get(final String name) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrAttachment(this.origin.get(name));
+        } finally {
+            new Trace().record("Attachments.get", start, name);
+        }
+    }
+
+    @Override
+    public Iterable<Attachment> iterate() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrIterable<>(
+                "Attachments.iterate", this.origin.iterate()
+            );
+        } finally {
+            new Trace().record("Attachments.iterate", start);
+        }
+    }
+
+}
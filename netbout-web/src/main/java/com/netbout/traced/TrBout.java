@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Attachments;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friends;
+import com.netbout.spi.Messages;
+import java.io.IOException;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Traced Bout.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+@SuppressWarnings("PMD.TooManyMethods")
+final class TrBout implements Bout {
+
+    /**
+     * Original.
+     */
+    private final transient Bout origin;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     */
+    TrBout(final Bout org) {
+        this.origin = org;
+    }
+
+    @Override
+    public long number() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.number();
+        } finally {
+            new Trace().record("Bout.number", start);
+        }
+    }
+
+    @Override
+    public Date date() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.date();
+        } finally {
+            new Trace().record("Bout.date", start);
+        }
+    }
+
+    @Override
+    public Date updated() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.updated();
+        } finally {
+            new Trace().record("Bout.updated", start);
+        }
+    }
+
+    @Override
+    public String title() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.title();
+        } finally {
+            new Trace().record("Bout.title", start);
+        }
+    }
+
+    @Override
+    public void rename(final String text) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.origin.rename(text);
+        } finally {
+            new Trace().record("Bout.rename", start, text);
+        }
+    }
+
+    @Override
+    public boolean subscription() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.subscription();
+        } finally {
+            new Trace().record("Bout.subscription", start);
+        }
+    }
+
+    @Override
+    public boolean subscription(final String alias) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.subscription(alias);
+        } finally {
+            new Trace().record("Bout.subscription", start, alias);
+        }
+    }
+
+    @Override
+    public void subscribe(final boolean subs) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.origin.subscribe(subs);
+        } finally {
+            new Trace().record("Bout.subscribe", start, subs);
+        }
+    }
+
+    @Override
+    public Messages messages() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrMessages(this.origin.messages());
+        } finally {
+            new Trace().record("Bout.messages", start);
+        }
+    }
+
+    @Override
+    public Friends friends() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrFriends(this.origin.friends());
+        } finally {
+            new Trace().record("Bout.friends", start);
+        }
+    }
+
+    @Override
+    public Attachments attachments() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrAttachments(this.origin.attachments());
+        } finally {
+            new Trace().record("Bout.attachments", start);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Friend;
+import java.io.IOException;
+import java.net.URI;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Traced Friend.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+final class TrFriend implements Friend {
+
+    /**
+     * Original.
+     */
+    private final transient Friend origin;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     */
+    TrFriend(final Friend org) {
+        this.origin = org;
+    }
+
+    @Override
+    public String alias() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.alias();
+        } finally {
+            new Trace().record("Friend.alias", start);
+        }
+    }
+
+    @Override
+    public URI photo() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.photo();
+        } finally {
+            new Trace().record("Friend.photo", start);
+        }
+    }
+
+    @Override
+    public String email() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.email();
+        } finally {
+            new Trace().record("Friend.email", start);
+        }
+    }
+
+    @Override
+    public boolean digest() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.digest();
+        } finally {
+            new Trace().record("Friend.digest", start);
+        }
+    }
+
+}
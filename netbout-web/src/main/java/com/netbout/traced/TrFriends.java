@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Friends;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Traced Friends.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+final class TrFriends implements Friends {
+
+    /**
+     * Original.
+     */
+    private final transient Friends origin;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     */
+    TrFriends(final Friends org) {
+        this.origin = org;
+    }
+
+    @Override
+    public void invite(final String friend) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.origin.invite(friend);
+        } finally {
+            new Trace().record("Friends.invite", start, friend);
+        }
+    }
+
+    @Override
+    public void kick(final String friend) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.origin.kick(friend);
+        } finally {
+            new Trace().record("Friends.kick", start, friend);
+        }
+    }
+
+    @Override
+    public Iterable<Friend> iterate() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrIterable<>("Friends.iterate", this.origin.iterate());
+        } finally {
+            new Trace().record("Friends.iterate", start);
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Attachment;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Message;
+import java.util.Iterator;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Traced iterable, which records how long it takes to start iterating
+ * and every step of the iteration, since most of our iterables make
+ * their queries lazily, page by page, when asked for the next item.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @param <T> Type of items
+ */
+@ToString(of = "origin")
+@EqualsAndHashCode(of = { "operation", "origin" })
+final class TrIterable<T> implements Iterable<T> {
+
+    /**
+     * Operation that made it.
+     */
+    private final transient String operation;
+
+    /**
+     * Original.
+     */
+    private final transient Iterable<T> origin;
+
+    /**
+     * Public ctor.
+     * @param opr Operation that made it
+     * @param org Origin
+     */
+    TrIterable(final String opr, final Iterable<T> org) {
+        this.operation = opr;
+        this.origin = org;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        final long start = System.nanoTime();
+        try {
+            return new TrIterable.Steps<T>(
+                this.operation,
+                Iterables.transform(
+                    this.origin,
+                    new Function<T, T>() {
+                        @Override
+                        public T apply(final T input) {
+                            return TrIterable.wrap(input);
+                        }
+                    }
+                ).iterator()
+            );
+        } finally {
+            new Trace().record(
+                String.format("%s.iterator", this.operation), start
+            );
+        }
+    }
+
+    /**
+     * Wrap an item into its traced decorator.
+     * @param item The item
+     * @return Traced item
+     * @param <T> Type of item
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T wrap(final T item) {
+        final Object traced;
+        if (item instanceof Bout) {
+            traced = new TrBout(Bout.class.cast(item));
+        } else if (item instanceof Message) {
+            traced = new TrMessage(Message.class.cast(item));
+        } else if (item instanceof Friend) {
+            traced = new TrFriend(Friend.class.cast(item));
+        } else if (item instanceof Alias) {
+            traced = new TrAlias(Alias.class.cast(item));
+        } else if (item instanceof Attachment) {
+            traced = new TrAttachment(Attachment.class.cast(item));
+        } else {
+            traced = item;
+        }
+        return (T) traced;
+    }
+
+    /**
+     * Iterator, which records every step.
+     * @param <T> Type of items
+     */
+    private static final class Steps<T> implements Iterator<T> {
+        /**
+         * Operation that made it.
+         */
+        private final transient String operation;
+        /**
+         * Original.
+         */
+        private final transient Iterator<T> origin;
+        /**
+         * Ctor.
+         * @param opr Operation that made it
+         * @param org Origin
+         */
+        Steps(final String opr, final Iterator<T> org) {
+            this.operation = opr;
+            this.origin = org;
+        }
+        @Override
+        public boolean hasNext() {
+            final long start = System.nanoTime();
+            try {
+                return this.origin.hasNext();
+            } finally {
+                new Trace().record(
+                    String.format("%s.hasNext", this.operation), start
+                );
+            }
+        }
+        @Override
+        public T next() {
+            final long start = System.nanoTime();
+            try {
+                return this.origin.next();
+            } finally {
+                new Trace().record(
+                    String.format("%s.next", this.operation), start
+                );
+            }
+        }
+        @Override
+        public void remove() {
+            this.origin.remove();
+        }
+    }
+
+}
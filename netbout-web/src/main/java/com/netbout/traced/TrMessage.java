@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Message;
+import java.io.IOException;
+import java.util.Date;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Traced Message.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+final class TrMessage implements Message {
+
+    /**
+     * Original.
+     */
+    private final transient Message origin;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     */
+    TrMessage(final Message org) {
+        this.origin = org;
+    }
+
+    @Override
+    public long number() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.number();
+        } finally {
+            new Trace().record("Message.number", start);
+        }
+    }
+
+    @Override
+    public Date date() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.date();
+        } finally {
+            new Trace().record("Message.date", start);
+        }
+    }
+
+    @Override
+    public String text() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.text();
+        } finally {
+            new Trace().record("Message.text", start);
+        }
+    }
+
+    @Override
+    public String author() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.author();
+        } finally {
+            new Trace().record("Message.author", start);
+        }
+    }
+
+}
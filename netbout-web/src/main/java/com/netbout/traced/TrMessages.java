@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.jcabi.aspects.Immutable;
+import com.jcabi.aspects.Loggable;
+import com.netbout.spi.Message;
+import com.netbout.spi.Messages;
+import com.netbout.spi.Pageable;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Traced Messages.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@Immutable
+@Loggable(Loggable.DEBUG)
+@ToString(of = "origin")
+@EqualsAndHashCode(of = "origin")
+final class TrMessages implements Messages {
+
+    /**
+     * Original.
+     */
+    private final transient Messages origin;
+
+    /**
+     * Public ctor.
+     * @param org Origin
+     */
+    TrMessages(final Messages org) {
+        this.origin = org;
+    }
+
+    @Override
+    public void post(final String text) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            this.origin.post(text);
+        } finally {
+            new Trace().record("Messages.post", start, text);
+        }
+    }
+
+    @Override
+    public long unread() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.unread();
+        } finally {
+            new Trace().record("Messages.unread", start);
+        }
+    }
+
+    @Override
+    public long top() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return this.origin.top();
+        } finally {
+            new Trace().record("Messages.top", start);
+        }
+    }
+
+    @Override
+    public Pageable<Message> jump(final long number) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrPageable<>(this.origin.jump(number));
+        } finally {
+            new Trace().record("Messages.jump", start, number);
+        }
+    }
+
+    @Override
+    public Iterable<Message> iterate() throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrIterable<>("Messages.iterate", this.origin.iterate());
+        } finally {
+            new Trace().record("Messages.iterate", start);
+        }
+    }
+
+    @Override
+    public Iterable<Message> search(final String term) throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return new TrIterable<>(
+                "Messages.search", this.origin.search(term)
+            );
+        } finally {
+            new Trace().record("Messages.search", start, term);
+        }
+    }
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.google.common.base.Joiner;
+import com.jcabi.aspects.Tv;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Trace of calls to the base, made by the current thread.
+ *
+ * <p>Calls are recorded only between {@link #start()} and
+ * {@link #finish()}, in the same thread. Threads that never started
+ * a trace, like the ones of {@code @Async} methods, record nothing.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@ToString
+@EqualsAndHashCode
+public final class Trace {
+
+    /**
+     * Spans of the current thread.
+     */
+    private static final ThreadLocal<Trace.Spans> CURRENT =
+        new ThreadLocal<>();
+
+    /**
+     * Start a new trace in the current thread.
+     */
+    public void start() {
+        Trace.CURRENT.set(new Trace.Spans());
+    }
+
+    /**
+     * Record a call, if the trace is started.
+     * @param operation Name of the operation, like "Bout.title"
+     * @param start When the call started, in nanoseconds
+     * @param args Arguments of the call
+     */
+    public void record(final String operation, final long start,
+        final Object... args) {
+        final Trace.Spans spans = Trace.CURRENT.get();
+        if (spans != null) {
+            spans.add(operation, args, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * How many calls are recorded in the current thread so far.
+     * @return Number of calls
+     */
+    public int size() {
+        final Trace.Spans spans = Trace.CURRENT.get();
+        final int size;
+        if (spans == null) {
+            size = 0;
+        } else {
+            size = spans.size();
+        }
+        return size;
+    }
+
+    /**
+     * Finish the trace of the current thread.
+     * @return Spans recorded
+     */
+    public Trace.Spans finish() {
+        Trace.Spans spans = Trace.CURRENT.get();
+        Trace.CURRENT.remove();
+        if (spans == null) {
+            spans = new Trace.Spans();
+        }
+        return spans;
+    }
+
+    /**
+     * Spans of one trace.
+     */
+    public static final class Spans {
+        /**
+         * How many calls to print one by one.
+         */
+        private static final int MAX = Tv.HUNDRED;
+        /**
+         * Calls, in order, up to {@link #MAX}.
+         */
+        private final transient List<String> calls = new ArrayList<>(16);
+        /**
+         * Count and total nanoseconds, by operation.
+         */
+        private final transient Map<String, long[]> totals =
+            new HashMap<>(16);
+        /**
+         * Total number of calls.
+         * @return Number
+         */
+        public int size() {
+            int size = 0;
+            for (final long[] total : this.totals.values()) {
+                size += (int) total[0];
+            }
+            return size;
+        }
+        /**
+         * Print them, the most expensive operations first.
+         * @return Text
+         */
+        public String print() {
+            final List<Map.Entry<String, long[]>> ops =
+                new ArrayList<>(this.totals.entrySet());
+            Collections.sort(
+                ops,
+                new Comparator<Map.Entry<String, long[]>>() {
+                    @Override
+                    public int compare(final Map.Entry<String, long[]> left,
+                        final Map.Entry<String, long[]> right) {
+                        return Long.compare(
+                            right.getValue()[1], left.getValue()[1]
+                        );
+                    }
+                }
+            );
+            final Collection<String> lines = new ArrayList<>(ops.size());
+            for (final Map.Entry<String, long[]> ent : ops) {
+                lines.add(
+                    String.format(
+                        "%s x%d: %dms", ent.getKey(), ent.getValue()[0],
+                        TimeUnit.NANOSECONDS.toMillis(ent.getValue()[1])
+                    )
+                );
+            }
+            lines.add("calls:");
+            lines.addAll(this.calls);
+            if (this.size() > this.calls.size()) {
+                lines.add(
+                    String.format(
+                        "...and %d more", this.size() - this.calls.size()
+                    )
+                );
+            }
+            return Joiner.on('\n').join(lines);
+        }
+        /**
+         * Add a call.
+         * @param operation Name of the operation
+         * @param args Arguments
+         * @param nanos How long it took
+         */
+        private void add(final String operation, final Object[] args,
+            final long nanos) {
+            long[] total = this.totals.get(operation);
+            if (total == null) {
+                total = new long[2];
+                this.totals.put(operation, total);
+            }
+            ++total[0];
+            total[1] += nanos;
+            if (this.calls.size() < Trace.Spans.MAX) {
+                final Collection<String> texts = new ArrayList<>(args.length);
+                for (final Object arg : args) {
+                    texts.add(
+                        StringUtils.abbreviate(String.valueOf(arg), Tv.FORTY)
+                    );
+                }
+                this.calls.add(
+                    String.format(
+                        "%s(%s): %dms", operation,
+                        Joiner.on(", ").join(texts),
+                        TimeUnit.NANOSECONDS.toMillis(nanos)
+                    )
+                );
+            }
+        }
+    }
+
+}
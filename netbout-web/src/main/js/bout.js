@@ -186,6 +186,36 @@ function checkIfUploadShouldBeDisabled() {
     }
 }
 
+function listen(since) {
+  "use strict";
+  var $box = $('#messages'), bout = parseInt($box.attr('data-bout'), 10),
+    me = $box.attr('data-alias');
+  $.ajax(
+    {
+      url: '/events',
+      cache: false,
+      data: since === '' ? {} : { since: since },
+      dataType: 'json',
+      method: 'GET',
+      success: function (data) {
+        $.each(
+          data.events,
+          function (idx, evt) {
+            if (evt.type === 'reload' ||
+                (evt.bout === bout && evt.alias !== me)) {
+              $('#live').show();
+            }
+          }
+        );
+        listen(data.last);
+      },
+      error: function () {
+        window.setTimeout(function () { listen(since); }, 10000);
+      }
+    }
+  );
+}
+
 $(document).ready(
   function () {
     "use strict";
@@ -263,6 +293,9 @@ $(document).ready(
     );
     $("#file-binary").change(checkIfUploadShouldBeDisabled);
     checkIfUploadShouldBeDisabled();
+    if ($('#messages').attr('data-bout')) {
+      listen('');
+    }
   }
 );
 
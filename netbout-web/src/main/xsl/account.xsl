@@ -53,5 +53,26 @@
                 </p>
             </fieldset>
         </form>
+        <form method="post" action="{links/link[@rel='save-digest']/@href}">
+            <fieldset>
+                <p>
+                    <xsl:value-of select="$TEXTS/digest.hello"/>
+                </p>
+                <p>
+                    <label>
+                        <input name="digest" type="checkbox">
+                            <xsl:if test="digest='true'">
+                                <xsl:attribute name="checked">
+                                    <xsl:text>checked</xsl:text>
+                                </xsl:attribute>
+                            </xsl:if>
+                        </input>
+                        <xsl:text> </xsl:text>
+                        <xsl:value-of select="$TEXTS/digest"/>
+                    </label>
+                    <input type="submit" value="{$TEXTS/save.email}"/>
+                </p>
+            </fieldset>
+        </form>
     </xsl:template>
 </xsl:stylesheet>
@@ -126,7 +126,12 @@
                 </fieldset>
             </form>
         </div>
-        <div id="messages" data-more="{messages/message[position()=last()]/links/link[@rel='more']/@href}">
+        <div id="live" style="display:none">
+            <a href="{/page/links/link[@rel='self']/@href}">
+                <xsl:value-of select="$TEXTS/bout.updated"/>
+            </a>
+        </div>
+        <div id="messages" data-bout="{number}" data-alias="{/page/alias/name}" data-more="{messages/message[position()=last()]/links/link[@rel='more']/@href}">
             <xsl:apply-templates select="messages/message"/>
             <div id="tail"/>
         </div>
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.breaker;
+
+import com.amazonaws.AmazonServiceException;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Breaker}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class BreakerTest {
+
+    /**
+     * Breaker can pass calls through while they succeed.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void passesCallsThrough() throws Exception {
+        final Breaker breaker = new Breaker("good", 1, 1000L);
+        MatcherAssert.assertThat(
+            breaker.call(
+                new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return "hello";
+                    }
+                }
+            ),
+            Matchers.equalTo("hello")
+        );
+        MatcherAssert.assertThat(breaker.isOpen(), Matchers.is(false));
+    }
+
+    /**
+     * Breaker can ignore errors, which mean the dependency works.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresClientErrors() throws Exception {
+        final Breaker breaker = new Breaker("picky", 1, 1000L);
+        final Callable<String> call = new Callable<String>() {
+            @Override
+            public String call() {
+                final AmazonServiceException ex =
+                    new AmazonServiceException("condition failed");
+                ex.setStatusCode(HttpURLConnection.HTTP_BAD_REQUEST);
+                ex.setErrorCode("ConditionalCheckFailedException");
+                throw ex;
+            }
+        };
+        for (int idx = 0; idx < Breaker.THRESHOLD; ++idx) {
+            try {
+                breaker.call(call);
+            } catch (final AmazonServiceException ex) {
+                MatcherAssert.assertThat(
+                    ex.getMessage(), Matchers.containsString("condition")
+                );
+            }
+        }
+        MatcherAssert.assertThat(breaker.isOpen(), Matchers.is(false));
+    }
+
+    /**
+     * Breaker can let slow transfers of streams through.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void letsSlowTransfersThrough() throws Exception {
+        final Breaker breaker = new Breaker("bulky", 1, 1L);
+        final Callable<String> call = new Callable<String>() {
+            @Override
+            public String call() throws InterruptedException {
+                TimeUnit.MILLISECONDS.sleep(10L);
+                return "done";
+            }
+        };
+        for (int idx = 0; idx < Breaker.THRESHOLD; ++idx) {
+            breaker.call(call, false);
+        }
+        MatcherAssert.assertThat(breaker.isOpen(), Matchers.is(false));
+    }
+
+    /**
+     * Breaker can open after failures in a row and reject calls.
+     * @throws Exception If there is some problem inside
+     */
+    @Test(expected = Breaker.RejectedException.class)
+    public void opensAfterFailures() throws Exception {
+        final Breaker breaker = new Breaker("bad", 1, 1000L);
+        final Callable<String> call = new Callable<String>() {
+            @Override
+            public String call() throws IOException {
+                throw new IOException("it is down");
+            }
+        };
+        for (int idx = 0; idx < Breaker.THRESHOLD; ++idx) {
+            try {
+                breaker.call(call);
+            } catch (final IOException ex) {
+                MatcherAssert.assertThat(
+                    ex.getMessage(), Matchers.containsString("down")
+                );
+            }
+        }
+        MatcherAssert.assertThat(breaker.isOpen(), Matchers.is(true));
+        breaker.call(call);
+    }
+
+    /**
+     * Breaker can wrap an object and make its calls through the breaker.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void wrapsObjects() throws Exception {
+        final Breaker breaker = new Breaker("wrapped", 1, 1000L);
+        final Runnable task = breaker.wrap(
+            Runnable.class,
+            new Runnable() {
+                @Override
+                public void run() {
+                    // nothing to do
+                }
+            }
+        );
+        task.run();
+        MatcherAssert.assertThat(
+            breaker.print(),
+            Matchers.containsString(
+                "netbout_breaker_calls_total{dependency=\"wrapped\"} 1"
+            )
+        );
+    }
+
+    /**
+     * Breaker can stop waiting for a hung call, in time.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void stopsWaitingForHungCalls() throws Exception {
+        final Breaker breaker = new Breaker("hung", 1, 100L);
+        final long start = System.currentTimeMillis();
+        try {
+            breaker.call(
+                new Callable<String>() {
+                    @Override
+                    public String call() throws InterruptedException {
+                        TimeUnit.MINUTES.sleep(1L);
+                        return "never";
+                    }
+                }
+            );
+        } catch (final IOException ex) {
+            MatcherAssert.assertThat(
+                ex.getMessage(), Matchers.containsString("didn't answer")
+            );
+        }
+        MatcherAssert.assertThat(
+            System.currentTimeMillis() - start,
+            Matchers.lessThan(TimeUnit.SECONDS.toMillis(10L))
+        );
+        MatcherAssert.assertThat(
+            breaker.print(),
+            Matchers.containsString(
+                "netbout_breaker_failures_total{dependency=\"hung\"} 1"
+            )
+        );
+    }
+
+    /**
+     * Breaker can ignore a late success of a call, which started before
+     * the breaker opened.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresLateSuccess() throws Exception {
+        final Breaker breaker = new Breaker("late", 2, 1000L);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService threads = Executors.newSingleThreadExecutor();
+        try {
+            final Future<String> late = threads.submit(
+                new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return breaker.call(
+                            new Callable<String>() {
+                                @Override
+                                public String call()
+                                    throws InterruptedException {
+                                    started.countDown();
+                                    release.await();
+                                    return "late";
+                                }
+                            }
+                        );
+                    }
+                }
+            );
+            started.await();
+            final Callable<String> call = new Callable<String>() {
+                @Override
+                public String call() throws IOException {
+                    throw new IOException("it is gone");
+                }
+            };
+            for (int idx = 0; idx < Breaker.THRESHOLD; ++idx) {
+                try {
+                    breaker.call(call);
+                } catch (final IOException ex) {
+                    MatcherAssert.assertThat(
+                        ex.getMessage(), Matchers.containsString("gone")
+                    );
+                }
+            }
+            release.countDown();
+            MatcherAssert.assertThat(late.get(), Matchers.equalTo("late"));
+            MatcherAssert.assertThat(breaker.isOpen(), Matchers.is(true));
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+}
@@ -26,8 +26,13 @@
  */
 package com.netbout.cached;
 
+import com.netbout.spi.Message;
 import com.netbout.spi.Messages;
+import com.netbout.spi.Pageable;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
+import java.util.Random;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -49,7 +54,7 @@ public final class CdMessagesTest {
     public void flushesUnreadNumber() throws Exception {
         final Messages origin = Mockito.mock(Messages.class);
         Mockito.doReturn(1L).doReturn(2L).when(origin).unread();
-        final Messages messages = new CdMessages(origin);
+        final Messages messages = new CdMessages(origin, 1L);
         MatcherAssert.assertThat(messages.unread(), Matchers.equalTo(1L));
         MatcherAssert.assertThat(messages.unread(), Matchers.equalTo(1L));
         Mockito.doReturn(Collections.emptyList()).when(origin).iterate();
@@ -57,4 +62,112 @@ public final class CdMessagesTest {
         MatcherAssert.assertThat(messages.unread(), Matchers.equalTo(2L));
     }
 
+    /**
+     * CdMessages can cache the head page until a new post.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void cachesHeadPageUntilPost() throws Exception {
+        final Messages origin = Mockito.mock(Messages.class);
+        final long bout = new Random().nextLong();
+        final String first = "first";
+        final String second = "second";
+        Mockito.doReturn(
+            Collections.singletonList(CdMessagesTest.message(1L, first))
+        ).when(origin).iterate();
+        final Messages messages = new CdMessages(origin, bout);
+        MatcherAssert.assertThat(
+            messages.iterate().iterator().next().text(),
+            Matchers.equalTo(first)
+        );
+        Mockito.doReturn(
+            Arrays.asList(
+                CdMessagesTest.message(2L, second),
+                CdMessagesTest.message(1L, first)
+            )
+        ).when(origin).iterate();
+        MatcherAssert.assertThat(
+            messages.iterate().iterator().next().text(),
+            Matchers.equalTo(first)
+        );
+        messages.post(second);
+        MatcherAssert.assertThat(
+            messages.iterate().iterator().next().text(),
+            Matchers.equalTo(second)
+        );
+    }
+
+    /**
+     * CdMessages can cache historical pages forever.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cachesHistoricalPages() throws Exception {
+        final Messages origin = Mockito.mock(Messages.class);
+        final Pageable<Message> older = Mockito.mock(Pageable.class);
+        final long bout = new Random().nextLong();
+        final String text = "old one";
+        // @checkstyle MagicNumber (2 lines)
+        final long head = 7L;
+        final long old = 3L;
+        Mockito.doReturn(
+            Collections.singletonList(CdMessagesTest.message(head, "new"))
+        ).when(origin).iterate();
+        Mockito.doReturn(older).when(origin).jump(head);
+        Mockito.doReturn(
+            Collections.singletonList(CdMessagesTest.message(old, text))
+        ).doReturn(Collections.emptyList()).when(older).iterate();
+        final Messages messages = new CdMessages(origin, bout);
+        messages.iterate();
+        messages.jump(head).iterate();
+        MatcherAssert.assertThat(
+            messages.jump(head).iterate().iterator().next().text(),
+            Matchers.equalTo(text)
+        );
+    }
+
+    /**
+     * CdMessages can tell the newest message without asking the origin.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void takesTopFromCache() throws Exception {
+        final Messages origin = Mockito.mock(Messages.class);
+        final long bout = new Random().nextLong();
+        // @checkstyle MagicNumber (1 line)
+        Mockito.doReturn(5L).when(origin).top();
+        final Messages messages = new CdMessages(origin, bout);
+        // @checkstyle MagicNumber (1 line)
+        MatcherAssert.assertThat(messages.top(), Matchers.equalTo(5L));
+        MatcherAssert.assertThat(messages.top(), Matchers.equalTo(5L));
+        Mockito.verify(origin, Mockito.times(1)).top();
+        Mockito.doReturn(
+            Arrays.asList(
+                CdMessagesTest.message(2L, "hey"),
+                CdMessagesTest.message(1L, "hi")
+            )
+        ).when(origin).iterate();
+        messages.iterate();
+        MatcherAssert.assertThat(messages.top(), Matchers.equalTo(2L));
+        Mockito.verify(origin, Mockito.times(1)).top();
+    }
+
+    /**
+     * Make a message.
+     * @param num Number
+     * @param text Text
+     * @return Message
+     * @throws Exception If fails
+     */
+    private static Message message(final long num, final String text)
+        throws Exception {
+        final Message msg = Mockito.mock(Message.class);
+        Mockito.doReturn(num).when(msg).number();
+        Mockito.doReturn(new Date()).when(msg).date();
+        Mockito.doReturn(text).when(msg).text();
+        Mockito.doReturn("jeff").when(msg).author();
+        return msg;
+    }
+
 }
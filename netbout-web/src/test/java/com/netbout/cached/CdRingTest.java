@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import com.netbout.spi.Message;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link CdRing}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class CdRingTest {
+
+    /**
+     * CdRing can keep only the newest messages.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsNewestMessages() throws Exception {
+        final CdRing ring = new CdRing(2);
+        ring.refill(CdRingTest.messages(2L, 1L), 0L);
+        // @checkstyle MagicNumber (1 line)
+        ring.refill(CdRingTest.messages(4L, 3L, 2L), 0L);
+        MatcherAssert.assertThat(
+            CdRingTest.numbers(ring.messages()),
+            // @checkstyle MagicNumber (1 line)
+            Matchers.contains(4L, 3L)
+        );
+        // @checkstyle MagicNumber (1 line)
+        MatcherAssert.assertThat(ring.top(), Matchers.equalTo(4L));
+    }
+
+    /**
+     * CdRing can pick up a message stored after a newer one.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void picksUpMessagesStoredLate() throws Exception {
+        final CdRing ring = new CdRing(2);
+        // @checkstyle MagicNumber (1 line)
+        ring.refill(CdRingTest.messages(11L, 9L), 0L);
+        // @checkstyle MagicNumber (1 line)
+        ring.refill(CdRingTest.messages(11L, 10L), 0L);
+        MatcherAssert.assertThat(
+            CdRingTest.numbers(ring.messages()),
+            // @checkstyle MagicNumber (1 line)
+            Matchers.contains(11L, 10L)
+        );
+    }
+
+    /**
+     * CdRing can expire and be refilled again.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void expiresUntilRefilled() throws Exception {
+        final CdRing ring = new CdRing(2);
+        MatcherAssert.assertThat(ring.expired(1L), Matchers.is(true));
+        ring.refill(CdRingTest.messages(1L), 0L);
+        MatcherAssert.assertThat(ring.expired(1000L), Matchers.is(false));
+        ring.expire(1L);
+        MatcherAssert.assertThat(ring.expired(1000L), Matchers.is(true));
+    }
+
+    /**
+     * CdRing can ignore refills loaded before the post that expired it.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresLoadsOlderThanPost() throws Exception {
+        final CdRing ring = new CdRing(2);
+        ring.refill(CdRingTest.messages(1L), 1L);
+        ring.expire(2L);
+        MatcherAssert.assertThat(
+            ring.refill(CdRingTest.messages(1L), 1L),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(ring.expired(1000L), Matchers.is(true));
+        MatcherAssert.assertThat(
+            ring.refill(CdRingTest.messages(2L, 1L), 2L),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            CdRingTest.numbers(ring.messages()),
+            Matchers.contains(2L, 1L)
+        );
+        MatcherAssert.assertThat(ring.expired(1000L), Matchers.is(false));
+    }
+
+    /**
+     * Make messages, newest first.
+     * @param nums Their numbers
+     * @return Messages
+     * @throws Exception If fails
+     */
+    private static List<Message> messages(final long... nums)
+        throws Exception {
+        final List<Message> list = new ArrayList<>(nums.length);
+        for (final long num : nums) {
+            final Message msg = Mockito.mock(Message.class);
+            Mockito.doReturn(num).when(msg).number();
+            Mockito.doReturn(new Date()).when(msg).date();
+            Mockito.doReturn("hi").when(msg).text();
+            Mockito.doReturn("jeff").when(msg).author();
+            list.add(new CdSnapshot(msg));
+        }
+        return list;
+    }
+
+    /**
+     * Numbers of messages.
+     * @param msgs Messages
+     * @return Numbers
+     * @throws Exception If fails
+     */
+    private static List<Long> numbers(final List<Message> msgs)
+        throws Exception {
+        final List<Long> list = new ArrayList<>(msgs.size());
+        for (final Message msg : msgs) {
+            list.add(msg.number());
+        }
+        return list;
+    }
+
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import com.netbout.spi.Message;
+import java.util.Date;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Test case for {@link CdSnapshot}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class CdSnapshotTest {
+
+    /**
+     * CdSnapshot can keep all attributes of a message.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsAllAttributes() throws Exception {
+        final String text = "\u041f\u0440\u0438\u0432\u0435\u0442, \u4e16!";
+        final Date date = new Date();
+        final Message msg = Mockito.mock(Message.class);
+        Mockito.doReturn(1L).when(msg).number();
+        Mockito.doReturn(date).when(msg).date();
+        Mockito.doReturn(text).when(msg).text();
+        Mockito.doReturn("walter").when(msg).author();
+        final CdSnapshot snapshot = new CdSnapshot(msg);
+        MatcherAssert.assertThat(snapshot.text(), Matchers.equalTo(text));
+        MatcherAssert.assertThat(snapshot.date(), Matchers.equalTo(date));
+        MatcherAssert.assertThat(snapshot.author(), Matchers.equalTo("walter"));
+        MatcherAssert.assertThat(snapshot.number(), Matchers.equalTo(1L));
+    }
+
+    /**
+     * CdSnapshot can take less heap than the text it keeps.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void takesLessHeapThanText() throws Exception {
+        final String text = "hello, world! ";
+        final StringBuilder big = new StringBuilder(0);
+        // @checkstyle MagicNumber (1 line)
+        for (int idx = 0; idx < 100; ++idx) {
+            big.append(text);
+        }
+        final Message msg = Mockito.mock(Message.class);
+        Mockito.doReturn(1L).when(msg).number();
+        Mockito.doReturn(new Date()).when(msg).date();
+        Mockito.doReturn(big.toString()).when(msg).text();
+        Mockito.doReturn("jesse").when(msg).author();
+        MatcherAssert.assertThat(
+            new CdSnapshot(msg).weight(),
+            Matchers.lessThan(big.length() * 2)
+        );
+    }
+
+    /**
+     * CdSnapshot can take less heap than a snapshot, which keeps
+     * the text as a string.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void takesLessHeapThanStrings() throws Exception {
+        final StringBuilder text = new StringBuilder(0);
+        // @checkstyle MagicNumber (1 line)
+        for (int idx = 0; idx < 4; ++idx) {
+            text.append("Hello, let's meet tomorrow at ten, number 42. ");
+        }
+        final Message msg = Mockito.mock(Message.class);
+        Mockito.doReturn(1L).when(msg).number();
+        Mockito.doReturn(new Date()).when(msg).date();
+        Mockito.doReturn(text.toString()).when(msg).text();
+        Mockito.doReturn("hank").when(msg).author();
+        MatcherAssert.assertThat(
+            GraphLayout.parseInstance(new CdSnapshot(msg)).totalSize(),
+            Matchers.lessThan(
+                GraphLayout.parseInstance(
+                    new CdSnapshotTest.Strings(
+                        1L, System.currentTimeMillis(),
+                        text.toString(), new String("hank".toCharArray())
+                    )
+                ).totalSize()
+            )
+        );
+    }
+
+    /**
+     * Snapshot, which keeps the text and the author as strings, the way
+     * it was before.
+     */
+    @SuppressWarnings("PMD.UnusedPrivateField")
+    private static final class Strings {
+        /**
+         * Number of the message.
+         */
+        private final transient long num;
+        /**
+         * Date of creation, in milliseconds.
+         */
+        private final transient long time;
+        /**
+         * Text of the message.
+         */
+        private final transient String txt;
+        /**
+         * Author of the message.
+         */
+        private final transient String alias;
+        /**
+         * Ctor.
+         * @param number Number of the message
+         * @param date Date of creation, in milliseconds
+         * @param text Text of the message
+         * @param author Author of the message
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Strings(final long number, final long date, final String text,
+            final String author) {
+            this.num = number;
+            this.time = date;
+            this.txt = text;
+            this.alias = author;
+        }
+    }
+
+}
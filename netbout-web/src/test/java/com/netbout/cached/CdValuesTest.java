@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.cached;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link CdValues}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class CdValuesTest {
+
+    /**
+     * CdValues can serve a stale value and refresh it in background.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void servesStaleValueWhileRefreshing() throws Exception {
+        final CdValues values = new CdValues(
+            0L, TimeUnit.MINUTES.toMillis(1L)
+        );
+        final Object owner = new Object();
+        final AtomicInteger loads = new AtomicInteger();
+        final Callable<Integer> load = new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return loads.incrementAndGet();
+            }
+        };
+        MatcherAssert.assertThat(
+            values.get(owner, "num", load), Matchers.equalTo(1)
+        );
+        TimeUnit.MILLISECONDS.sleep(2L);
+        // @checkstyle MagicNumber (8 lines)
+        MatcherAssert.assertThat(
+            values.get(owner, "num", load), Matchers.equalTo(1)
+        );
+        for (int idx = 0; idx < 100 && loads.get() < 2; ++idx) {
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+        TimeUnit.MILLISECONDS.sleep(10L);
+        MatcherAssert.assertThat(
+            values.get(owner, "num", load), Matchers.equalTo(2)
+        );
+    }
+
+    /**
+     * CdValues can load a value again when it's too old or flushed.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void loadsExpiredAndFlushedValues() throws Exception {
+        final Object owner = new Object();
+        final AtomicInteger loads = new AtomicInteger();
+        final Callable<Integer> load = new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return loads.incrementAndGet();
+            }
+        };
+        final CdValues values = new CdValues(
+            TimeUnit.MINUTES.toMillis(1L), TimeUnit.MINUTES.toMillis(1L)
+        );
+        MatcherAssert.assertThat(
+            values.get(owner, "x", load), Matchers.equalTo(1)
+        );
+        MatcherAssert.assertThat(
+            values.get(owner, "x", load), Matchers.equalTo(1)
+        );
+        values.flush(owner);
+        MatcherAssert.assertThat(
+            values.get(owner, "x", load), Matchers.equalTo(2)
+        );
+        // @checkstyle MagicNumber (4 lines)
+        MatcherAssert.assertThat(
+            new CdValues(0L, -1L).get(owner, "x", load),
+            Matchers.equalTo(3)
+        );
+    }
+
+}
@@ -118,4 +118,21 @@ public final class DyAliasITCase {
         }
     }
 
+    /**
+     * DyAlias can save digest preference.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void savesDigestPreference() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:15")).aliases();
+        aliases.add("bunny");
+        final Alias alias = aliases.iterate().iterator().next();
+        MatcherAssert.assertThat(alias.digest(), Matchers.is(false));
+        alias.digest(true);
+        MatcherAssert.assertThat(alias.digest(), Matchers.is(true));
+        alias.digest(false);
+        MatcherAssert.assertThat(alias.digest(), Matchers.is(false));
+    }
+
 }
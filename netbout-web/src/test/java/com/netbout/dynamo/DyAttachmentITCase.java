@@ -34,6 +34,10 @@ import com.netbout.spi.Attachments;
 import com.netbout.spi.Bout;
 import com.netbout.spi.Inbox;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.Arrays;
+import java.util.Collection;
 import javax.ws.rs.core.MediaType;
 import org.apache.commons.io.IOUtils;
 import org.hamcrest.MatcherAssert;
@@ -85,6 +89,48 @@ public final class DyAttachmentITCase {
         );
     }
 
+    /**
+     * DyAttachment can upload big content and delete its temporary file.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void deletesTemporaryFileOfBigContent() throws Exception {
+        final Aliases aliases =
+            new DyBase().user(new URN("urn:test:89638")).aliases();
+        aliases.add("delta");
+        final Inbox inbox = aliases.iterate().iterator().next().inbox();
+        final Attachments attachments =
+            inbox.bout(inbox.start()).attachments();
+        final String name = "big";
+        attachments.create(name);
+        final Attachment attachment = attachments.get(name);
+        final byte[] bytes = new byte[Tv.HUNDRED * Tv.THOUSAND];
+        for (int idx = 0; idx < bytes.length; ++idx) {
+            bytes[idx] = (byte) idx;
+        }
+        final File dir = new File(System.getProperty("java.io.tmpdir"));
+        final FilenameFilter temps = new FilenameFilter() {
+            @Override
+            public boolean accept(final File folder, final String file) {
+                return file.startsWith(DyAttachment.class.getSimpleName());
+            }
+        };
+        final Collection<String> before = Arrays.asList(dir.list(temps));
+        attachment.write(
+            new ByteArrayInputStream(bytes),
+            MediaType.APPLICATION_OCTET_STREAM,
+            Long.toString(System.currentTimeMillis())
+        );
+        MatcherAssert.assertThat(
+            IOUtils.toByteArray(attachment.read()),
+            Matchers.equalTo(bytes)
+        );
+        MatcherAssert.assertThat(
+            before,
+            Matchers.hasItems(dir.list(temps))
+        );
+    }
+
     /**
      * DyAttachment can obtain author of an attachment.
      * @throws Exception If there is some problem inside
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.dynamo;
+
+import com.jcabi.urn.URN;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Aliases;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Inbox;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Integration case for {@link DyRoster}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle MagicNumber (500 lines)
+ */
+public final class DyRosterITCase {
+
+    /**
+     * DyRoster can load emails, photos and digests of friends.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void loadsEmailsPhotosAndDigests() throws Exception {
+        final DyBase base = new DyBase();
+        final Alias walter = DyRosterITCase.alias(base, "urn:test:8601");
+        walter.email("walter@example.com");
+        walter.photo(new URI("http://localhost#walter"));
+        walter.digest(true);
+        final Alias donny = DyRosterITCase.alias(base, "urn:test:8602");
+        final Inbox inbox = walter.inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.friends().invite(donny.name());
+        final Map<String, Friend> friends = new HashMap<>(2);
+        for (final Friend friend : bout.friends().iterate()) {
+            friends.put(friend.alias(), friend);
+        }
+        MatcherAssert.assertThat(friends.size(), Matchers.equalTo(2));
+        MatcherAssert.assertThat(
+            friends.get(walter.name()).email(),
+            Matchers.equalTo("walter@example.com")
+        );
+        MatcherAssert.assertThat(
+            friends.get(walter.name()).photo().toString(),
+            Matchers.containsString("#walter")
+        );
+        MatcherAssert.assertThat(
+            friends.get(walter.name()).digest(),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            friends.get(donny.name()).email(),
+            Matchers.isEmptyString()
+        );
+        MatcherAssert.assertThat(
+            friends.get(donny.name()).digest(),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            friends.get(donny.name()).photo(),
+            Matchers.equalTo(Alias.BLANK)
+        );
+    }
+
+    /**
+     * DyRoster can load more friends than fit into one batch.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void loadsManyFriends() throws Exception {
+        final DyBase base = new DyBase();
+        final Alias host = DyRosterITCase.alias(base, "urn:test:8610");
+        final Inbox inbox = host.inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        final int total = 130;
+        for (int idx = 0; idx < total; ++idx) {
+            final Alias guest = DyRosterITCase.alias(
+                base, String.format("urn:test:87%03d", idx)
+            );
+            guest.email(String.format("guest%d@example.com", idx));
+            bout.friends().invite(guest.name());
+        }
+        int emails = 0;
+        for (final Friend friend : bout.friends().iterate()) {
+            if (!friend.email().isEmpty()) {
+                ++emails;
+            }
+        }
+        MatcherAssert.assertThat(emails, Matchers.equalTo(total));
+    }
+
+    /**
+     * DyRoster can see subscription changes at once.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void seesSubscriptionChanges() throws Exception {
+        final DyBase base = new DyBase();
+        final Alias jeff = DyRosterITCase.alias(base, "urn:test:8620");
+        final Alias maude = DyRosterITCase.alias(base, "urn:test:8621");
+        final Inbox inbox = jeff.inbox();
+        final Bout bout = inbox.bout(inbox.start());
+        bout.friends().invite(maude.name());
+        MatcherAssert.assertThat(
+            bout.subscription(maude.name()), Matchers.is(true)
+        );
+        maude.inbox().bout(bout.number()).subscribe(false);
+        MatcherAssert.assertThat(
+            bout.subscription(maude.name()), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            bout.subscription("somebody-else"), Matchers.is(true)
+        );
+    }
+
+    /**
+     * Make an alias for a new user.
+     * @param base Base
+     * @param urn URN of the user
+     * @return Alias
+     * @throws Exception If there is some problem inside
+     */
+    private static Alias alias(final DyBase base, final String urn)
+        throws Exception {
+        final Aliases aliases = base.user(new URN(urn)).aliases();
+        aliases.add(
+            String.format("roster%s", urn.substring(urn.lastIndexOf(':') + 1))
+        );
+        return aliases.iterate().iterator().next();
+    }
+
+}
@@ -93,4 +93,24 @@ public final class EmActionTest {
             Matchers.containsString(text)
         );
     }
+
+    /**
+     * EmAction can skip reply addresses it can't decode.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void skipsForgedAddresses() throws Exception {
+        MatcherAssert.assertThat(
+            EmAction.bout(
+                new Envelope.MIME(
+                    new Array<>(
+                        new StSender("Walter <walter@example.com>"),
+                        new StRecipient("1-forged@reply.netbout.com")
+                    ),
+                    new Array<Enclosure>(new EnPlain("hey"))
+                ).unwrap()
+            ),
+            Matchers.equalTo(0L)
+        );
+    }
 }
@@ -31,11 +31,20 @@ import com.icegreen.greenmail.util.GreenMail;
 import com.icegreen.greenmail.util.GreenMailUtil;
 import com.icegreen.greenmail.util.ServerSetup;
 import com.netbout.misc.Ports;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.mail.Message;
-import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
 /**
@@ -43,76 +52,213 @@ import org.junit.Test;
  * @author Erim Erturk (erimerturk@gmail.com)
  * @version $Id$
  * @since 2.15
+ * @checkstyle MagicNumber (500 lines)
  */
 public final class EmCatchTest {
 
     /**
-     * EmCatch can periodically read inbox and call Action.run.
+     * Login.
+     */
+    private static final String LOGIN = "to";
+
+    /**
+     * Password.
+     */
+    private static final String PASSWORD = "soooosecret";
+
+    /**
+     * Sender.
+     */
+    private static final String FROM = "from@localhost.com";
+
+    /**
+     * Recipient.
+     */
+    private static final String TO = "to@localhost.com";
+
+    /**
+     * IMAP server.
+     */
+    private transient GreenMail mail;
+
+    /**
+     * Catchers started.
+     */
+    private final transient Collection<Closeable> catchers =
+        new CopyOnWriteArrayList<>();
+
+    /**
+     * Start IMAP server.
+     * @throws Exception If there is some problem inside
+     */
+    @Before
+    public void start() throws Exception {
+        this.mail = new GreenMail(
+            new ServerSetup(Ports.allocate(), null, "imap")
+        );
+        this.mail.start();
+    }
+
+    /**
+     * Stop catchers and IMAP server.
+     * @throws Exception If there is some problem inside
+     */
+    @After
+    public void stop() throws Exception {
+        for (final Closeable catcher : this.catchers) {
+            catcher.close();
+        }
+        final int port = this.mail.getImap().getServerSetup().getPort();
+        this.mail.stop();
+        Ports.release(port);
+    }
+
+    /**
+     * EmCatch can read new messages from inbox and call Action.run.
      * @throws Exception If there is some problem inside
      */
     @Test
-    public void readsInboxPeriodically() throws Exception {
-        final GreenMail mail = new GreenMail(
-            new ServerSetup(Ports.allocate(), null, "pop3")
+    public void readsInbox() throws Exception {
+        final GreenMailUser user = this.mail.setUser(
+            EmCatchTest.LOGIN, EmCatchTest.PASSWORD
         );
-        mail.start();
-        final ServerSetup setup = mail.getPop3().getServerSetup();
-        final String login = "to";
-        // @checkstyle MagicNumberCheck (1 line)
-        final String from = "from@localhost.com";
-        // @checkstyle LocalFinalVariableNameCheck (1 line)
-        final String to = "to@localhost.com";
-        final String password = "soooosecret";
+        final BlockingQueue<Message> caught = this.listen();
         final String subject = GreenMailUtil.random();
-        final String body = GreenMailUtil.random();
-        final GreenMailUser user = mail.setUser(login, password);
-        new EmCatch(
-            // @checkstyle AnonInnerLengthCheck (22 lines)
+        user.deliver(this.message(subject, "<first@localhost>"));
+        final Message msg = caught.poll(10L, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(msg, Matchers.notNullValue());
+        MatcherAssert.assertThat(msg.getSubject(), Matchers.equalTo(subject));
+        MatcherAssert.assertThat(
+            msg.getFrom()[0].toString(),
+            Matchers.equalTo(EmCatchTest.FROM)
+        );
+        MatcherAssert.assertThat(
+            msg.getAllRecipients()[0].toString(),
+            Matchers.equalTo(EmCatchTest.TO)
+        );
+    }
+
+    /**
+     * EmCatch can process a message with the same Message-ID only once.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresDuplicateMessages() throws Exception {
+        final GreenMailUser user = this.mail.setUser(
+            EmCatchTest.LOGIN, EmCatchTest.PASSWORD
+        );
+        final BlockingQueue<Message> caught = this.listen();
+        final String dup = "<twice@localhost>";
+        user.deliver(this.message("once", dup));
+        user.deliver(this.message("twice", dup));
+        user.deliver(this.message("other", "<other@localhost>"));
+        MatcherAssert.assertThat(
+            caught.poll(10L, TimeUnit.SECONDS),
+            Matchers.notNullValue()
+        );
+        MatcherAssert.assertThat(
+            caught.poll(10L, TimeUnit.SECONDS),
+            Matchers.notNullValue()
+        );
+        MatcherAssert.assertThat(
+            caught.poll(2L, TimeUnit.SECONDS),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * EmCatch can try again a message it failed to process.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void retriesFailedMessages() throws Exception {
+        final GreenMailUser user = this.mail.setUser(
+            EmCatchTest.LOGIN, EmCatchTest.PASSWORD
+        );
+        final BlockingQueue<Message> caught = new LinkedBlockingQueue<>();
+        final AtomicBoolean failed = new AtomicBoolean();
+        this.listen(
             new EmCatch.Action() {
                 @Override
-                public void run(final Message msg) {
-                    MatcherAssert.assertThat(msg, Matchers.notNullValue());
-                    try {
-                        MatcherAssert.assertThat(
-                            msg.getSubject(),
-                            Matchers.equalTo(subject)
-                        );
-                        MatcherAssert.assertThat(
-                            msg.getFrom()[0].toString(),
-                            Matchers.equalTo(from)
-                        );
-                        MatcherAssert.assertThat(
-                            msg.getAllRecipients()[0].toString(),
-                            Matchers.equalTo(to)
-                        );
-                    } catch (final MessagingException ex) {
-                        throw new IllegalStateException(ex);
+                public void run(final Message msg) throws IOException {
+                    if (failed.compareAndSet(false, true)) {
+                        throw new IOException("can't process now");
                     }
+                    caught.add(msg);
                 }
-            },
-            login,
-            password,
-            setup.getBindAddress(),
-            setup.getPort(),
-            // @checkstyle MagicNumberCheck (1 line)
-            500L
-        ).start();
-        final MimeMessage message = GreenMailUtil.createTextEmail(
-            to,
-            from,
-            subject,
-            body,
-            setup
+            }
+        );
+        final String first = "failed once";
+        user.deliver(this.message(first, "<failed@localhost>"));
+        MatcherAssert.assertThat(
+            caught.poll(2L, TimeUnit.SECONDS),
+            Matchers.nullValue()
         );
-        user.deliver(message);
+        user.deliver(this.message("next", "<next@localhost>"));
+        final Collection<String> subjects = new CopyOnWriteArrayList<>();
+        for (int idx = 0; idx < 2; ++idx) {
+            final Message msg = caught.poll(10L, TimeUnit.SECONDS);
+            MatcherAssert.assertThat(msg, Matchers.notNullValue());
+            subjects.add(msg.getSubject());
+        }
         MatcherAssert.assertThat(
-            mail.getReceivedMessages().length,
-            Matchers.equalTo(1)
+            subjects, Matchers.containsInAnyOrder(first, "next")
+        );
+    }
+
+    /**
+     * Start catching and collect everything caught.
+     * @return Messages caught
+     */
+    private BlockingQueue<Message> listen() {
+        final BlockingQueue<Message> caught = new LinkedBlockingQueue<>();
+        this.listen(
+            new EmCatch.Action() {
+                @Override
+                public void run(final Message msg) {
+                    caught.add(msg);
+                }
+            }
+        );
+        return caught;
+    }
+
+    /**
+     * Start catching.
+     * @param action Action
+     */
+    private void listen(final EmCatch.Action action) {
+        final ServerSetup setup = this.mail.getImap().getServerSetup();
+        this.catchers.add(
+            new EmCatch(
+                action,
+                EmCatchTest.LOGIN,
+                EmCatchTest.PASSWORD,
+                setup.getBindAddress(),
+                setup.getPort(),
+                1L
+            ).start()
+        );
+    }
+
+    /**
+     * Make a message.
+     * @param subject Subject
+     * @param mid Message-ID
+     * @return Message
+     * @throws Exception If there is some problem inside
+     */
+    private MimeMessage message(final String subject, final String mid)
+        throws Exception {
+        final MimeMessage message = GreenMailUtil.createTextEmail(
+            EmCatchTest.TO,
+            EmCatchTest.FROM,
+            subject,
+            GreenMailUtil.random(),
+            this.mail.getImap().getServerSetup()
         );
-        // @checkstyle MagicNumberCheck (1 line)
-        Thread.sleep(1000);
-        Ports.release(setup.getPort());
-        mail.stop();
+        message.setHeader("Message-ID", mid);
+        return message;
     }
 
 }
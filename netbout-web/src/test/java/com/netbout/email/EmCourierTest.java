@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.jcabi.email.Envelope;
+import com.jcabi.email.Postman;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import java.util.List;
+import javax.mail.Message;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link EmCourier}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle MagicNumber (500 lines)
+ */
+public final class EmCourierTest {
+
+    /**
+     * EmCourier can render a notice once and send it to many friends.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersOnceAndSendsToMany() throws Exception {
+        final Postman postman = Mockito.mock(Postman.class);
+        final Bout bout = Mockito.mock(Bout.class);
+        Mockito.doReturn(42L).when(bout).number();
+        Mockito.doReturn("weekend plans").when(bout).title();
+        final EmCourier.Notice notice = new EmCourier(postman, bout)
+            .notice("jeff", "let's go **bowling**", "key-1");
+        notice.email(EmCourierTest.friend("walter"));
+        notice.email(EmCourierTest.friend("donny"));
+        Mockito.verify(bout, Mockito.times(1)).title();
+        final ArgumentCaptor<Envelope> captor =
+            ArgumentCaptor.forClass(Envelope.class);
+        Mockito.verify(postman, Mockito.times(2)).send(captor.capture());
+        final List<Envelope> envelopes = captor.getAllValues();
+        final Message first = envelopes.get(0).unwrap();
+        MatcherAssert.assertThat(
+            first.getSubject(),
+            Matchers.equalTo("#42: weekend plans")
+        );
+        MatcherAssert.assertThat(
+            first.getAllRecipients()[0].toString(),
+            Matchers.containsString("walter@example.com")
+        );
+        MatcherAssert.assertThat(
+            envelopes.get(1).unwrap().getAllRecipients()[0].toString(),
+            Matchers.containsString("donny@example.com")
+        );
+    }
+
+    /**
+     * Make a friend.
+     * @param alias Alias
+     * @return Friend
+     * @throws Exception If there is some problem inside
+     */
+    private static Friend friend(final String alias) throws Exception {
+        final Friend friend = Mockito.mock(Friend.class);
+        Mockito.doReturn(alias).when(friend).alias();
+        Mockito.doReturn(String.format("%s@example.com", alias))
+            .when(friend).email();
+        return friend;
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.jcabi.email.Envelope;
+import com.jcabi.email.Postman;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.mock.MkRegion;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import javax.mail.Message;
+import javax.mail.internet.MimeMultipart;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link EmDigest}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle MagicNumber (500 lines)
+ */
+public final class EmDigestTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * EmDigest can send many notifications in one email.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void sendsManyNotificationsInOneEmail() throws Exception {
+        final Postman postman = Mockito.mock(Postman.class);
+        final Bucket bucket = new MkRegion(this.folder.newFolder())
+            .bucket("digests");
+        final EmDigest digest = new EmDigest(postman, bucket, 500L);
+        digest.add(
+            "jeff", "jeff@example.com",
+            new EmDigest.Item(
+                1L, "first", "walter", "<p>hey</p>", "a@example.com", "k1"
+            )
+        );
+        digest.add(
+            "jeff", "jeff@example.com",
+            new EmDigest.Item(
+                2L, "second", "donny", "<p>hi</p>", "b@example.com", "k2"
+            )
+        );
+        final ArgumentCaptor<Envelope> captor =
+            ArgumentCaptor.forClass(Envelope.class);
+        Mockito.verify(postman, Mockito.timeout(5000L))
+            .send(captor.capture());
+        final Message msg = captor.getValue().unwrap();
+        MatcherAssert.assertThat(
+            msg.getSubject(),
+            Matchers.equalTo("2 new message(s) in 2 bout(s)")
+        );
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        MimeMultipart.class.cast(msg.getContent()).writeTo(baos);
+        MatcherAssert.assertThat(
+            baos.toString(),
+            Matchers.allOf(
+                Matchers.containsString("mailto:a@example.com"),
+                Matchers.containsString("mailto:b@example.com")
+            )
+        );
+    }
+
+    /**
+     * EmDigest can send notifications left by the previous run.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void sendsNotificationsLeftByPreviousRun() throws Exception {
+        final Bucket bucket = new MkRegion(this.folder.newFolder())
+            .bucket("digests");
+        final long hour = TimeUnit.HOURS.toMillis(1L);
+        new EmDigest(Mockito.mock(Postman.class), bucket, hour).add(
+            "maude", "maude@example.com",
+            new EmDigest.Item(
+                3L, "third", "walter", "<p>rug</p>", "c@example.com", "k3"
+            )
+        );
+        MatcherAssert.assertThat(
+            bucket.list(""),
+            Matchers.<String>iterableWithSize(1)
+        );
+        final Postman postman = Mockito.mock(Postman.class);
+        new EmDigest(postman, bucket, hour).recover();
+        final ArgumentCaptor<Envelope> captor =
+            ArgumentCaptor.forClass(Envelope.class);
+        Mockito.verify(postman, Mockito.timeout(5000L))
+            .send(captor.capture());
+        MatcherAssert.assertThat(
+            captor.getValue().unwrap().getSubject(),
+            Matchers.equalTo("1 new message(s) in 1 bout(s)")
+        );
+    }
+
+}
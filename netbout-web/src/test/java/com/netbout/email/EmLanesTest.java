@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.jcabi.email.Enclosure;
+import com.jcabi.email.Envelope;
+import com.jcabi.email.enclosure.EnPlain;
+import com.jcabi.email.stamp.StRecipient;
+import com.jcabi.email.stamp.StSubject;
+import com.jcabi.immutable.Array;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link EmLanes}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle MagicNumber (500 lines)
+ */
+public final class EmLanesTest {
+
+    /**
+     * EmLanes can keep the order of messages in a bout.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsOrderInBout() throws Exception {
+        final int total = 50;
+        final EmLanesTest.Recorder recorder = new EmLanesTest.Recorder(total);
+        final EmCatch.Action action = new EmLanes(recorder);
+        for (int idx = 0; idx < total; ++idx) {
+            action.run(EmLanesTest.message(1001L, Integer.toString(idx), ""));
+        }
+        recorder.await();
+        for (int idx = 0; idx < total; ++idx) {
+            MatcherAssert.assertThat(
+                recorder.subjects().get(idx),
+                Matchers.equalTo(Integer.toString(idx))
+            );
+        }
+    }
+
+    /**
+     * EmLanes can post a message with the same Message-ID only once.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresReplays() throws Exception {
+        final EmLanesTest.Recorder recorder = new EmLanesTest.Recorder(2);
+        final EmCatch.Action action = new EmLanes(recorder);
+        final String first = "<first-1002@example.com>";
+        action.run(EmLanesTest.message(1002L, "first", first));
+        action.run(EmLanesTest.message(1002L, "replay", first));
+        action.run(
+            EmLanesTest.message(1002L, "second", "<second-1002@example.com>")
+        );
+        recorder.await();
+        MatcherAssert.assertThat(
+            recorder.subjects(),
+            Matchers.contains("first", "second")
+        );
+    }
+
+    /**
+     * Make a reply to the bout.
+     * @param bout Bout number
+     * @param subject Subject
+     * @param mid Message-ID or empty
+     * @return Message
+     * @throws Exception If there is some problem inside
+     */
+    private static Message message(final long bout, final String subject,
+        final String mid) throws Exception {
+        final Message msg = new Envelope.MIME(
+            new Array<>(
+                new StSubject(subject),
+                new StRecipient(
+                    String.format(
+                        "%s@reply.netbout.com",
+                        EmCatch.encrypt(
+                            String.format("urn:test:1|%d", bout)
+                        )
+                    )
+                )
+            ),
+            new Array<Enclosure>(new EnPlain("hey"))
+        ).unwrap();
+        if (!mid.isEmpty()) {
+            msg.setHeader("Message-ID", mid);
+        }
+        return msg;
+    }
+
+    /**
+     * Action that records subjects.
+     */
+    private static final class Recorder implements EmCatch.Action {
+        /**
+         * Subjects seen.
+         */
+        private final transient List<String> seen =
+            new CopyOnWriteArrayList<>();
+        /**
+         * Latch.
+         */
+        private final transient CountDownLatch latch;
+        /**
+         * Ctor.
+         * @param total How many messages to wait for
+         */
+        Recorder(final int total) {
+            this.latch = new CountDownLatch(total);
+        }
+        @Override
+        public void run(final Message msg) {
+            try {
+                this.seen.add(msg.getSubject());
+            } catch (final MessagingException ex) {
+                throw new IllegalStateException(ex);
+            }
+            this.latch.countDown();
+        }
+        /**
+         * Wait for all messages.
+         * @throws InterruptedException If interrupted
+         */
+        public void await() throws InterruptedException {
+            MatcherAssert.assertThat(
+                this.latch.await(1L, TimeUnit.MINUTES),
+                Matchers.is(true)
+            );
+        }
+        /**
+         * Subjects seen so far.
+         * @return Subjects
+         */
+        public List<String> subjects() {
+            return this.seen;
+        }
+    }
+
+}
@@ -37,7 +37,6 @@ import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
-import org.takes.facets.forward.RsFailure;
 
 /**
  * Test case for {@link EmMessages}.
@@ -48,12 +47,11 @@ import org.takes.facets.forward.RsFailure;
 public final class EmMessagesTest {
 
     /**
-     * Can throw a user-friendly exception in case of email
-     * delivery failure.
+     * Can post a message even if its email notifications fail.
      * @throws Exception If there is some problem inside
      */
-    @Test(expected = RsFailure.class)
-    public void throwsUserFriendlyExceptionOnFailure() throws Exception {
+    @Test
+    public void postsEvenIfEmailFails() throws Exception {
         final Postman postman = Mockito.mock(Postman.class);
         final MkBase base = new MkBase();
         final Alias alias = new EmAlias(base.randomAlias(), postman);
@@ -67,7 +65,13 @@ public final class EmMessagesTest {
             bout,
             alias.name()
         );
-        messages.post("how are you?");
+        final String text = "how are you?";
+        messages.post(text);
+        MatcherAssert.assertThat(
+            messages.iterate().iterator().next().text(),
+            Matchers.equalTo(text)
+        );
+        Mockito.verify(postman).send(Mockito.any(Envelope.class));
     }
 
     /**
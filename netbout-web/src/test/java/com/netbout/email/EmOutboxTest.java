@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.email.Envelope;
+import com.jcabi.email.Postman;
+import com.jcabi.email.enclosure.EnPlain;
+import com.jcabi.email.stamp.StRecipient;
+import com.jcabi.email.stamp.StSubject;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.mock.MkRegion;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link EmOutbox}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle MagicNumber (500 lines)
+ */
+public final class EmOutboxTest {
+
+    /**
+     * Temporary folder.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final transient TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * EmOutbox can deliver envelopes in background.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void deliversInBackground() throws Exception {
+        final Postman postman = Mockito.mock(Postman.class);
+        final String subject = "hello, outbox";
+        new EmOutbox(postman, this.bucket())
+            .send(EmOutboxTest.envelope(subject));
+        final ArgumentCaptor<Envelope> captor =
+            ArgumentCaptor.forClass(Envelope.class);
+        Mockito.verify(postman, Mockito.timeout(5000L))
+            .send(captor.capture());
+        MatcherAssert.assertThat(
+            captor.getValue().unwrap().getSubject(),
+            Matchers.equalTo(subject)
+        );
+    }
+
+    /**
+     * EmOutbox can deliver the same notification to the same recipient
+     * only once.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresDuplicates() throws Exception {
+        final Postman postman = Mockito.mock(Postman.class);
+        final Envelope envelope = EmOutboxTest.envelope("twice");
+        final Postman outbox = new EmOutbox(postman, this.bucket());
+        outbox.send(envelope);
+        outbox.send(envelope);
+        Mockito.verify(postman, Mockito.timeout(5000L))
+            .send(Mockito.any(Envelope.class));
+        outbox.send(envelope);
+        TimeUnit.SECONDS.sleep(1L);
+        Mockito.verify(postman, Mockito.times(1))
+            .send(Mockito.any(Envelope.class));
+    }
+
+    /**
+     * EmOutbox can return at once, even if the postman fails.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void acceptsEnvelopesWhenPostmanFails() throws Exception {
+        final Postman postman = Mockito.mock(Postman.class);
+        Mockito.doThrow(new IOException("SMTP is down")).when(postman)
+            .send(Mockito.any(Envelope.class));
+        final long before = EmOutboxTest.retries();
+        new EmOutbox(postman, this.bucket())
+            .send(EmOutboxTest.envelope("failing"));
+        Mockito.verify(postman, Mockito.timeout(5000L))
+            .send(Mockito.any(Envelope.class));
+        long retries = 0L;
+        for (int idx = 0; idx < 50 && retries < 1L; ++idx) {
+            TimeUnit.MILLISECONDS.sleep(100L);
+            retries = EmOutboxTest.retries() - before;
+        }
+        MatcherAssert.assertThat(
+            retries,
+            Matchers.greaterThanOrEqualTo(1L)
+        );
+    }
+
+    /**
+     * EmOutbox can deliver envelopes left by the previous run.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void deliversEnvelopesLeftByPreviousRun() throws Exception {
+        final Bucket bucket = this.bucket();
+        final String subject = "left behind";
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        EmOutboxTest.envelope(subject).unwrap().writeTo(baos);
+        final byte[] bytes = baos.toByteArray();
+        final ObjectMetadata meta = new ObjectMetadata();
+        meta.setContentLength((long) bytes.length);
+        bucket.ocket(String.format("outbox/%s", UUID.randomUUID()))
+            .write(new ByteArrayInputStream(bytes), meta);
+        final Postman postman = Mockito.mock(Postman.class);
+        new EmOutbox(postman, bucket);
+        final ArgumentCaptor<Envelope> captor =
+            ArgumentCaptor.forClass(Envelope.class);
+        Mockito.verify(postman, Mockito.timeout(5000L))
+            .send(captor.capture());
+        MatcherAssert.assertThat(
+            captor.getValue().unwrap().getSubject(),
+            Matchers.equalTo(subject)
+        );
+    }
+
+    /**
+     * Make a bucket in a temporary folder.
+     * @return Bucket
+     * @throws IOException If fails
+     */
+    private Bucket bucket() throws IOException {
+        return new MkRegion(this.folder.getRoot())
+            .bucket(this.folder.newFolder().getName());
+    }
+
+    /**
+     * Retries of all outboxes so far.
+     * @return Total
+     */
+    private static long retries() {
+        final Matcher matcher = Pattern.compile(
+            "netbout_outbox_retries_total (\\d+)"
+        ).matcher(new EmOutbox.Stats().print());
+        long total = 0L;
+        if (matcher.find()) {
+            total = Long.parseLong(matcher.group(1));
+        }
+        return total;
+    }
+
+    /**
+     * Make an envelope with a unique key.
+     * @param subject Subject
+     * @return Envelope
+     */
+    private static Envelope envelope(final String subject) {
+        return new Envelope.MIME()
+            .with(new StRecipient("walter@example.com"))
+            .with(new StSubject(subject))
+            .with(new StKey(UUID.randomUUID().toString()))
+            .with(new EnPlain("how are you?"));
+    }
+
+}
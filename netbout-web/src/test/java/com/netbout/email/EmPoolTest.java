@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import com.jcabi.email.Envelope;
+import com.jcabi.email.Wire;
+import com.jcabi.email.enclosure.EnPlain;
+import com.jcabi.email.stamp.StRecipient;
+import com.jcabi.email.stamp.StSender;
+import com.jcabi.email.stamp.StSubject;
+import com.netbout.misc.Ports;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test case for {@link EmPool}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ * @checkstyle MagicNumber (500 lines)
+ */
+public final class EmPoolTest {
+
+    /**
+     * SMTP server.
+     */
+    private transient GreenMail mail;
+
+    /**
+     * Start SMTP server.
+     * @throws Exception If there is some problem inside
+     */
+    @Before
+    public void start() throws Exception {
+        this.mail = new GreenMail(
+            new ServerSetup(Ports.allocate(), null, "smtp")
+        );
+        this.mail.start();
+    }
+
+    /**
+     * Stop SMTP server.
+     */
+    @After
+    public void stop() {
+        final int port = this.mail.getSmtp().getServerSetup().getPort();
+        this.mail.stop();
+        Ports.release(port);
+    }
+
+    /**
+     * EmPool can send many envelopes through one connection.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void sendsManyEnvelopesThroughOneConnection() throws Exception {
+        final List<Transport> opened = new CopyOnWriteArrayList<>();
+        final EmPool pool = new EmPool(this.wire(opened), 2);
+        try {
+            for (int idx = 0; idx < 10; ++idx) {
+                pool.send(EmPoolTest.envelope(idx));
+            }
+        } finally {
+            pool.close();
+        }
+        MatcherAssert.assertThat(
+            this.mail.getReceivedMessages().length,
+            Matchers.equalTo(10)
+        );
+        MatcherAssert.assertThat(opened, Matchers.hasSize(1));
+    }
+
+    /**
+     * EmPool can replace a broken connection.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void replacesBrokenConnection() throws Exception {
+        final List<Transport> opened = new CopyOnWriteArrayList<>();
+        final EmPool pool = new EmPool(this.wire(opened), 1);
+        try {
+            pool.send(EmPoolTest.envelope(1));
+            opened.get(0).close();
+            pool.send(EmPoolTest.envelope(2));
+        } finally {
+            pool.close();
+        }
+        MatcherAssert.assertThat(
+            this.mail.getReceivedMessages().length,
+            Matchers.equalTo(2)
+        );
+        MatcherAssert.assertThat(opened, Matchers.hasSize(2));
+    }
+
+    /**
+     * Make a wire to the test server, which remembers transports.
+     * @param opened Transports opened so far
+     * @return Wire
+     */
+    private Wire wire(final List<Transport> opened) {
+        final int port = this.mail.getSmtp().getServerSetup().getPort();
+        return new EmPoolTest.LocalWire(port, opened);
+    }
+
+    /**
+     * Make an envelope.
+     * @param num Number of it
+     * @return Envelope
+     */
+    private static Envelope envelope(final int num) {
+        return new Envelope.MIME()
+            .with(new StSender("netbout <test@example.com>"))
+            .with(new StRecipient("walter@example.com"))
+            .with(new StSubject(String.format("envelope #%d", num)))
+            .with(new EnPlain("how are you?"));
+    }
+
+    /**
+     * Wire to local SMTP server, without authentication.
+     */
+    private static final class LocalWire implements Wire {
+        /**
+         * Port of the server.
+         */
+        private final transient int port;
+        /**
+         * Transports opened so far.
+         */
+        private final transient List<Transport> opened;
+        /**
+         * Ctor.
+         * @param prt Port
+         * @param list Transports opened so far
+         */
+        LocalWire(final int prt, final List<Transport> list) {
+            this.port = prt;
+            this.opened = list;
+        }
+        @Override
+        public Transport connect() throws IOException {
+            try {
+                final Transport transport = Session.getInstance(
+                    new Properties()
+                ).getTransport("smtp");
+                transport.connect("localhost", this.port, null, null);
+                this.opened.add(transport);
+                return transport;
+            } catch (final MessagingException ex) {
+                throw new IOException(ex);
+            }
+        }
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof EmPoolTest.LocalWire
+                && EmPoolTest.LocalWire.class.cast(obj).port == this.port;
+        }
+        @Override
+        public int hashCode() {
+            return this.port;
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import com.netbout.mock.MkBase;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Friends;
+import java.util.Arrays;
+import java.util.List;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link EmRecipients}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class EmRecipientsTest {
+
+    /**
+     * EmRecipients can skip the author and unsubscribed friends.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void skipsAuthorAndUnsubscribed() throws Exception {
+        final MkBase base = new MkBase();
+        final Alias author = base.randomAlias();
+        final Bout bout = author.inbox().bout(author.inbox().start());
+        final Alias walter = base.randomAlias();
+        final Alias donny = base.randomAlias();
+        bout.friends().invite(walter.name());
+        bout.friends().invite(donny.name());
+        donny.inbox().bout(bout.number()).subscribe(false);
+        final List<Friend> friends =
+            new EmRecipients(bout, author.name()).resolve();
+        MatcherAssert.assertThat(friends, Matchers.hasSize(1));
+        MatcherAssert.assertThat(
+            friends.get(0).alias(),
+            Matchers.equalTo(walter.name())
+        );
+    }
+
+    /**
+     * EmRecipients can skip friends without emails.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void skipsFriendsWithoutEmails() throws Exception {
+        final Friend walter = Mockito.mock(Friend.class);
+        Mockito.doReturn("walter").when(walter).alias();
+        Mockito.doReturn("walter@example.com").when(walter).email();
+        final Friend donny = Mockito.mock(Friend.class);
+        Mockito.doReturn("donny").when(donny).alias();
+        Mockito.doReturn("").when(donny).email();
+        final Friends friends = Mockito.mock(Friends.class);
+        Mockito.doReturn(Arrays.asList(walter, donny))
+            .when(friends).iterate();
+        final Bout bout = Mockito.mock(Bout.class);
+        Mockito.doReturn(friends).when(bout).friends();
+        Mockito.doReturn(true).when(bout)
+            .subscription(Mockito.anyString());
+        MatcherAssert.assertThat(
+            new EmRecipients(bout, "jeff").resolve(),
+            Matchers.contains(walter)
+        );
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.email;
+
+import java.util.Locale;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.jasypt.encryption.pbe.StandardPBEStringEncryptor;
+import org.junit.Test;
+
+/**
+ * Test case for {@link EmToken}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class EmTokenTest {
+
+    /**
+     * Secret.
+     */
+    private static final String SECRET = "the dude abides";
+
+    /**
+     * EmToken can make a token and read it back.
+     */
+    @Test
+    public void encodesAndDecodes() {
+        final EmToken tokens = new EmToken(EmTokenTest.SECRET);
+        final String text = "urn:test:1|42";
+        final String token = tokens.encode(text);
+        MatcherAssert.assertThat(token, Matchers.startsWith("1-"));
+        MatcherAssert.assertThat(
+            token.matches("[a-z2-7-]+"),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            new EmToken(EmTokenTest.SECRET).decode(token),
+            Matchers.equalTo(text)
+        );
+        MatcherAssert.assertThat(
+            tokens.decode(token.toUpperCase(Locale.ENGLISH)),
+            Matchers.equalTo(text)
+        );
+    }
+
+    /**
+     * EmToken can read tokens made by the old PBE encryptor.
+     */
+    @Test
+    public void decodesLegacyTokens() {
+        final StandardPBEStringEncryptor enc =
+            new StandardPBEStringEncryptor();
+        enc.setPassword(EmTokenTest.SECRET);
+        final String text = "urn:test:2|7";
+        MatcherAssert.assertThat(
+            new EmToken(EmTokenTest.SECRET).decode(enc.encrypt(text)),
+            Matchers.equalTo(text)
+        );
+    }
+
+    /**
+     * EmToken can reject a forged token.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsForgedTokens() {
+        final String token = new EmToken("another secret")
+            .encode("urn:test:3|1");
+        new EmToken(EmTokenTest.SECRET).decode(token);
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.live;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Events}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class EventsTest {
+
+    /**
+     * Events can deliver published events to listening aliases.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void deliversEventsToListeners() throws Exception {
+        final Events events = new Events();
+        final String alias = "walter";
+        final long since = events.last(alias);
+        events.publish(Collections.singleton(alias), "{\"a\":1}");
+        events.publish(Collections.singleton("jesse"), "{\"b\":2}");
+        MatcherAssert.assertThat(
+            events.after(alias, since, 1L, TimeUnit.SECONDS).values(),
+            Matchers.contains("{\"a\":1}")
+        );
+    }
+
+    /**
+     * Events can ask to reload when events are lost.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void asksToReloadWhenEventsAreLost() throws Exception {
+        final Events events = new Events();
+        final String alias = "saul";
+        final long since = events.last(alias);
+        for (int idx = 0; idx <= Events.CAPACITY; ++idx) {
+            events.publish(Collections.singleton(alias), "{}");
+        }
+        MatcherAssert.assertThat(
+            events.after(alias, since, 1L, TimeUnit.SECONDS).values(),
+            Matchers.contains(Events.RELOAD)
+        );
+    }
+
+    /**
+     * Events can return nothing when nothing happens.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void returnsNothingWhenNothingHappens() throws Exception {
+        final Events events = new Events();
+        final String alias = "skyler";
+        MatcherAssert.assertThat(
+            events.after(
+                alias, events.last(alias), 1L, TimeUnit.MILLISECONDS
+            ).entrySet(),
+            Matchers.empty()
+        );
+    }
+
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.live;
+
+import com.netbout.spi.Bout;
+import com.netbout.spi.Friend;
+import com.netbout.spi.Friends;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link LvEvent}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class LvEventTest {
+
+    /**
+     * LvEvent can escape control characters in names.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void escapesControlCharacters() throws Exception {
+        final String name = "donny";
+        final Friend friend = Mockito.mock(Friend.class);
+        Mockito.doReturn(name).when(friend).alias();
+        final Friends friends = Mockito.mock(Friends.class);
+        Mockito.doReturn(Collections.singletonList(friend))
+            .when(friends).iterate();
+        final Bout bout = Mockito.mock(Bout.class);
+        Mockito.doReturn(friends).when(bout).friends();
+        Mockito.doReturn(1L).when(bout).number();
+        final Events events = new Events();
+        final long since = events.last(name);
+        new LvEvent(bout, name).publish("attach", "a\"b\\c\nd\re\u0001");
+        MatcherAssert.assertThat(
+            events.after(name, since, 1L, TimeUnit.SECONDS).values(),
+            Matchers.contains(
+                Matchers.containsString(
+                    "\"name\":\"a\\\"b\\\\c\\nd\\re\\u0001\""
+                )
+            )
+        );
+    }
+
+}
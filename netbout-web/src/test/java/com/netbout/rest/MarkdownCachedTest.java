@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Test case for {@link MarkdownCached}.
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class MarkdownCachedTest {
+
+    /**
+     * MarkdownCached can render the same text only once.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersSameTextOnce() throws Exception {
+        final Markdown origin = Mockito.mock(Markdown.class);
+        final String text = String.format(
+            "**hello**, %d", new Random().nextLong()
+        );
+        Mockito.doReturn("<p>hi</p>").when(origin).html(text);
+        final Markdown markdown = new MarkdownCached(origin);
+        markdown.html(text);
+        MatcherAssert.assertThat(
+            new MarkdownCached(origin).html(text),
+            Matchers.equalTo("<p>hi</p>")
+        );
+        Mockito.verify(origin, Mockito.times(1)).html(text);
+    }
+
+    /**
+     * MarkdownCached can skip reading of the source when key is known.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void skipsSourceByKey() throws Exception {
+        final Callable<String> src = Mockito.mock(Callable.class);
+        Mockito.doReturn("_bye_").when(src).call();
+        final String key = String.format("test:%d", new Random().nextLong());
+        final MarkdownCached markdown =
+            new MarkdownCached(new MarkdownTxtmark());
+        markdown.html(key, src);
+        MatcherAssert.assertThat(
+            markdown.html(key, src),
+            Matchers.containsString("<em>bye</em>")
+        );
+        Mockito.verify(src, Mockito.times(1)).call();
+    }
+
+    /**
+     * MarkdownCached can keep HTML of different origins apart.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void keepsOriginsApart() throws Exception {
+        final String text = String.format(
+            "*origin*, %d", new Random().nextLong()
+        );
+        final Markdown first = Mockito.mock(Markdown.class);
+        Mockito.doReturn("<p>first</p>").when(first).html(text);
+        final Markdown second = Mockito.mock(Markdown.class);
+        Mockito.doReturn("<p>second</p>").when(second).html(text);
+        new MarkdownCached(first).html(text);
+        MatcherAssert.assertThat(
+            new MarkdownCached(second).html(text),
+            Matchers.equalTo("<p>second</p>")
+        );
+    }
+
+}
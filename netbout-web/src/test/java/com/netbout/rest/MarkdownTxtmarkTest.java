@@ -376,4 +376,31 @@ public final class MarkdownTxtmarkTest {
             Matchers.is("<p>backslash \\ and group reference $3<br  /></p>\n")
         );
     }
+
+    /**
+     * MarkdownTxtmark can format a plain link with a dollar sign.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void formatsLinkWithDollar() throws Exception {
+        MatcherAssert.assertThat(
+            new MarkdownTxtmark().html("see http://a.com/$x"),
+            Matchers.is(
+                "<p>see <a href=\"http://a.com/$x\">http://a.com/$x</a></p>\n"
+            )
+        );
+    }
+
+    /**
+     * MarkdownTxtmark can break a line, which ends with an unusual line
+     * separator, right before the next one.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void breaksLineAfterUnusualSeparator() throws Exception {
+        MatcherAssert.assertThat(
+            new MarkdownTxtmark().html("first\u2028\nsecond"),
+            Matchers.containsString("first\u2028<br  />")
+        );
+    }
 }
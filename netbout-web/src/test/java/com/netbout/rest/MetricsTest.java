@@ -0,0 +1,183 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rq.RqFake;
+import org.takes.rs.RsPrint;
+import org.takes.tk.TkText;
+
+/**
+ * Test case for {@link Metrics}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class MetricsTest {
+
+    /**
+     * Metrics can calculate percentiles.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void calculatesPercentiles() throws Exception {
+        final Metrics.Route route = new Metrics().route("/test/percentiles");
+        for (int idx = 1; idx <= 100; ++idx) {
+            route.start();
+            route.finish(
+                HttpURLConnection.HTTP_OK,
+                TimeUnit.MILLISECONDS.toNanos((long) idx)
+            );
+        }
+        MatcherAssert.assertThat(
+            route.quantile(0.5d),
+            Matchers.allOf(
+                Matchers.greaterThanOrEqualTo(0.05d),
+                Matchers.lessThan(0.06d)
+            )
+        );
+    }
+
+    /**
+     * Metrics can skip percentiles of routes without requests.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void skipsPercentilesWithoutRequests() throws Exception {
+        final Metrics.Route route = new Metrics().route("/test/empty");
+        MatcherAssert.assertThat(
+            Double.isNaN(route.quantile(0.99d)),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            new Metrics().print(),
+            Matchers.containsString(
+                // @checkstyle LineLengthCheck (1 line)
+                "netbout_request_seconds{route=\"/test/empty\",quantile=\"0.99\"} NaN"
+            )
+        );
+    }
+
+    /**
+     * Metrics can count requests in flight.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void countsRequestsInFlight() throws Exception {
+        final Metrics.Route route = new Metrics().route("/test/flight");
+        route.start();
+        route.start();
+        MatcherAssert.assertThat(route.flight(), Matchers.equalTo(2L));
+        route.finish(HttpURLConnection.HTTP_OK, 1L);
+        MatcherAssert.assertThat(route.flight(), Matchers.equalTo(1L));
+    }
+
+    /**
+     * Metrics can print metered requests.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void printsMeteredRequests() throws Exception {
+        new RsPrint(
+            new TkMetered("/test/print", new TkText("hi")).act(new RqFake())
+        ).printBody();
+        MatcherAssert.assertThat(
+            new Metrics().print(),
+            Matchers.allOf(
+                Matchers.containsString(
+                    "netbout_request_seconds_count{route=\"/test/print\"} 1"
+                ),
+                Matchers.containsString(
+                    // @checkstyle LineLengthCheck (1 line)
+                    "netbout_responses_total{route=\"/test/print\",code=\"2xx\"} 1"
+                ),
+                Matchers.containsString(
+                    "netbout_requests_in_flight{route=\"/test/print\"} 0"
+                )
+            )
+        );
+    }
+
+    /**
+     * Metrics can finish requests, which bodies fail.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void finishesBrokenRequests() throws Exception {
+        final Response response = new TkMetered(
+            "/test/broken",
+            new Take() {
+                @Override
+                public Response act(final Request req) {
+                    return new Response() {
+                        @Override
+                        public Iterable<String> head() {
+                            return Collections.singletonList(
+                                "HTTP/1.1 200 OK"
+                            );
+                        }
+                        @Override
+                        public InputStream body() throws IOException {
+                            throw new IOException("can't render");
+                        }
+                    };
+                }
+            }
+        ).act(new RqFake());
+        try {
+            response.body();
+        } catch (final IOException ex) {
+            MatcherAssert.assertThat(
+                ex.getLocalizedMessage(),
+                Matchers.containsString("render")
+            );
+        }
+        MatcherAssert.assertThat(
+            new Metrics().print(),
+            Matchers.allOf(
+                Matchers.containsString(
+                    // @checkstyle LineLengthCheck (1 line)
+                    "netbout_responses_total{route=\"/test/broken\",code=\"5xx\"} 1"
+                ),
+                Matchers.containsString(
+                    "netbout_requests_in_flight{route=\"/test/broken\"} 0"
+                )
+            )
+        );
+    }
+
+}
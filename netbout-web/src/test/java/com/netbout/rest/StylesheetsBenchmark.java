@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of {@link Stylesheets}.
+ *
+ * <p>It compares a transformation with a compiled and pooled stylesheet
+ * to the one, which compiles the stylesheet every time, as pages did
+ * before. Run it with {@code mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ * -Dexec.args=Stylesheets} in {@code netbout-web}.</p>
+ *
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class StylesheetsBenchmark {
+
+    /**
+     * Path of the stylesheet.
+     */
+    private static final String XSL = "/com/netbout/rest/stylesheets.xsl";
+
+    /**
+     * XML to transform.
+     */
+    private static final String XML = "<page><name>Jeff</name></page>";
+
+    /**
+     * Transform with a compiled stylesheet from the pool.
+     * @return Result
+     * @throws IOException If fails
+     */
+    @Benchmark
+    public String pooled() throws IOException {
+        final StringWriter writer = new StringWriter();
+        new Stylesheets().transform(
+            StylesheetsBenchmark.XSL,
+            new StreamSource(new StringReader(StylesheetsBenchmark.XML)),
+            new StreamResult(writer)
+        );
+        return writer.toString();
+    }
+
+    /**
+     * Compile the stylesheet and transform.
+     * @return Result
+     * @throws TransformerException If fails
+     */
+    @Benchmark
+    public String compiled() throws TransformerException {
+        final StringWriter writer = new StringWriter();
+        TransformerFactory.newInstance().newTransformer(
+            new StreamSource(
+                StylesheetsBenchmark.class.getResource(
+                    StylesheetsBenchmark.XSL
+                ).toString()
+            )
+        ).transform(
+            new StreamSource(new StringReader(StylesheetsBenchmark.XML)),
+            new StreamResult(writer)
+        );
+        return writer.toString();
+    }
+
+}
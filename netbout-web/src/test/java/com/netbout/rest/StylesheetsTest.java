@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Stylesheets}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class StylesheetsTest {
+
+    /**
+     * Stylesheets can transform XML many times with the same stylesheet.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void transformsManyTimes() throws Exception {
+        final Stylesheets sheets = new Stylesheets();
+        for (final String name : new String[] {"Jeff", "Walter", "Donny"}) {
+            final StringWriter writer = new StringWriter();
+            sheets.transform(
+                "/com/netbout/rest/stylesheets.xsl",
+                new StreamSource(
+                    new StringReader(
+                        String.format("<page><name>%s</name></page>", name)
+                    )
+                ),
+                new StreamResult(writer)
+            );
+            MatcherAssert.assertThat(
+                writer.toString(),
+                Matchers.equalTo(String.format("hello, %s", name))
+            );
+        }
+    }
+
+    /**
+     * Stylesheets can keep not more idle transformers than allowed.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void limitsIdleTransformers() throws Exception {
+        // @checkstyle MagicNumber (20 lines)
+        final Stylesheets.Pool pool = new Stylesheets.Pool(
+            TransformerFactory.newInstance().newTemplates(
+                new StreamSource(
+                    StylesheetsTest.class.getResource("stylesheets.xsl")
+                        .toString()
+                )
+            ),
+            2
+        );
+        final Collection<Transformer> first = new ArrayList<>(3);
+        for (int idx = 0; idx < 3; ++idx) {
+            first.add(pool.take());
+        }
+        for (final Transformer transformer : first) {
+            pool.release(transformer);
+        }
+        final Collection<Transformer> second = new ArrayList<>(3);
+        for (int idx = 0; idx < 3; ++idx) {
+            second.add(pool.take());
+        }
+        second.retainAll(first);
+        MatcherAssert.assertThat(second, Matchers.hasSize(2));
+    }
+
+}
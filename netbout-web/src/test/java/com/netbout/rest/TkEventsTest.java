@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.jcabi.urn.URN;
+import com.netbout.mock.MkBase;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.facets.auth.Identity;
+import org.takes.facets.auth.PsFixed;
+import org.takes.facets.auth.TkAuth;
+import org.takes.rq.RqFake;
+import org.takes.rq.RqWithHeader;
+import org.takes.rs.RsPrint;
+
+/**
+ * Test case for {@link TkEvents}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TkEventsTest {
+
+    /**
+     * TkEvents can ask JSON clients to come back later, when it's busy.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void asksToComeBackWhenBusy() throws Exception {
+        final String urn = "urn:test:61";
+        final MkBase base = new MkBase();
+        base.user(new URN(urn)).aliases().add("busy");
+        final long start = System.currentTimeMillis();
+        final String head = new RsPrint(
+            new TkAuth(
+                new TkEvents(base, 0),
+                new PsFixed(new Identity.Simple(urn))
+            ).act(new RqFake("GET", "/events?since=0"))
+        ).printHead();
+        MatcherAssert.assertThat(
+            head,
+            Matchers.allOf(
+                Matchers.startsWith("HTTP/1.1 503 "),
+                Matchers.containsString("Retry-After: 10")
+            )
+        );
+        MatcherAssert.assertThat(
+            System.currentTimeMillis() - start,
+            Matchers.lessThan(TimeUnit.SECONDS.toMillis(5L))
+        );
+    }
+
+    /**
+     * TkEvents can ask the browser to reconnect later, when it's busy.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void slowsDownEventStreamWhenBusy() throws Exception {
+        final String urn = "urn:test:62";
+        final MkBase base = new MkBase();
+        base.user(new URN(urn)).aliases().add("crowded");
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkAuth(
+                    new TkEvents(base, 0),
+                    new PsFixed(new Identity.Simple(urn))
+                ).act(
+                    new RqWithHeader(
+                        new RqFake("GET", "/events?since=0"),
+                        "Accept", "text/event-stream"
+                    )
+                )
+            ).printBody(),
+            Matchers.startsWith("retry: 10000\n")
+        );
+    }
+
+}
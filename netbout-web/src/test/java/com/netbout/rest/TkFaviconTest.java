@@ -54,4 +54,36 @@ public final class TkFaviconTest {
         );
     }
 
+    /**
+     * TkFavicon can render the same icon for all big numbers.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersSameIconForBigNumbers() throws Exception {
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkFavicon().act(new RqFake("GET", "/?unread=150"))
+            ).printBody(),
+            Matchers.equalTo(
+                new RsPrint(
+                    new TkFavicon().act(new RqFake("GET", "/?unread=99"))
+                ).printBody()
+            )
+        );
+    }
+
+    /**
+     * TkFavicon can let browsers cache the icon.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void letsBrowsersCacheIcon() throws Exception {
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkFavicon().act(new RqFake("GET", "/?unread=3"))
+            ).printHead(),
+            Matchers.containsString("Cache-Control: public, max-age=")
+        );
+    }
+
 }
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Request;
+import org.takes.Take;
+import org.takes.facets.hamcrest.HmRsStatus;
+import org.takes.rq.RqFake;
+import org.takes.rq.RqMethod;
+import org.takes.rq.RqWithHeader;
+import org.takes.rs.RsPrint;
+import org.takes.tk.TkText;
+
+/**
+ * Test case for {@link TkNotModified}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TkNotModifiedTest {
+
+    /**
+     * TkNotModified can answer with 304 when the tag is the same.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void answersNotModified() throws Exception {
+        final Take take = new TkNotModified(
+            new TkText("hello"), TkNotModifiedTest.tag("first")
+        );
+        final String etag = TkNotModifiedTest.etag(
+            take, new RqFake(RqMethod.GET, "/")
+        );
+        MatcherAssert.assertThat(
+            take.act(
+                new RqWithHeader(
+                    new RqFake(RqMethod.GET, "/"), "If-None-Match", etag
+                )
+            ),
+            new HmRsStatus(
+                Matchers.equalTo(HttpURLConnection.HTTP_NOT_MODIFIED)
+            )
+        );
+    }
+
+    /**
+     * TkNotModified can render the page when the tag changes.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rendersModifiedPage() throws Exception {
+        final String etag = TkNotModifiedTest.etag(
+            new TkNotModified(
+                new TkText("old"), TkNotModifiedTest.tag("before")
+            ),
+            new RqFake(RqMethod.GET, "/")
+        );
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkNotModified(
+                    new TkText("new"), TkNotModifiedTest.tag("after")
+                ).act(
+                    new RqWithHeader(
+                        new RqFake(RqMethod.GET, "/"), "If-None-Match", etag
+                    )
+                )
+            ).printBody(),
+            Matchers.equalTo("new")
+        );
+    }
+
+    /**
+     * TkNotModified can ignore POST requests.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresPostRequests() throws Exception {
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkNotModified(
+                    new TkText("posted"), TkNotModifiedTest.tag("any")
+                ).act(new RqFake(RqMethod.POST, "/"))
+            ).print(),
+            Matchers.not(Matchers.containsString("ETag"))
+        );
+    }
+
+    /**
+     * Fetch the ETag the take returns.
+     * @param take Take
+     * @param req Request
+     * @return ETag
+     * @throws IOException If fails
+     */
+    private static String etag(final Take take, final Request req)
+        throws IOException {
+        String etag = "";
+        for (final String line : take.act(req).head()) {
+            if (line.startsWith("ETag: ")) {
+                etag = line.substring("ETag: ".length());
+            }
+        }
+        MatcherAssert.assertThat(etag, Matchers.not(Matchers.isEmptyString()));
+        return etag;
+    }
+
+    /**
+     * Make a fixed tag.
+     * @param text Text of the tag
+     * @return Tag
+     */
+    private static TkNotModified.Tag tag(final String text) {
+        return new TkNotModified.Tag() {
+            @Override
+            public String tag(final Request req) {
+                return text;
+            }
+        };
+    }
+
+}
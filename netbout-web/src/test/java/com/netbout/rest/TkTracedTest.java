@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.rest;
+
+import com.netbout.traced.Trace;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.takes.Request;
+import org.takes.Response;
+import org.takes.Take;
+import org.takes.rq.RqFake;
+import org.takes.rq.RqMethod;
+import org.takes.rs.RsPrint;
+
+/**
+ * Test case for {@link TkTraced}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TkTracedTest {
+
+    /**
+     * TkTraced can count calls made before the head, without rendering
+     * the body in advance.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void countsCallsBeforeHead() throws Exception {
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkTraced(new TkTracedTest.Lazy(), 1000L, "/events").act(
+                    new RqFake(RqMethod.GET, "/")
+                )
+            ).print(),
+            Matchers.allOf(
+                Matchers.containsString("X-Netbout-Calls: 1\r\n"),
+                Matchers.containsString("rendered")
+            )
+        );
+    }
+
+    /**
+     * TkTraced can skip paths it must not trace.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void skipsExcludedPaths() throws Exception {
+        MatcherAssert.assertThat(
+            new RsPrint(
+                new TkTraced(new TkTracedTest.Lazy(), 1000L, "/events").act(
+                    new RqFake(RqMethod.GET, "/events")
+                )
+            ).print(),
+            Matchers.not(Matchers.containsString("X-Netbout-Calls"))
+        );
+    }
+
+    /**
+     * Take, which calls the base once before its head and once more
+     * while its body is rendered.
+     */
+    private static final class Lazy implements Take {
+        @Override
+        public Response act(final Request req) {
+            new Trace().record("Bout.number", System.nanoTime());
+            return new Response() {
+                @Override
+                public Iterable<String> head() {
+                    return Collections.singletonList("HTTP/1.1 200 OK");
+                }
+                @Override
+                public InputStream body() {
+                    new Trace().record("Bout.title", System.nanoTime());
+                    return new ByteArrayInputStream(
+                        "rendered".getBytes(StandardCharsets.UTF_8)
+                    );
+                }
+            };
+        }
+    }
+
+}
@@ -59,7 +59,9 @@ public final class TkIndexTest {
             ).printBody(),
             XhtmlMatchers.hasXPaths(
                 "/page/alias/email",
-                "/page/links/link[@rel='save-email']/@href"
+                "/page/links/link[@rel='save-email']/@href",
+                "/page/links/link[@rel='save-digest']/@href",
+                "/page/digest[.='false']"
             )
         );
     }
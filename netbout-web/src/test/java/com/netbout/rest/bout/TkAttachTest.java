@@ -49,6 +49,7 @@ import org.takes.facets.hamcrest.HmRsStatus;
 import org.takes.rq.RqFake;
 import org.takes.rq.RqLive;
 import org.takes.rq.RqMultipart;
+import org.takes.rq.RqWithHeader;
 import org.takes.rq.RqWithHeaders;
 
 /**
@@ -182,6 +183,37 @@ public final class TkAttachTest {
         }
     }
 
+    /**
+     * TkAttach can reject a too big upload before creating anything.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void rejectsTooBigUploadUpFront() throws Exception {
+        final MkBase base = new MkBase();
+        final String urn = "urn:test:4";
+        final User user = base.user(new URN(urn));
+        user.aliases().add("jeff4");
+        final Alias alias = user.aliases().iterate().iterator().next();
+        final long bout = alias.inbox().start();
+        alias.inbox().bout(bout).friends().invite(alias.name());
+        try {
+            new FkBout(".*", new TkAttach(base)).route(
+                new RqWithAuth(
+                    urn,
+                    new RqWithHeader(
+                        TkAttachTest.fake(bout), "Content-Length", "20000000"
+                    )
+                )
+            );
+            Assert.fail("Expected RsFailure exception but nothing was thrown");
+        } catch (final RsFailure ex) {
+            MatcherAssert.assertThat(
+                alias.inbox().bout(bout).attachments().iterate(),
+                Matchers.emptyIterable()
+            );
+        }
+    }
+
     /**
      * Creates fake request for the provided bout number.
      * @param number Bout number
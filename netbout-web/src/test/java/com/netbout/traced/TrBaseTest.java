@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2009-2016, netbout.com
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are PROHIBITED without prior written permission from
+ * the author. This product may NOT be used anywhere and on any computer
+ * except the server platform of netbout Inc. located at www.netbout.com.
+ * Federal copyright law prohibits unauthorized reproduction by any means
+ * and imposes fines up to $25,000 for violation. If you received
+ * this code accidentally and without intent to use it, please report this
+ * incident to the author by email.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY,
+ * OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT
+ * OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF
+ * SUCH DAMAGE.
+ */
+package com.netbout.traced;
+
+import com.jcabi.urn.URN;
+import com.netbout.mock.MkBase;
+import com.netbout.spi.Alias;
+import com.netbout.spi.Bout;
+import com.netbout.spi.Message;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link TrBase}.
+ * @author Yegor Bugayenko (yegor@teamed.io)
+ * @version $Id$
+ * @since 2.32
+ */
+public final class TrBaseTest {
+
+    /**
+     * TrBase can record calls into the trace.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void recordsCalls() throws Exception {
+        final Alias alias = new TrBase(new MkBase())
+            .user(new URN("urn:test:9911")).aliases().add("gus");
+        final Bout bout = alias.inbox().bout(alias.inbox().start());
+        final Trace trace = new Trace();
+        trace.start();
+        bout.rename("hello");
+        for (final Message msg : bout.messages().iterate()) {
+            msg.text();
+        }
+        final Trace.Spans spans = trace.finish();
+        MatcherAssert.assertThat(
+            spans.print(),
+            Matchers.allOf(
+                Matchers.containsString("Bout.rename(hello)"),
+                Matchers.containsString("Messages.iterate.iterator x1"),
+                Matchers.containsString("Messages.iterate.hasNext x1")
+            )
+        );
+    }
+
+    /**
+     * TrBase can ignore calls when the trace is not started.
+     * @throws Exception If there is some problem inside
+     */
+    @Test
+    public void ignoresCallsWithoutTrace() throws Exception {
+        new TrBase(new MkBase()).user(new URN("urn:test:9912"))
+            .aliases().add("lydia");
+        MatcherAssert.assertThat(
+            new Trace().finish().size(),
+            Matchers.equalTo(0)
+        );
+    }
+
+}